@@ -0,0 +1,294 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class is a BK-tree of names, used to find the names within a given edit distance of a query
+ * without comparing the query to every name.
+ *
+ * Every child of a node is stored under its Levenshtein distance to the node. Because the distance obeys
+ * the triangle inequality, a search for names within distance d of a query only has to visit the children
+ * whose distance to the current node is within d of the query's distance to that node.
+ * A removed name cannot be unlinked, because its children are placed by their distance to it, so its node is
+ * only marked as removed and skipped by searches. Once more than half of the nodes are removed, the tree is
+ * rebuilt from the names left, so a tree under churn stays proportional to the names in use.
+ * @author: Zijie Huang
+ * @date: 10/18/2026
+ */
+class BKTree {
+    /**
+     * The root of the tree, or null while the tree is empty.
+     */
+    private Node root;
+
+    /**
+     * The node of every name in the tree, including removed names, so a name is removed without a search.
+     */
+    private final Map<String, Node> nodes = new HashMap<>();
+
+    /**
+     * The number of names in the tree.
+     */
+    private int size;
+
+    /**
+     * The number of nodes of removed names.
+     */
+    private int removed;
+
+    /**
+     * Add a name to the tree. Adding a name that is already in the tree does nothing.
+     * @param name The name
+     */
+    void add(String name) {
+        Node existing = nodes.get(name);
+
+        if (existing != null) {
+            // A removed name that comes back reuses its node
+            if (existing.removed) {
+                existing.removed = false;
+                removed--;
+                size++;
+            }
+            return;
+        }
+
+        Node added = new Node(name);
+        nodes.put(name, added);
+        size++;
+
+        if (root == null) {
+            root = added;
+            return;
+        }
+
+        int[][] rows = newRows(name);
+        Node node = root;
+
+        while (true) {
+            int distance = distance(name, node.name, rows);
+            Node child = node.child(distance);
+
+            if (child == null) {
+                node.setChild(distance, added);
+                return;
+            }
+
+            node = child;
+        }
+    }
+
+    /**
+     * Remove a name from the tree. Removing a name that is not in the tree does nothing.
+     * @param name The name
+     */
+    void remove(String name) {
+        Node node = nodes.get(name);
+
+        if (node == null || node.removed) {
+            return;
+        }
+
+        node.removed = true;
+        removed++;
+        size--;
+
+        if (removed > size) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Get the number of names in the tree.
+     * @return The number of names
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Get the number of nodes in the tree, including the nodes of removed names.
+     * @return The number of nodes
+     */
+    int nodeCount() {
+        return size + removed;
+    }
+
+    /**
+     * Build the tree again from the names that are not removed.
+     */
+    private void rebuild() {
+        List<String> names = new ArrayList<>(size);
+        Deque<Node> pending = new ArrayDeque<>();
+
+        if (root != null) {
+            pending.push(root);
+        }
+
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+
+            if (!node.removed) {
+                names.add(node.name);
+            }
+
+            for (Node child : node.children) {
+                if (child != null) {
+                    pending.push(child);
+                }
+            }
+        }
+
+        root = null;
+        nodes.clear();
+        size = 0;
+        removed = 0;
+
+        for (String name : names) {
+            add(name);
+        }
+    }
+
+    /**
+     * Find every name within a maximum edit distance of a query.
+     * @param query The query
+     * @param maxDistance The maximum number of single-character insertions, deletions and substitutions
+     * @param visitor Called once for every matching name with its distance to the query
+     */
+    void search(String query, int maxDistance, Visitor visitor) {
+        if (root == null) {
+            return;
+        }
+
+        int[][] rows = newRows(query);
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(root);
+
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            int distance = distance(query, node.name, rows);
+
+            if (distance <= maxDistance && !node.removed) {
+                visitor.visit(node.name, distance);
+            }
+
+            // Only children in [distance - maxDistance, distance + maxDistance] can contain matches
+            int from = Math.max(1, distance - maxDistance);
+            int to = Math.min(node.children.length - 1, distance + maxDistance);
+
+            for (int i = from; i <= to; i++) {
+                if (node.children[i] != null) {
+                    pending.push(node.children[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Allocate the two rows of the distance table used while comparing names with a given string.
+     * @param name The string that is compared with the names of the tree
+     * @return The rows
+     */
+    private static int[][] newRows(String name) {
+        return new int[][] {new int[name.length() + 1], new int[name.length() + 1]};
+    }
+
+    /**
+     * Compute the Levenshtein distance between two strings with two rows of the distance table.
+     * @param a The first string, whose length the rows were allocated for
+     * @param b The second string
+     * @param rows The two rows
+     * @return The number of single-character insertions, deletions and substitutions that turn a into b
+     */
+    private static int distance(String a, String b, int[][] rows) {
+        int[] previous = rows[0];
+        int[] current = rows[1];
+
+        for (int i = 0; i <= a.length(); i++) {
+            previous[i] = i;
+        }
+
+        for (int j = 1; j <= b.length(); j++) {
+            current[0] = j;
+            char c = b.charAt(j - 1);
+
+            for (int i = 1; i <= a.length(); i++) {
+                int substitution = previous[i - 1] + (a.charAt(i - 1) == c ? 0 : 1);
+                current[i] = Math.min(substitution, Math.min(previous[i], current[i - 1]) + 1);
+            }
+
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+
+        return previous[a.length()];
+    }
+
+    /**
+     * Receives the names found by a search.
+     */
+    interface Visitor {
+        /**
+         * Called for a name within the maximum distance of the query.
+         * @param name The name
+         * @param distance The edit distance between the name and the query
+         */
+        void visit(String name, int distance);
+    }
+
+    /**
+     * A node of the tree: a name and its children indexed by their distance to the name.
+     */
+    private static final class Node {
+        /**
+         * The name of the node.
+         */
+        final String name;
+
+        /**
+         * The children of the node. The child at index d has distance d to the name.
+         */
+        Node[] children;
+
+        /**
+         * True once the name was removed. The node stays, because its children were placed by their distance
+         * to the name.
+         */
+        boolean removed;
+
+        /**
+         * Create a node without children.
+         * @param name The name
+         */
+        Node(String name) {
+            this.name = name;
+            this.children = new Node[0];
+        }
+
+        /**
+         * Get the child at a distance.
+         * @param distance The distance
+         * @return The child, or null if there is none
+         */
+        Node child(int distance) {
+            return distance < children.length ? children[distance] : null;
+        }
+
+        /**
+         * Set the child at a distance, growing the children array if needed.
+         * @param distance The distance
+         * @param child The child
+         */
+        void setChild(int distance, Node child) {
+            if (distance >= children.length) {
+                children = Arrays.copyOf(children, distance + 1);
+            }
+            children[distance] = child;
+        }
+    }
+}
@@ -0,0 +1,357 @@
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class puts a bounded cache of search results in front of another directory, so the few names that
+ * most searches ask for are answered without asking the directory again. This helps the directories whose
+ * name searches cost more than a map lookup: ConcurrentDirectory copies the bucket, ColumnarDirectory and
+ * OffHeapDirectory build a Student object for every row, and DirectoryClient makes a round trip.
+ *
+ * First and last name results are kept in two caches. Each cache is split into segments with their own lock
+ * and their own share of the capacity, and every segment evicts its least recently used name once it holds
+ * more names than its share. The capacity counts names rather than students, so the most popular names,
+ * which have the longest results, are never too large to cache; a cached result only holds references to
+ * the students of the directory. Adding or deleting a student removes exactly the first and last name of
+ * that student from the caches, so a cached result is always the result the directory would give.
+ * The cache is as thread-safe as the directory it wraps: any number of threads may search at the same time,
+ * and if the directory is thread-safe, they may also add and delete at the same time.
+ * @author: Zijie Huang
+ * @date: 10/18/2026
+ */
+public class CachingDirectory implements StudentDirectory {
+    /**
+     * The number of names the caches hold together, used by the constructor with only a directory.
+     */
+    private static final int DEFAULT_CAPACITY = 1 << 14;
+
+    /**
+     * The number of segments of each cache. It is a power of two.
+     */
+    private static final int SEGMENTS = 16;
+
+    /**
+     * The directory the searches are forwarded to.
+     */
+    private final StudentDirectory directory;
+
+    /**
+     * The cached results of first name searches.
+     */
+    private final Segment[] firstNameCache;
+
+    /**
+     * The cached results of last name searches.
+     */
+    private final Segment[] lastNameCache;
+
+    /**
+     * The number of name searches answered from the caches.
+     */
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * The number of name searches forwarded to the directory.
+     */
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * The number of names evicted from the caches to make room.
+     */
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructor take the directory to cache the searches of and uses the default capacity.
+     * @param directory The directory
+     */
+    public CachingDirectory(StudentDirectory directory) {
+        this(directory, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor take the directory to cache the searches of and the capacity of the caches.
+     * @param directory The directory
+     * @param capacity The number of names the first and last name caches hold together
+     */
+    public CachingDirectory(StudentDirectory directory, int capacity) {
+        if (directory == null) {
+            throw new IllegalArgumentException("Directory cannot be null.");
+        }
+
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive.");
+        }
+
+        this.directory = directory;
+        int segmentCapacity = Math.max(1, capacity / (2 * SEGMENTS));
+        firstNameCache = new Segment[SEGMENTS];
+        lastNameCache = new Segment[SEGMENTS];
+
+        for (int i = 0; i < SEGMENTS; i++) {
+            firstNameCache[i] = new Segment(segmentCapacity);
+            lastNameCache[i] = new Segment(segmentCapacity);
+        }
+    }
+
+    /**
+     * This method adds a student to the directory and removes the cached results of its names.
+     * @param student
+     */
+    @Override
+    public void addStudent(Student student) {
+        directory.addStudent(student);
+        invalidate(student);
+    }
+
+    /**
+     * This method deletes a student from the directory and removes the cached results of its names.
+     * @param andrewID
+     * @return The deleted student
+     */
+    @Override
+    public Student deleteStudent(String andrewID) {
+        Student deleted = directory.deleteStudent(andrewID);
+        invalidate(deleted);
+        return deleted;
+    }
+
+    /**
+     * This method searches a student by andrewID in the directory. Andrew ID searches are not cached.
+     * @param andrewID
+     * @return The student and null if the student does not exist
+     */
+    @Override
+    public Student searchByAndrewId(String andrewID) {
+        return directory.searchByAndrewId(andrewID);
+    }
+
+    /**
+     * This method searches students by a collection of andrewIDs in the directory.
+     * @param andrewIDs
+     * @return The students in the order of the Andrew IDs, with null for an Andrew ID that does not exist
+     */
+    @Override
+    public List<Student> searchByAndrewIds(Collection<String> andrewIDs) {
+        return directory.searchByAndrewIds(andrewIDs);
+    }
+
+    /**
+     * This method searches students by first name, from the cache if the name is cached.
+     * @param firstName
+     * @return A read-only list of the students with the same first name
+     */
+    @Override
+    public List<Student> searchByFirstName(String firstName) {
+        if (firstName == null) {
+            throw new IllegalArgumentException("First name cannot be null.");
+        }
+
+        Segment segment = segmentOf(firstNameCache, firstName);
+        List<Student> cached = segment.get(firstName);
+
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        misses.increment();
+        long version = segment.version();
+        return segment.put(firstName, readOnlyCopy(directory.searchByFirstName(firstName)), version);
+    }
+
+    /**
+     * This method searches students by last name, from the cache if the name is cached.
+     * @param lastName
+     * @return A read-only list of the students with the same last name
+     */
+    @Override
+    public List<Student> searchByLastName(String lastName) {
+        if (lastName == null) {
+            throw new IllegalArgumentException("Last name cannot be null.");
+        }
+
+        Segment segment = segmentOf(lastNameCache, lastName);
+        List<Student> cached = segment.get(lastName);
+
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        misses.increment();
+        long version = segment.version();
+        return segment.put(lastName, readOnlyCopy(directory.searchByLastName(lastName)), version);
+    }
+
+    /**
+     * This method returns the number of students in the directory.
+     * @return The number of students in the directory
+     */
+    @Override
+    public int size() {
+        return directory.size();
+    }
+
+    /**
+     * This method returns the number of name searches answered from the caches.
+     * @return The number of hits
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * This method returns the number of name searches forwarded to the directory.
+     * @return The number of misses
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * This method returns the number of names evicted from the caches to make room for others.
+     * @return The number of evictions
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * This method empties the caches. The counters are kept.
+     */
+    public void clearCache() {
+        for (int i = 0; i < SEGMENTS; i++) {
+            firstNameCache[i].clear();
+            lastNameCache[i].clear();
+        }
+    }
+
+    /**
+     * Remove the cached results of the first and last name of a student that was added or deleted.
+     * @param student The student
+     */
+    private void invalidate(Student student) {
+        if (student.getFirstName() != null) {
+            segmentOf(firstNameCache, student.getFirstName()).invalidate(student.getFirstName());
+        }
+
+        if (student.getLastName() != null) {
+            segmentOf(lastNameCache, student.getLastName()).invalidate(student.getLastName());
+        }
+    }
+
+    /**
+     * Get the segment of a cache that holds a name.
+     * @param cache The cache
+     * @param name The name
+     * @return The segment
+     */
+    private static Segment segmentOf(Segment[] cache, String name) {
+        int h = name.hashCode();
+        h ^= h >>> 16;
+        return cache[h & (SEGMENTS - 1)];
+    }
+
+    /**
+     * Copy a search result into a read-only list, because some directories return a view that changes with
+     * the directory.
+     * @param students The search result
+     * @return A read-only list of the same students
+     */
+    private static List<Student> readOnlyCopy(List<Student> students) {
+        return students.isEmpty() ? Collections.<Student>emptyList() : List.copyOf(students);
+    }
+
+    /**
+     * This class is one segment of a cache: the results of the names that fall on it, in order of last use.
+     * All methods hold the lock of the segment.
+     * @author: Zijie Huang
+     * @date: 10/18/2026
+     */
+    private final class Segment {
+        /**
+         * The cached results, from the least to the most recently used.
+         */
+        private final LinkedHashMap<String, List<Student>> results = new LinkedHashMap<>(16, 0.75f, true);
+
+        /**
+         * The number of names the segment holds at most.
+         */
+        private final int capacity;
+
+        /**
+         * The number of invalidations so far. A result read from the directory before an invalidation may be
+         * stale, so it is only cached if the version has not changed since the read began.
+         */
+        private long version;
+
+        /**
+         * Constructor take the number of names the segment holds at most.
+         * @param capacity The capacity
+         */
+        Segment(int capacity) {
+            this.capacity = capacity;
+        }
+
+        /**
+         * Get the cached result of a name and mark it as the most recently used.
+         * @param name The name
+         * @return The result, or null if the name is not cached
+         */
+        synchronized List<Student> get(String name) {
+            return results.get(name);
+        }
+
+        /**
+         * Get the current version, before reading a result from the directory.
+         * @return The version
+         */
+        synchronized long version() {
+            return version;
+        }
+
+        /**
+         * Cache the result of a name unless an invalidation happened since the version was taken, and evict the
+         * least recently used name if the segment is over its capacity.
+         * @param name The name
+         * @param result The result read from the directory
+         * @param readVersion The version taken before the result was read
+         * @return The result
+         */
+        synchronized List<Student> put(String name, List<Student> result, long readVersion) {
+            if (readVersion != version) {
+                return result;
+            }
+
+            results.put(name, result);
+
+            if (results.size() > capacity) {
+                Iterator<List<Student>> eldest = results.values().iterator();
+                eldest.next();
+                eldest.remove();
+                evictions.increment();
+            }
+            return result;
+        }
+
+        /**
+         * Remove the cached result of a name and start a new version.
+         * @param name The name
+         */
+        synchronized void invalidate(String name) {
+            version++;
+            results.remove(name);
+        }
+
+        /**
+         * Remove all cached results and start a new version.
+         */
+        synchronized void clear() {
+            version++;
+            results.clear();
+        }
+    }
+}
@@ -0,0 +1,555 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import java.io.FileReader;
+import java.io.IOException;
+
+/**
+ * This class is a directory that stores its students in columns of primitive arrays instead of as one
+ * Student object per row.
+ *
+ * Every student is a row number. The Andrew IDs are kept in a String column, the first and last names as
+ * int ids into a name dictionary that holds each distinct name once, and the phone numbers packed into a
+ * long column. The Andrew ID index is an open-addressing hash table of row numbers, and each name has an
+ * int posting list of the rows with that name. Each row also remembers its position in its two posting
+ * lists, so a delete moves the last row of a list into the hole instead of searching for the row.
+ * Student objects are only created for search results.
+ *
+ * Unlike Directory, the Andrew ID, first name and last name of a student must not be null.
+ * @author: Zijie Huang
+ * @date: 10/18/2026
+ */
+public class ColumnarDirectory implements StudentDirectory {
+    /**
+     * The number of rows the columns start with.
+     */
+    private static final int INITIAL_ROWS = 16;
+
+    /**
+     * The Andrew ID of every row, or null for a free row.
+     */
+    private String[] andrewIDs;
+
+    /**
+     * The first name id of every row.
+     */
+    private int[] firstNameIds;
+
+    /**
+     * The last name id of every row.
+     */
+    private int[] lastNameIds;
+
+    /**
+     * The packed phone number of every row, as returned by Student.packPhoneNumber.
+     */
+    private long[] phoneNumbers;
+
+    /**
+     * The position of every row in the posting list of its first name.
+     */
+    private int[] firstNamePositions;
+
+    /**
+     * The position of every row in the posting list of its last name.
+     */
+    private int[] lastNamePositions;
+
+    /**
+     * The number of rows in use or freed; rows from here on have never been used.
+     */
+    private int rowCount;
+
+    /**
+     * The rows freed by deletes, reused by later adds.
+     */
+    private int[] freeRows;
+
+    /**
+     * The number of free rows.
+     */
+    private int freeCount;
+
+    /**
+     * The hash index from Andrew ID to row.
+     */
+    private final HashIndex andrewIDIndex;
+
+    /**
+     * The dictionary and posting lists of the first names.
+     */
+    private final NameColumn firstNames;
+
+    /**
+     * The dictionary and posting lists of the last names.
+     */
+    private final NameColumn lastNames;
+
+    /**
+     * This constructor creates an empty directory.
+     */
+    public ColumnarDirectory() {
+        andrewIDs = new String[INITIAL_ROWS];
+        firstNameIds = new int[INITIAL_ROWS];
+        lastNameIds = new int[INITIAL_ROWS];
+        phoneNumbers = new long[INITIAL_ROWS];
+        firstNamePositions = new int[INITIAL_ROWS];
+        lastNamePositions = new int[INITIAL_ROWS];
+        freeRows = new int[INITIAL_ROWS];
+
+        andrewIDIndex = new HashIndex() {
+            @Override
+            String keyOf(int row) {
+                return andrewIDs[row];
+            }
+        };
+        firstNames = new NameColumn();
+        lastNames = new NameColumn();
+    }
+
+    /**
+     * This constructor reads a CSV file in the same format as Directory(String fn).
+     * Rows with a duplicate Andrew ID or a missing Andrew ID or name are skipped.
+     * @param fn The CSV file name
+     */
+    public ColumnarDirectory(String fn) {
+        this();
+
+        try (Directory.CSVReader reader = new Directory.CSVReader(new FileReader(fn))) {
+            String[] values = reader.readCSVLine();
+
+            while (values != null) {
+                try {
+                    addStudent(Directory.toStudent(values));
+                } catch (IllegalArgumentException e) {
+                    // Skip the row
+                }
+                values = reader.readCSVLine();
+            }
+        } catch (IOException e) {
+            System.out.println("Error reading file: " + e);
+        }
+    }
+
+    /**
+     * This method adds a student to the columns and indexes.
+     * @param student
+     */
+    @Override
+    public void addStudent(Student student) {
+        if (student == null) {
+            throw new IllegalArgumentException("Student cannot be null.");
+        }
+
+        if (student.getAndrewId() == null || student.getFirstName() == null || student.getLastName() == null) {
+            throw new IllegalArgumentException("Andrew ID and names cannot be null.");
+        }
+
+        if (andrewIDIndex.find(student.getAndrewId()) >= 0) {
+            throw new DuplicateStudentException();
+        }
+
+        int row = newRow();
+        andrewIDs[row] = student.getAndrewId();
+        phoneNumbers[row] = Student.packPhoneNumber(student.getPhoneNumber());
+
+        firstNameIds[row] = firstNames.idFor(student.getFirstName());
+        firstNamePositions[row] = firstNames.addRow(firstNameIds[row], row);
+
+        lastNameIds[row] = lastNames.idFor(student.getLastName());
+        lastNamePositions[row] = lastNames.addRow(lastNameIds[row], row);
+
+        andrewIDIndex.insert(row);
+    }
+
+    /**
+     * This method deletes a student by andrewID from the columns and indexes.
+     * @param andrewID
+     * @return The deleted student
+     */
+    @Override
+    public Student deleteStudent(String andrewID) {
+        if (andrewID == null) {
+            throw new IllegalArgumentException("Andrew ID cannot be null.");
+        }
+
+        int row = andrewIDIndex.find(andrewID);
+
+        if (row < 0) {
+            throw new MissingStudentException();
+        }
+
+        Student student = toStudent(row);
+        andrewIDIndex.remove(row);
+
+        // The row that is moved into the hole of a posting list gets its new position
+        int moved = firstNames.removeRow(firstNameIds[row], firstNamePositions[row]);
+        if (moved >= 0) {
+            firstNamePositions[moved] = firstNamePositions[row];
+        }
+
+        moved = lastNames.removeRow(lastNameIds[row], lastNamePositions[row]);
+        if (moved >= 0) {
+            lastNamePositions[moved] = lastNamePositions[row];
+        }
+
+        andrewIDs[row] = null;
+        freeRows[freeCount++] = row;
+        return student;
+    }
+
+    /**
+     * This method searches a student by andrewID.
+     * @param andrewID
+     * @return A new Student object with the student's info and null if the student does not exist
+     */
+    @Override
+    public Student searchByAndrewId(String andrewID) {
+        if (andrewID == null) {
+            throw new IllegalArgumentException("Andrew ID cannot be null.");
+        }
+
+        int row = andrewIDIndex.find(andrewID);
+        return row < 0 ? null : toStudent(row);
+    }
+
+    /**
+     * This method searches students by first name.
+     * @param firstName
+     * @return A read-only list of new Student objects for the students with the same first name
+     */
+    @Override
+    public List<Student> searchByFirstName(String firstName) {
+        if (firstName == null) {
+            throw new IllegalArgumentException("First name cannot be null.");
+        }
+
+        return toStudents(firstNames, firstNames.find(firstName));
+    }
+
+    /**
+     * This method searches students by last name.
+     * @param lastName
+     * @return A read-only list of new Student objects for the students with the same last name
+     */
+    @Override
+    public List<Student> searchByLastName(String lastName) {
+        if (lastName == null) {
+            throw new IllegalArgumentException("Last name cannot be null.");
+        }
+
+        return toStudents(lastNames, lastNames.find(lastName));
+    }
+
+    /**
+     * This method returns the number of students in the directory.
+     * @return The number of students in the directory
+     */
+    @Override
+    public int size() {
+        return andrewIDIndex.size;
+    }
+
+    /**
+     * Create the Student object of a row.
+     * @param row The row
+     * @return The student
+     */
+    private Student toStudent(int row) {
+        return new Student(andrewIDs[row], firstNames.names[firstNameIds[row]], lastNames.names[lastNameIds[row]],
+        phoneNumbers[row]);
+    }
+
+    /**
+     * Create the Student objects of the rows in a posting list.
+     * @param column The name column
+     * @param id The name id, or -1 if the name is not in the dictionary
+     * @return A read-only list of the students
+     */
+    private List<Student> toStudents(NameColumn column, int id) {
+        if (id < 0) {
+            return Collections.emptyList();
+        }
+
+        int[] rows = column.postings[id];
+        List<Student> result = new ArrayList<>(column.sizes[id]);
+
+        for (int i = 0; i < column.sizes[id]; i++) {
+            result.add(toStudent(rows[i]));
+        }
+
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Get a row for a new student, reusing a freed row if there is one and growing the columns otherwise.
+     * @return The row
+     */
+    private int newRow() {
+        if (freeCount > 0) {
+            return freeRows[--freeCount];
+        }
+
+        if (rowCount == andrewIDs.length) {
+            int capacity = rowCount * 2;
+            andrewIDs = Arrays.copyOf(andrewIDs, capacity);
+            firstNameIds = Arrays.copyOf(firstNameIds, capacity);
+            lastNameIds = Arrays.copyOf(lastNameIds, capacity);
+            phoneNumbers = Arrays.copyOf(phoneNumbers, capacity);
+            firstNamePositions = Arrays.copyOf(firstNamePositions, capacity);
+            lastNamePositions = Arrays.copyOf(lastNamePositions, capacity);
+            freeRows = Arrays.copyOf(freeRows, capacity);
+        }
+
+        return rowCount++;
+    }
+
+    /**
+     * An open-addressing hash table of ints whose keys are Strings looked up through keyOf.
+     * Every slot is two ints: the value plus one, so zero marks an empty slot, and the hash of its key, so
+     * probing past other keys and resizing never have to read the keys. Collisions probe the next slot.
+     */
+    private abstract static class HashIndex {
+        /**
+         * The slots, two ints each. The number of slots is a power of two.
+         */
+        int[] slots = new int[INITIAL_ROWS * 2];
+
+        /**
+         * The number of values in the table.
+         */
+        int size;
+
+        /**
+         * Get the key of a value.
+         * @param value The value
+         * @return The key
+         */
+        abstract String keyOf(int value);
+
+        /**
+         * Find the value with a key.
+         * @param key The key
+         * @return The value, or -1 if no value has the key
+         */
+        int find(String key) {
+            int hash = hash(key);
+            int mask = slots.length / 2 - 1;
+
+            for (int slot = hash & mask; slots[slot * 2] != 0; slot = (slot + 1) & mask) {
+                if (slots[slot * 2 + 1] == hash && keyOf(slots[slot * 2] - 1).equals(key)) {
+                    return slots[slot * 2] - 1;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Insert a value whose key is not in the table yet.
+         * @param value The value
+         */
+        void insert(int value) {
+            // Keep the table at most half full so probe sequences stay short
+            if ((size + 1) * 4 > slots.length) {
+                int[] old = slots;
+                slots = new int[old.length * 2];
+
+                for (int i = 0; i < old.length; i += 2) {
+                    if (old[i] != 0) {
+                        place(old[i], old[i + 1]);
+                    }
+                }
+            }
+
+            place(value + 1, hash(keyOf(value)));
+            size++;
+        }
+
+        /**
+         * Remove a value. Later values of the same probe sequence are moved back so no lookup stops early.
+         * @param value The value, which must be in the table
+         */
+        void remove(int value) {
+            int mask = slots.length / 2 - 1;
+            int slot = hash(keyOf(value)) & mask;
+
+            while (slots[slot * 2] != value + 1) {
+                slot = (slot + 1) & mask;
+            }
+
+            int hole = slot;
+            slot = (slot + 1) & mask;
+
+            while (slots[slot * 2] != 0) {
+                int home = slots[slot * 2 + 1] & mask;
+
+                // Move the entry into the hole if the hole lies between its home slot and its current slot
+                if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                    slots[hole * 2] = slots[slot * 2];
+                    slots[hole * 2 + 1] = slots[slot * 2 + 1];
+                    hole = slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            slots[hole * 2] = 0;
+            size--;
+        }
+
+        /**
+         * Put an entry into the first empty slot of its probe sequence.
+         * @param entry The value plus one
+         * @param hash The hash of its key
+         */
+        private void place(int entry, int hash) {
+            int mask = slots.length / 2 - 1;
+            int slot = hash & mask;
+
+            while (slots[slot * 2] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot * 2] = entry;
+            slots[slot * 2 + 1] = hash;
+        }
+
+        /**
+         * Spread the hash code of a key over the low bits used to pick a slot.
+         * @param key The key
+         * @return The hash
+         */
+        private static int hash(String key) {
+            int h = key.hashCode() * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+
+    /**
+     * The dictionary of one name column and the posting list of every name.
+     * The number of rows of an id counts its uses: once the last row of a name is removed, the name leaves the
+     * dictionary and its id is reused by the next new name, so the dictionary only holds the names in use.
+     */
+    private static final class NameColumn {
+        /**
+         * The name of every id.
+         */
+        String[] names = new String[INITIAL_ROWS];
+
+        /**
+         * The rows of every id. Only the first sizes[id] entries are used.
+         */
+        int[][] postings = new int[INITIAL_ROWS][];
+
+        /**
+         * The number of rows of every id.
+         */
+        int[] sizes = new int[INITIAL_ROWS];
+
+        /**
+         * The number of ids handed out, including the free ones.
+         */
+        int count;
+
+        /**
+         * The ids of removed names, reused before a new id is handed out.
+         */
+        int[] freeIds = new int[INITIAL_ROWS];
+
+        /**
+         * The number of free ids.
+         */
+        int freeCount;
+
+        /**
+         * The hash index from name to id.
+         */
+        final HashIndex index = new HashIndex() {
+            @Override
+            String keyOf(int id) {
+                return names[id];
+            }
+        };
+
+        /**
+         * Find the id of a name.
+         * @param name The name
+         * @return The id, or -1 if the name is not in the dictionary
+         */
+        int find(String name) {
+            return index.find(name);
+        }
+
+        /**
+         * Get the id of a name, adding the name to the dictionary if needed.
+         * @param name The name
+         * @return The id
+         */
+        int idFor(String name) {
+            int id = index.find(name);
+
+            if (id >= 0) {
+                return id;
+            }
+
+            if (freeCount > 0) {
+                id = freeIds[--freeCount];
+            } else {
+                if (count == names.length) {
+                    names = Arrays.copyOf(names, count * 2);
+                    postings = Arrays.copyOf(postings, count * 2);
+                    sizes = Arrays.copyOf(sizes, count * 2);
+                    freeIds = Arrays.copyOf(freeIds, count * 2);
+                }
+                id = count++;
+            }
+
+            names[id] = name;
+            postings[id] = new int[2];
+            index.insert(id);
+            return id;
+        }
+
+        /**
+         * Append a row to the posting list of a name.
+         * @param id The name id
+         * @param row The row
+         * @return The position of the row in the posting list
+         */
+        int addRow(int id, int row) {
+            if (sizes[id] == postings[id].length) {
+                postings[id] = Arrays.copyOf(postings[id], sizes[id] * 2);
+            }
+
+            postings[id][sizes[id]] = row;
+            return sizes[id]++;
+        }
+
+        /**
+         * Remove the row at a position of a posting list by moving the last row of the list into its place.
+         * A name whose last row is removed leaves the dictionary and its id is freed.
+         * @param id The name id
+         * @param position The position of the row to remove
+         * @return The row that was moved to the position, or -1 if the removed row was the last one
+         */
+        int removeRow(int id, int position) {
+            int last = --sizes[id];
+
+            if (last == 0) {
+                index.remove(id);
+                names[id] = null;
+                postings[id] = null;
+                freeIds[freeCount++] = id;
+                return -1;
+            }
+
+            if (position == last) {
+                return -1;
+            }
+
+            int moved = postings[id][last];
+            postings[id][position] = moved;
+            return moved;
+        }
+    }
+}
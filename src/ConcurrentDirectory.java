@@ -0,0 +1,339 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * This class is a thread-safe version of Directory that can be shared by many threads.
+ *
+ * It keeps the same three maps as Directory, but guards them with an array of lock stripes. Every key
+ * (an Andrew ID, a first name or a last name) belongs to one stripe. Adding or deleting a student takes
+ * the write locks of the stripes of its three keys, so the three maps are always updated together, while
+ * updates to students whose keys fall on different stripes run at the same time. Name searches take the
+ * read lock of their stripe and Andrew ID searches take no lock at all.
+ * @author: Zijie Huang
+ * @date: 10/18/2026
+ */
+public class ConcurrentDirectory implements StudentDirectory {
+    /**
+     * The number of lock stripes used by the constructor without parameters.
+     */
+    private static final int DEFAULT_STRIPES = 64;
+
+    /**
+     * This is the Map that maps from Andrew ID to Student object.
+     */
+    private final Map<String, Student> andrewIDToStudent;
+
+    /**
+     * This is the Map that maps from first name to a List of Student objects.
+     */
+    private final Map<String, List<Student>> firstNameToStudents;
+
+    /**
+     * This is the Map that maps from last name to a List of Student objects.
+     */
+    private final Map<String, List<Student>> lastNameToStudents;
+
+    /**
+     * The lock stripes. The number of stripes is a power of two.
+     */
+    private final ReentrantReadWriteLock[] stripes;
+
+    /**
+     * This constructor initializes the three maps to empty and uses the default number of lock stripes.
+     */
+    public ConcurrentDirectory() {
+        this(DEFAULT_STRIPES);
+    }
+
+    /**
+     * This constructor initializes the three maps to empty.
+     * @param stripeCount The number of lock stripes, rounded up to a power of two
+     */
+    public ConcurrentDirectory(int stripeCount) {
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException("Stripe count must be positive.");
+        }
+
+        andrewIDToStudent = new ConcurrentHashMap<>();
+        firstNameToStudents = new ConcurrentHashMap<>();
+        lastNameToStudents = new ConcurrentHashMap<>();
+
+        int size = 1;
+        while (size < stripeCount) {
+            size <<= 1;
+        }
+
+        stripes = new ReentrantReadWriteLock[size];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    /**
+     * This method adds a student to the three maps.
+     * Unlike Directory, the Andrew ID, first name and last name of the student must not be null.
+     * @param student
+     */
+    @Override
+    public void addStudent(Student student) {
+        if (student == null) {
+            throw new IllegalArgumentException("Student cannot be null.");
+        }
+
+        if (student.getAndrewId() == null || student.getFirstName() == null || student.getLastName() == null) {
+            throw new IllegalArgumentException("Andrew ID and names cannot be null.");
+        }
+
+        int[] locked = lockStripes(student);
+
+        try {
+            if (andrewIDToStudent.containsKey(student.getAndrewId())) {
+                throw new DuplicateStudentException();
+            }
+
+            andrewIDToStudent.put(student.getAndrewId(), student);
+            addToBucket(firstNameToStudents, student.getFirstName(), student);
+            addToBucket(lastNameToStudents, student.getLastName(), student);
+        } finally {
+            unlockStripes(locked);
+        }
+    }
+
+    /**
+     * This method deletes a student by andrewID in the three maps.
+     * @param andrewID
+     * @return The deleted student
+     */
+    @Override
+    public Student deleteStudent(String andrewID) {
+        if (andrewID == null) {
+            throw new IllegalArgumentException("Andrew ID cannot be null.");
+        }
+
+        while (true) {
+            Student student = andrewIDToStudent.get(andrewID);
+
+            if (student == null) {
+                throw new MissingStudentException();
+            }
+
+            int[] locked = lockStripes(student);
+
+            try {
+                // Another thread may have replaced the student before the locks were taken
+                if (andrewIDToStudent.get(andrewID) != student) {
+                    continue;
+                }
+
+                andrewIDToStudent.remove(andrewID);
+                removeFromBucket(firstNameToStudents, student.getFirstName(), student);
+                removeFromBucket(lastNameToStudents, student.getLastName(), student);
+                return student;
+            } finally {
+                unlockStripes(locked);
+            }
+        }
+    }
+
+    /**
+     * This method searches a student by andrewID in the andrewIDToStudent map.
+     * @param andrewID
+     * @return The object of the student and null if the student does not exist
+     */
+    @Override
+    public Student searchByAndrewId(String andrewID) {
+        if (andrewID == null) {
+            throw new IllegalArgumentException("Andrew ID cannot be null.");
+        }
+
+        return andrewIDToStudent.get(andrewID);
+    }
+
+    /**
+     * This method searches a student by first name in the firstNameToStudents map.
+     * @param firstName
+     * @return A read-only snapshot of the students with the same first name
+     */
+    @Override
+    public List<Student> searchByFirstName(String firstName) {
+        if (firstName == null) {
+            throw new IllegalArgumentException("First name cannot be null.");
+        }
+
+        return copyBucket(firstNameToStudents, firstName);
+    }
+
+    /**
+     * This method searches a student by last name in the lastNameToStudents map.
+     * @param lastName
+     * @return A read-only snapshot of the students with the same last name
+     */
+    @Override
+    public List<Student> searchByLastName(String lastName) {
+        if (lastName == null) {
+            throw new IllegalArgumentException("Last name cannot be null.");
+        }
+
+        return copyBucket(lastNameToStudents, lastName);
+    }
+
+    /**
+     * This method returns the number of students in the directory.
+     * @return The number of students in the directory
+     */
+    @Override
+    public int size() {
+        return andrewIDToStudent.size();
+    }
+
+    /**
+     * This method checks that the three maps agree with each other: every student is in the bucket of its
+     * first name and of its last name exactly once, and every student in a bucket is in the Andrew ID map.
+     * It locks all stripes, so it sees the maps between two updates.
+     * @return True if the three maps agree, false otherwise
+     */
+    boolean isConsistent() {
+        for (ReentrantReadWriteLock stripe : stripes) {
+            stripe.writeLock().lock();
+        }
+
+        try {
+            return bucketsMatch(firstNameToStudents, true) && bucketsMatch(lastNameToStudents, false);
+        } finally {
+            for (int i = stripes.length - 1; i >= 0; i--) {
+                stripes[i].writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Check one name map against the Andrew ID map.
+     * @param nameToStudents The name map
+     * @param byFirstName True if the map is keyed by first name, false if by last name
+     * @return True if the name map agrees with the Andrew ID map
+     */
+    private boolean bucketsMatch(Map<String, List<Student>> nameToStudents, boolean byFirstName) {
+        int total = 0;
+
+        for (Map.Entry<String, List<Student>> entry : nameToStudents.entrySet()) {
+            if (entry.getValue().isEmpty()) {
+                return false;
+            }
+
+            for (Student student : entry.getValue()) {
+                String name = byFirstName ? student.getFirstName() : student.getLastName();
+
+                if (!entry.getKey().equals(name) || andrewIDToStudent.get(student.getAndrewId()) != student) {
+                    return false;
+                }
+                total++;
+            }
+        }
+
+        return total == andrewIDToStudent.size();
+    }
+
+    /**
+     * Copy the bucket of a name under the read lock of its stripe.
+     * Students are immutable, so only the references are copied.
+     * @param nameToStudents The name map
+     * @param name The name
+     * @return A read-only copy of the bucket
+     */
+    private List<Student> copyBucket(Map<String, List<Student>> nameToStudents, String name) {
+        ReentrantReadWriteLock stripe = stripes[stripeOf(name)];
+        stripe.readLock().lock();
+
+        try {
+            List<Student> sameName = nameToStudents.get(name);
+            return sameName == null ? Collections.<Student>emptyList() : List.copyOf(sameName);
+        } finally {
+            stripe.readLock().unlock();
+        }
+    }
+
+    /**
+     * Add a student to the bucket of a name, creating the bucket if needed.
+     * The caller holds the write lock of the stripe of the name.
+     * @param nameToStudents The name map
+     * @param name The name
+     * @param student The student to add
+     */
+    private static void addToBucket(Map<String, List<Student>> nameToStudents, String name, Student student) {
+        List<Student> sameName = nameToStudents.get(name);
+
+        if (sameName == null) {
+            sameName = new ArrayList<>();
+            nameToStudents.put(name, sameName);
+        }
+
+        sameName.add(student);
+    }
+
+    /**
+     * Remove a student from the bucket of a name, dropping the bucket once it is empty.
+     * The caller holds the write lock of the stripe of the name.
+     * @param nameToStudents The name map
+     * @param name The name
+     * @param student The student to remove
+     */
+    private static void removeFromBucket(Map<String, List<Student>> nameToStudents, String name, Student student) {
+        List<Student> sameName = nameToStudents.get(name);
+        sameName.remove(student);
+
+        if (sameName.isEmpty()) {
+            nameToStudents.remove(name);
+        }
+    }
+
+    /**
+     * Take the write locks of the stripes of a student's Andrew ID, first name and last name.
+     * The stripes are locked in ascending order so that two updates can never wait for each other.
+     * @param student The student
+     * @return The locked stripe indexes in ascending order without duplicates
+     */
+    private int[] lockStripes(Student student) {
+        int[] indexes = {stripeOf(student.getAndrewId()), stripeOf(student.getFirstName()),
+            stripeOf(student.getLastName())};
+        Arrays.sort(indexes);
+
+        int unique = 1;
+        for (int i = 1; i < indexes.length; i++) {
+            if (indexes[i] != indexes[unique - 1]) {
+                indexes[unique++] = indexes[i];
+            }
+        }
+
+        int[] locked = Arrays.copyOf(indexes, unique);
+        for (int index : locked) {
+            stripes[index].writeLock().lock();
+        }
+        return locked;
+    }
+
+    /**
+     * Release the write locks taken by lockStripes.
+     * @param locked The locked stripe indexes
+     */
+    private void unlockStripes(int[] locked) {
+        for (int i = locked.length - 1; i >= 0; i--) {
+            stripes[locked[i]].writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get the stripe a key belongs to.
+     * @param key The key
+     * @return The stripe index
+     */
+    private int stripeOf(String key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        return h & (stripes.length - 1);
+    }
+}
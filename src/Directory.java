@@ -1,315 +1,1402 @@
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.Reader;
-
-/**
- * This class uses three Maps as follows to maintain the collection of students.
- * One Map will have the Andrew ID as the key and will map from Andrew ID to Student object.
- * The other two maps will take either the first name or the last name as the key and will map the name to a List of Student objects.
- * @author: Zijie Huang
- * @date: 09/25/2023
- */
-public class Directory {
-    /**
-     * This is the Map that maps from Andrew ID to Student object.
-     */
-    private Map<String, Student> andrewIDToStudent;
-
-    /**
-     * This is the Map that maps from first name to a List of Student objects.
-     */
-    private Map<String, List<Student>> firstNameToStudents;
-
-    /**
-     * This is the Map that maps from last name to a List of Student objects.
-     */
-    private Map<String, List<Student>> lastNameToStudents;
-
-    /**
-     * This constructor takes a file name as a parameter and reads the file to initialize the three maps.
-     * @param fn
-     */
-    public Directory(String fn) {
-        this();
-
-        try {
-            CSVReader reader = new CSVReader(new java.io.FileReader(fn)); // Open the file
-            String[] values = reader.readCSVLine();
-
-            while (values != null) {
-                Student student = new Student(values[2]); // Create a student object with the andrewID
-                student.setFirstName(values[0]);
-                student.setLastName(values[1]);
-                student.setPhoneNumber(values[3]);
-
-                addStudentToMap(student);
-
-                values = reader.readCSVLine();
-            }
-
-            reader.close();
-        } catch (IOException e) {
-            System.out.println("Error reading file: " + e);
-        }
-    }
-
-    /**
-     * This constructor initializes the three maps to empty.
-     */
-    public Directory() {
-        andrewIDToStudent = new HashMap<>();
-        firstNameToStudents = new HashMap<>();
-        lastNameToStudents = new HashMap<>();
-    }
-
-    /**
-     * This method adds a student to the three maps.
-     * @param student
-     */
-    public void addStudent(Student student) {
-        if (student == null) {
-            throw new IllegalArgumentException("Student cannot be null.");
-        }
-
-        if (andrewIDToStudent.containsKey(student.getAndrewId())) {
-            throw new IllegalArgumentException("Student already exists.");
-        }
-
-        addStudentToMap(new Student(student));
-    }
-
-    /**
-     * This method deletes a student by andrewID in the three maps.
-     * @param andrewID
-     */
-    public void deleteStudent(String andrewID) {
-        if (andrewID == null) {
-            throw new IllegalArgumentException("Andrew ID cannot be null.");
-        }
-
-        if (!andrewIDToStudent.containsKey(andrewID)) {
-            throw new IllegalArgumentException("Student does not exist.");
-        }
-
-        removeStudentFromMap(andrewID);
-    }
-
-    /**
-     * This method searches a student by andrewID in the andrewIDToStudent map.
-     * @param andrewID
-     * @return The object of the student and null if the student does not exist
-     */
-    public Student searchByAndrewId(String andrewID) {
-        if (andrewID == null) {
-            throw new IllegalArgumentException("Andrew ID cannot be null.");
-        }
-
-        return andrewIDToStudent.get(andrewID);
-    }
-
-    /**
-     * This method searches a student by first name in the firstNameToStudents map.
-     * @param firstName
-     * @return The list of students with the same first name
-     */
-    public List<Student> searchByFirstName(String firstName) {
-        if (firstName == null) {
-            throw new IllegalArgumentException("First name cannot be null.");
-        }
-
-        List<Student> sameFirstName = firstNameToStudents.get(firstName);
-        List<Student> sameFirstNameCopy = new ArrayList<>();
-
-        if (sameFirstName != null) {
-            for (Student student : sameFirstName) {
-                sameFirstNameCopy.add(new Student(student));
-            }
-        }
-
-        return sameFirstNameCopy;
-    }
-
-    /**
-     * This method searches a student by last name in the lastNameToStudents map.
-     * @param lastName
-     * @return The list of students with the same last name
-     */
-    public List<Student> searchByLastName(String lastName) {
-        if (lastName == null) {
-            throw new IllegalArgumentException("Last name cannot be null.");
-        }
-
-        List<Student> sameLastName = lastNameToStudents.get(lastName);
-        List<Student> sameLastNameCopy = new ArrayList<>();
-
-        if (sameLastName != null) {
-            for (Student student : sameLastName) {
-                sameLastNameCopy.add(new Student(student));
-            }
-        }
-
-        return sameLastNameCopy;
-    }
-
-    /**
-     * This method returns the number of students in the directory.
-     * @return The number of students in the directory
-     */
-    public int size() {
-       return andrewIDToStudent.size();
-    }
-
-    /**
-     * This method adds a student to the three maps.
-     * @param student
-     */
-    private void addStudentToMap(Student student) {
-        // Map by Andrew ID
-        andrewIDToStudent.put(student.getAndrewId(), student);
-
-        // Map by first name
-        List<Student> sameFirstName = firstNameToStudents.get(student.getFirstName());
-
-        if (sameFirstName == null) {
-            sameFirstName = new ArrayList<>();
-            firstNameToStudents.put(student.getFirstName(), sameFirstName);
-        }
-
-        sameFirstName.add(student);
-
-        // Map by last name
-        List<Student> sameLastName = lastNameToStudents.get(student.getLastName());
-
-        if (sameLastName == null) {
-            sameLastName = new ArrayList<>();
-            lastNameToStudents.put(student.getLastName(), sameLastName);
-        }
-
-        sameLastName.add(student);
-    }
-
-    /**
-     * This method removes a student from the three maps.
-     * @param andrewID
-     */
-    private void removeStudentFromMap(String andrewID) {
-        Student student = andrewIDToStudent.remove(andrewID);
-
-        List<Student> sameFirstName = firstNameToStudents.get(student.getFirstName());
-        sameFirstName.remove(student);
-
-        List<Student> sameLastName = lastNameToStudents.get(student.getLastName());
-        sameLastName.remove(student);
-    }
-
-    /**
-     * A simplified version of CSV Reader.
-     *
-     * Subclass of a BufferedReader to handle a character stream that consists of
-     * comma separated values (CSVs)
-     *
-     * Provides an additional instance method, readCSVLine(), that parses lines into
-     * substrings. The substrings are separated by comma in the original input
-     * stream. The readCSVLine() method returns an array of references to Strings.
-     * The Strings are the values from the line that were separated by commas. If a
-     * value was surrounded by quotes, the quotes are removed.
-     *
-     * Limitations: Spaces before or after the commas are not removed. In the first
-     * and last quote are removed from a value. Embedding commas in a quoted value
-     * is not handled properly. (In this case, the commas will separate the values
-     * and the quotes will not be removed from the ends of those values.
-     *
-     * @author Jeffrey Eppinger (jle@cs.cmu.com)
-     * Date: October 2, 2007
-     */
-    private class CSVReader extends BufferedReader {
-        /**
-         * Initializes the class.
-         * @param in the reader from which to read CSV lines
-         */
-        CSVReader(Reader in) {
-            super(in);
-        }
-
-        /**
-         * This is the only additional method. It uses readLine from the superclass
-         * to get a line but returns the comma separated values as in an array of
-         * strings.
-         * @return an array of Strings containing the values At the end of the file,
-         *         readCSVLine returns null (just as readLine does).
-         * @throws IOException throws IOException
-         */
-        public String[] readCSVLine() throws IOException {
-
-            // Get a line by calling the superclass's readLine method
-            String line = super.readLine();
-
-            // If we're at the end of the file, readLine returns null
-            // so we return null.
-            if (line == null) {
-                return null;
-            }
-
-            // Count up the number of commas
-            int commaCount = 0;
-            for (int i = 0; i < line.length(); i++) {
-                if (line.charAt(i) == ',') {
-                    commaCount = commaCount + 1;
-                }
-            }
-
-            // Allocate an array of the necessary size to return the strings
-            String[] values = new String[commaCount + 1];
-
-            // In a loop, set beginIndex and endIndex to the start and end
-            // positions of each argument and then use the substring method
-            // to create strings for each of the comma separate values
-
-            // Start beginIndex at the beginning of the String, position 0
-            int beginIndex = 0;
-
-            for (int i = 0; i < commaCount; i++) {
-                // set endIndex to the position of the (next) comma
-                int endIndex = line.indexOf(',', beginIndex);
-
-                // if the argument begins and ends with quotes, remove them
-                if (line.charAt(beginIndex) == '"' && line.charAt(endIndex - 1) == '"') {
-
-                    // If we made it here, we have quotes around our string.
-                    // Add/subtract one from the start/end of the args
-                    // to substring to get the value. (See else comment
-                    // below for details on how this works.)
-                    values[i] = line.substring(beginIndex + 1, endIndex - 1);
-
-                } else {
-                    // If we made it here, we don't have quotes around
-                    // our string. Take the substring of this line
-                    // from the beginIndex to the endIndex. The substring
-                    // method called on a String will return the portion
-                    // of the String starting with the beginIndex and up
-                    // to but not including the endIndex.
-                    values[i] = line.substring(beginIndex, endIndex);
-                }
-
-                // Set beginIndex to the position character after the
-                // comma. (Remember, endIndex was set to the position
-                // of the comma.)
-                beginIndex = endIndex + 1;
-            }
-
-            // handle the value that's after the last comma
-            if (line.charAt(beginIndex) == '"' && line.charAt(line.length() - 1) == '"') {
-                values[commaCount] = line.substring(beginIndex + 1, line.length() - 1);
-            } else {
-                values[commaCount] = line.substring(beginIndex, line.length());
-            }
-
-            return values;
-        }
-    }
-}
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class uses three Maps as follows to maintain the collection of students.
+ * One Map will have the Andrew ID as the key and will map from Andrew ID to Student object.
+ * The other two maps will take either the first name or the last name as the key and will map the name to a List of Student objects.
+ * @author: Zijie Huang
+ * @date: 09/25/2023
+ */
+public class Directory implements StudentDirectory {
+    /**
+     * This is the Map that maps from Andrew ID to Student object.
+     */
+    private Map<String, Student> andrewIDToStudent;
+
+    /**
+     * This is the Map that maps from first name to a List of Student objects.
+     * The lists are StudentBuckets, so a student can be removed in constant time.
+     */
+    private Map<String, StudentBucket> firstNameToStudents;
+
+    /**
+     * This is the Map that maps from last name to a List of Student objects.
+     * The lists are StudentBuckets, so a student can be removed in constant time.
+     */
+    private Map<String, StudentBucket> lastNameToStudents;
+
+    /**
+     * This is the Map that maps from normalized first name to the lists of every first name with that key,
+     * used to answer normalized searches.
+     */
+    private Map<String, NameVariants> normalizedFirstNames;
+
+    /**
+     * This is the Map that maps from normalized last name to the lists of every last name with that key,
+     * used to answer normalized searches.
+     */
+    private Map<String, NameVariants> normalizedLastNames;
+
+    /**
+     * The normalizer that computes the keys of the normalized name maps.
+     */
+    private final NameNormalizer normalizer;
+
+    /**
+     * The Andrew IDs in sorted order, used to answer prefix searches.
+     */
+    private NavigableMap<String, Student> sortedAndrewIDs;
+
+    /**
+     * The first names in sorted order with their lists, used to answer prefix searches.
+     */
+    private NavigableMap<String, StudentBucket> sortedFirstNames;
+
+    /**
+     * The last names in sorted order with their lists, used to answer prefix searches.
+     */
+    private NavigableMap<String, StudentBucket> sortedLastNames;
+
+    /**
+     * The first names in use, used to answer fuzzy searches.
+     */
+    private BKTree firstNameTree;
+
+    /**
+     * The last names in use, used to answer fuzzy searches.
+     */
+    private BKTree lastNameTree;
+
+    /**
+     * The smallest chunk in bytes that loadParallel hands to a single task.
+     */
+    private static final long MIN_CHUNK_SIZE = 1 << 20;
+
+    /**
+     * The largest chunk in bytes that loadParallel hands to a single task.
+     */
+    private static final long MAX_CHUNK_SIZE = 64 << 20;
+
+    /**
+     * This constructor takes a file name as a parameter and reads the file to initialize the three maps.
+     * Malformed rows and rows with an Andrew ID that was already read are skipped.
+     * @param fn
+     */
+    public Directory(String fn) {
+        this(fn, NameNormalizer.DEFAULT);
+    }
+
+    /**
+     * This constructor takes a file name and the normalizer of the normalized name maps, and reads the file
+     * to initialize the maps. Malformed rows and rows with an Andrew ID that was already read are skipped.
+     * @param fn
+     * @param pnormalizer The normalizer of the normalized name maps
+     */
+    public Directory(String fn, NameNormalizer pnormalizer) {
+        this(pnormalizer);
+        long start = DirectoryMetrics.LOAD.start();
+
+        try {
+            CSVReader reader = new CSVReader(new java.io.FileReader(fn)); // Open the file
+            String[] values = reader.readCSVLine();
+
+            while (values != null) {
+                // Skip blank lines, lines with fewer than four values and later rows of a duplicate Andrew ID
+                if (values.length >= 4 && !andrewIDToStudent.containsKey(values[2])) {
+                    addStudentToMap(toSharedStudent(values[0], values[1], values[2], values[3]));
+                }
+
+                values = reader.readCSVLine();
+            }
+
+            reader.close();
+        } catch (IOException e) {
+            System.out.println("Error reading file: " + e);
+        }
+
+        DirectoryMetrics.LOAD.record(start, andrewIDToStudent.size());
+    }
+
+    /**
+     * This method loads a CSV file in the same format as Directory(String fn), but splits the file
+     * into byte-range chunks at newline boundaries and scans the mapped chunks in parallel on the common
+     * fork-join pool. Each chunk fills its own partial maps, which are merged at the end in file order.
+     * Empty lines, lines with fewer than four values and rows with an Andrew ID that was already read are
+     * skipped, like Directory(String fn) does. If any chunk cannot be read, the directory is empty rather than
+     * missing the rows of that chunk.
+     * @param fn The CSV file name
+     * @return The directory loaded from the file
+     */
+    public static Directory loadParallel(String fn) {
+        long start = DirectoryMetrics.LOAD.start();
+        Directory directory;
+
+        try (FileChannel channel = FileChannel.open(Paths.get(fn), StandardOpenOption.READ)) {
+            long[] bounds = splitIntoChunks(channel, ForkJoinPool.commonPool().getParallelism() * 4);
+            directory = ForkJoinPool.commonPool().invoke(new ChunkTask(channel, bounds, 0, bounds.length - 1));
+        } catch (IOException e) {
+            System.out.println("Error reading file: " + e);
+            directory = new Directory();
+        } catch (UncheckedIOException e) {
+            System.out.println("Error reading file: " + e.getCause());
+            directory = new Directory();
+        }
+
+        DirectoryMetrics.LOAD.record(start, directory.size());
+        return directory;
+    }
+
+    /**
+     * This method loads a CSV file in the same format as Directory(String fn) by memory-mapping it and scanning
+     * the bytes for commas, quotes and newlines directly. Only the four fields the directory keeps are decoded,
+     * so no String is created for whole lines or for extra columns. Rows are skipped like Directory(String fn)
+     * does.
+     * @param fn The CSV file name
+     * @return The directory loaded from the file
+     */
+    public static Directory loadMapped(String fn) {
+        long start = DirectoryMetrics.LOAD.start();
+        Directory directory = new Directory();
+
+        try (FileChannel channel = FileChannel.open(Paths.get(fn), StandardOpenOption.READ)) {
+            long[] bounds = splitIntoChunks(channel, 1);
+
+            for (int i = 0; i < bounds.length - 1; i++) {
+                directory.loadMappedRange(channel, bounds[i], bounds[i + 1]);
+            }
+        } catch (IOException e) {
+            System.out.println("Error reading file: " + e);
+        }
+
+        DirectoryMetrics.LOAD.record(start, directory.size());
+        return directory;
+    }
+
+    /**
+     * This constructor initializes the three maps to empty and normalizes names with NameNormalizer.DEFAULT.
+     */
+    public Directory() {
+        this(NameNormalizer.DEFAULT);
+    }
+
+    /**
+     * This constructor initializes the three maps to empty.
+     * @param pnormalizer The normalizer of the normalized name maps
+     */
+    public Directory(NameNormalizer pnormalizer) {
+        this(0, pnormalizer);
+    }
+
+    /**
+     * This constructor initializes the three maps to empty, sizing the Andrew ID map so that the
+     * expected number of students can be added without rehashing.
+     * @param expectedStudents The number of students that will be added, or 0 if it is not known
+     * @param pnormalizer The normalizer of the normalized name maps
+     */
+    Directory(int expectedStudents, NameNormalizer pnormalizer) {
+        if (pnormalizer == null) {
+            throw new IllegalArgumentException("Normalizer cannot be null.");
+        }
+
+        andrewIDToStudent = expectedStudents > 0 ? new HashMap<>((int) (expectedStudents / 0.75f) + 1)
+        : new HashMap<>();
+        firstNameToStudents = new HashMap<>();
+        lastNameToStudents = new HashMap<>();
+        normalizedFirstNames = new HashMap<>();
+        normalizedLastNames = new HashMap<>();
+        normalizer = pnormalizer;
+        sortedAndrewIDs = new TreeMap<>();
+        sortedFirstNames = new TreeMap<>();
+        sortedLastNames = new TreeMap<>();
+        firstNameTree = new BKTree();
+        lastNameTree = new BKTree();
+    }
+
+    /**
+     * This method adds a student to the three maps.
+     * If another student already has the same first or last name, the directory keeps a copy of the student
+     * that shares the directory's String for that name, so every distinct name is stored once.
+     * @param student
+     */
+    public void addStudent(Student student) {
+        long start = DirectoryMetrics.ADD.start();
+
+        if (student == null) {
+            throw new IllegalArgumentException("Student cannot be null.");
+        }
+
+        if (andrewIDToStudent.containsKey(student.getAndrewId())) {
+            throw new DuplicateStudentException();
+        }
+
+        // Students are immutable, so the directory can keep the caller's object unless it has to be copied
+        // to share the Strings of names that are already in the directory
+        addStudentToMap(withSharedNames(student));
+        DirectoryMetrics.ADD.record(start, 1);
+    }
+
+    /**
+     * This method adds a batch of students to the three maps, all or nothing.
+     * The whole batch is checked before any name map is changed: if a student is null, or its Andrew ID is
+     * already in the directory or appears twice in the batch, the directory is left as it was.
+     * The Andrew ID map is grown once for the whole batch instead of rehashing along the way.
+     * @param students
+     */
+    public void addAll(Collection<Student> students) {
+        long start = DirectoryMetrics.ADD_ALL.start();
+
+        if (students == null) {
+            throw new IllegalArgumentException("Students cannot be null.");
+        }
+
+        ensureCapacity(andrewIDToStudent.size() + students.size());
+
+        // Claim every Andrew ID first, giving them back if one of them is taken
+        List<Student> claimed = new ArrayList<>(students.size());
+
+        for (Student student : students) {
+            if (student == null || andrewIDToStudent.putIfAbsent(student.getAndrewId(), student) != null) {
+                for (Student added : claimed) {
+                    andrewIDToStudent.remove(added.getAndrewId());
+                }
+                if (student == null) {
+                    throw new IllegalArgumentException("Student cannot be null.");
+                }
+                throw new DuplicateStudentException();
+            }
+            claimed.add(student);
+        }
+
+        for (Student student : claimed) {
+            Student shared = withSharedNames(student);
+
+            if (shared != student) {
+                andrewIDToStudent.put(shared.getAndrewId(), shared);
+            }
+
+            if (shared.getAndrewId() != null) {
+                sortedAndrewIDs.put(shared.getAndrewId(), shared);
+            }
+
+            addStudentToNameMaps(shared);
+        }
+
+        DirectoryMetrics.ADD_ALL.record(start, claimed.size());
+    }
+
+    /**
+     * This method deletes a batch of students by andrewID in the three maps, all or nothing.
+     * The whole batch is checked before any name map is changed: if an Andrew ID is null, not in the
+     * directory or appears twice in the batch, the directory is left as it was.
+     * @param andrewIDs
+     * @return The deleted students, in the order of the Andrew IDs
+     */
+    public List<Student> deleteAll(Collection<String> andrewIDs) {
+        long start = DirectoryMetrics.DELETE_ALL.start();
+
+        if (andrewIDs == null) {
+            throw new IllegalArgumentException("Andrew IDs cannot be null.");
+        }
+
+        // Take every student out of the Andrew ID map first, putting them back if one is missing
+        List<Student> removed = new ArrayList<>(andrewIDs.size());
+
+        for (String andrewID : andrewIDs) {
+            Student student = andrewID == null ? null : andrewIDToStudent.remove(andrewID);
+
+            if (student == null) {
+                for (Student taken : removed) {
+                    andrewIDToStudent.put(taken.getAndrewId(), taken);
+                }
+                if (andrewID == null) {
+                    throw new IllegalArgumentException("Andrew ID cannot be null.");
+                }
+                throw new MissingStudentException();
+            }
+            removed.add(student);
+        }
+
+        for (Student student : removed) {
+            removeStudentFromMap(student);
+        }
+
+        DirectoryMetrics.DELETE_ALL.record(start, removed.size());
+        return removed;
+    }
+
+    /**
+     * This method deletes a student by andrewID in the three maps.
+     * @param andrewID
+     * @return The deleted student
+     */
+    public Student deleteStudent(String andrewID) {
+        long start = DirectoryMetrics.DELETE.start();
+
+        if (andrewID == null) {
+            throw new IllegalArgumentException("Andrew ID cannot be null.");
+        }
+
+        Student student = andrewIDToStudent.remove(andrewID);
+
+        if (student == null) {
+            throw new MissingStudentException();
+        }
+
+        removeStudentFromMap(student);
+        DirectoryMetrics.DELETE.record(start, 1);
+        return student;
+    }
+
+    /**
+     * This method searches a student by andrewID in the andrewIDToStudent map.
+     * @param andrewID
+     * @return The object of the student and null if the student does not exist
+     */
+    public Student searchByAndrewId(String andrewID) {
+        long start = DirectoryMetrics.SEARCH_BY_ANDREW_ID.start();
+
+        if (andrewID == null) {
+            throw new IllegalArgumentException("Andrew ID cannot be null.");
+        }
+
+        Student student = andrewIDToStudent.get(andrewID);
+        DirectoryMetrics.SEARCH_BY_ANDREW_ID.record(start, student == null ? 0 : 1);
+        return student;
+    }
+
+    /**
+     * This method searches students by a collection of andrewIDs in the andrewIDToStudent map.
+     * The result list is sized once and every Andrew ID is looked up directly in the map.
+     * @param andrewIDs
+     * @return The students in the order of the Andrew IDs, with null for an Andrew ID that does not exist
+     */
+    public List<Student> searchByAndrewIds(Collection<String> andrewIDs) {
+        long start = DirectoryMetrics.SEARCH_BY_ANDREW_IDS.start();
+
+        if (andrewIDs == null) {
+            throw new IllegalArgumentException("Andrew IDs cannot be null.");
+        }
+
+        List<Student> result = new ArrayList<>(andrewIDs.size());
+        for (String andrewID : andrewIDs) {
+            if (andrewID == null) {
+                throw new IllegalArgumentException("Andrew ID cannot be null.");
+            }
+            result.add(andrewIDToStudent.get(andrewID));
+        }
+
+        DirectoryMetrics.SEARCH_BY_ANDREW_IDS.record(start, result.size());
+        return result;
+    }
+
+    /**
+     * This method searches a student by first name in the firstNameToStudents map.
+     * @param firstName
+     * @return A read-only view of the students with the same first name, which reflects later changes to the directory
+     */
+    public List<Student> searchByFirstName(String firstName) {
+        long start = DirectoryMetrics.SEARCH_BY_FIRST_NAME.start();
+
+        if (firstName == null) {
+            throw new IllegalArgumentException("First name cannot be null.");
+        }
+
+        List<Student> result = readOnlyView(firstNameToStudents.get(firstName));
+        DirectoryMetrics.SEARCH_BY_FIRST_NAME.record(start, result.size());
+        return result;
+    }
+
+    /**
+     * This method searches a student by last name in the lastNameToStudents map.
+     * @param lastName
+     * @return A read-only view of the students with the same last name, which reflects later changes to the directory
+     */
+    public List<Student> searchByLastName(String lastName) {
+        long start = DirectoryMetrics.SEARCH_BY_LAST_NAME.start();
+
+        if (lastName == null) {
+            throw new IllegalArgumentException("Last name cannot be null.");
+        }
+
+        List<Student> result = readOnlyView(lastNameToStudents.get(lastName));
+        DirectoryMetrics.SEARCH_BY_LAST_NAME.record(start, result.size());
+        return result;
+    }
+
+    /**
+     * This method searches students by first name after normalizing it, so it also finds the students whose
+     * first name differs only in case, accents or white space at the ends. The normalized key of every first
+     * name was computed when the name was added, so the search is a single map lookup, and a query that is
+     * already normalized is looked up without allocating.
+     * @param firstName
+     * @return A read-only view of the students whose first name has the same normalized key
+     */
+    public List<Student> searchByNormalizedFirstName(String firstName) {
+        long start = DirectoryMetrics.SEARCH_BY_NORMALIZED_NAME.start();
+
+        if (firstName == null) {
+            throw new IllegalArgumentException("First name cannot be null.");
+        }
+
+        List<Student> result = readOnlyView(normalizedFirstNames.get(normalizer.normalize(firstName)));
+        DirectoryMetrics.SEARCH_BY_NORMALIZED_NAME.record(start, result.size());
+        return result;
+    }
+
+    /**
+     * This method searches students by last name after normalizing it, so it also finds the students whose
+     * last name differs only in case, accents or white space at the ends.
+     * @param lastName
+     * @return A read-only view of the students whose last name has the same normalized key
+     */
+    public List<Student> searchByNormalizedLastName(String lastName) {
+        long start = DirectoryMetrics.SEARCH_BY_NORMALIZED_NAME.start();
+
+        if (lastName == null) {
+            throw new IllegalArgumentException("Last name cannot be null.");
+        }
+
+        List<Student> result = readOnlyView(normalizedLastNames.get(normalizer.normalize(lastName)));
+        DirectoryMetrics.SEARCH_BY_NORMALIZED_NAME.record(start, result.size());
+        return result;
+    }
+
+    /**
+     * This method returns the read-only view of the lists of a normalized name without copying them.
+     * @param variants The lists of the normalized name, may be null
+     * @return The read-only view, or an empty list if there are no lists
+     */
+    private static List<Student> readOnlyView(NameVariants variants) {
+        return variants == null ? Collections.<Student>emptyList() : variants.readOnlyView();
+    }
+
+    /**
+     * This method returns the read-only view of a name list without copying it.
+     * @param sameName The name list, may be null
+     * @return The read-only view, or an empty list if there is no name list
+     */
+    private static List<Student> readOnlyView(StudentBucket sameName) {
+        return sameName == null ? Collections.<Student>emptyList() : sameName.readOnlyView();
+    }
+
+    /**
+     * This method searches students whose Andrew ID starts with a prefix, in Andrew ID order.
+     * It takes time proportional to the length of the prefix and the number of results, so it is fast enough
+     * to run on every keystroke.
+     * @param prefix The beginning of the Andrew ID
+     * @param limit The maximum number of students to return
+     * @return The students whose Andrew ID starts with the prefix
+     */
+    public List<Student> searchByAndrewIdPrefix(String prefix, int limit) {
+        long start = DirectoryMetrics.SEARCH_BY_PREFIX.start();
+
+        if (prefix == null) {
+            throw new IllegalArgumentException("Andrew ID prefix cannot be null.");
+        }
+
+        List<Student> result = new ArrayList<>(Math.min(Math.max(limit, 0), 16));
+
+        for (Map.Entry<String, Student> entry : sortedAndrewIDs.tailMap(prefix, true).entrySet()) {
+            if (result.size() >= limit || !entry.getKey().startsWith(prefix)) {
+                break;
+            }
+            result.add(entry.getValue());
+        }
+
+        DirectoryMetrics.SEARCH_BY_PREFIX.record(start, result.size());
+        return result;
+    }
+
+    /**
+     * This method searches students whose first name starts with a prefix, in first name order.
+     * @param prefix The beginning of the first name
+     * @param limit The maximum number of students to return
+     * @return The students whose first name starts with the prefix
+     */
+    public List<Student> searchByFirstNamePrefix(String prefix, int limit) {
+        long start = DirectoryMetrics.SEARCH_BY_PREFIX.start();
+
+        if (prefix == null) {
+            throw new IllegalArgumentException("First name prefix cannot be null.");
+        }
+
+        List<Student> result = searchByNamePrefix(sortedFirstNames, prefix, limit);
+        DirectoryMetrics.SEARCH_BY_PREFIX.record(start, result.size());
+        return result;
+    }
+
+    /**
+     * This method searches students whose last name starts with a prefix, in last name order.
+     * @param prefix The beginning of the last name
+     * @param limit The maximum number of students to return
+     * @return The students whose last name starts with the prefix
+     */
+    public List<Student> searchByLastNamePrefix(String prefix, int limit) {
+        long start = DirectoryMetrics.SEARCH_BY_PREFIX.start();
+
+        if (prefix == null) {
+            throw new IllegalArgumentException("Last name prefix cannot be null.");
+        }
+
+        List<Student> result = searchByNamePrefix(sortedLastNames, prefix, limit);
+        DirectoryMetrics.SEARCH_BY_PREFIX.record(start, result.size());
+        return result;
+    }
+
+    /**
+     * This method collects the students of the names that start with a prefix.
+     * @param sortedNames The names in sorted order with their lists
+     * @param prefix The beginning of the name
+     * @param limit The maximum number of students to return
+     * @return The students whose name starts with the prefix
+     */
+    private static List<Student> searchByNamePrefix(NavigableMap<String, StudentBucket> sortedNames, String prefix,
+    int limit) {
+        List<Student> result = new ArrayList<>(Math.min(Math.max(limit, 0), 16));
+
+        for (Map.Entry<String, StudentBucket> entry : sortedNames.tailMap(prefix, true).entrySet()) {
+            if (result.size() >= limit || !entry.getKey().startsWith(prefix)) {
+                break;
+            }
+
+            for (Student student : entry.getValue()) {
+                if (result.size() >= limit) {
+                    break;
+                }
+                result.add(student);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * This method searches students whose first name is within an edit distance of a name, so typos still match.
+     * @param firstName The first name, possibly misspelled
+     * @param maxDistance The maximum number of single-character insertions, deletions and substitutions
+     * @return The matching students, closest names first
+     */
+    public List<Student> fuzzySearchByFirstName(String firstName, int maxDistance) {
+        if (firstName == null) {
+            throw new IllegalArgumentException("First name cannot be null.");
+        }
+
+        return fuzzySearch(firstName, maxDistance, true, false);
+    }
+
+    /**
+     * This method searches students whose last name is within an edit distance of a name, so typos still match.
+     * @param lastName The last name, possibly misspelled
+     * @param maxDistance The maximum number of single-character insertions, deletions and substitutions
+     * @return The matching students, closest names first
+     */
+    public List<Student> fuzzySearchByLastName(String lastName, int maxDistance) {
+        if (lastName == null) {
+            throw new IllegalArgumentException("Last name cannot be null.");
+        }
+
+        return fuzzySearch(lastName, maxDistance, false, true);
+    }
+
+    /**
+     * This method searches students whose first name or last name is within an edit distance of a name.
+     * @param name The name, possibly misspelled
+     * @param maxDistance The maximum number of single-character insertions, deletions and substitutions
+     * @return The matching students, closest names first
+     */
+    public List<Student> fuzzySearchByName(String name, int maxDistance) {
+        if (name == null) {
+            throw new IllegalArgumentException("Name cannot be null.");
+        }
+
+        return fuzzySearch(name, maxDistance, true, true);
+    }
+
+    /**
+     * This method looks up the names close to a query in the BK-trees and ranks their students by distance
+     * and then by name. A student that matches by both names is returned once, at its best rank.
+     * @param query The name
+     * @param maxDistance The maximum edit distance
+     * @param byFirstName True to search first names
+     * @param byLastName True to search last names
+     * @return The matching students
+     */
+    private List<Student> fuzzySearch(String query, int maxDistance, boolean byFirstName, boolean byLastName) {
+        long start = DirectoryMetrics.FUZZY_SEARCH.start();
+
+        if (maxDistance < 0) {
+            throw new IllegalArgumentException("Maximum distance cannot be negative.");
+        }
+
+        final List<FuzzyMatch> matches = new ArrayList<>();
+
+        if (byFirstName) {
+            collectFuzzyMatches(firstNameTree, firstNameToStudents, query, maxDistance, matches);
+        }
+
+        if (byLastName) {
+            collectFuzzyMatches(lastNameTree, lastNameToStudents, query, maxDistance, matches);
+        }
+
+        Collections.sort(matches);
+
+        List<Student> result = new ArrayList<>();
+        Set<Student> seen = Collections.newSetFromMap(new IdentityHashMap<Student, Boolean>());
+
+        for (FuzzyMatch match : matches) {
+            for (Student student : match.students) {
+                if (seen.add(student)) {
+                    result.add(student);
+                }
+            }
+        }
+
+        DirectoryMetrics.FUZZY_SEARCH.record(start, result.size());
+        return result;
+    }
+
+    /**
+     * This method adds the names of a BK-tree that are close to a query.
+     * @param tree The BK-tree of the names
+     * @param nameToStudents The name map
+     * @param query The name
+     * @param maxDistance The maximum edit distance
+     * @param matches The list the matches are added to
+     */
+    private static void collectFuzzyMatches(BKTree tree, final Map<String, StudentBucket> nameToStudents, String query,
+    int maxDistance, final List<FuzzyMatch> matches) {
+        tree.search(query, maxDistance, new BKTree.Visitor() {
+            @Override
+            public void visit(String name, int distance) {
+                StudentBucket sameName = nameToStudents.get(name);
+
+                matches.add(new FuzzyMatch(name, distance, sameName));
+            }
+        });
+    }
+
+    /**
+     * This method returns the number of students in the directory.
+     * @return The number of students in the directory
+     */
+    public int size() {
+       return andrewIDToStudent.size();
+    }
+
+    /**
+     * This method returns all students in the directory.
+     * @return A new list of all students; only the references are copied
+     */
+    public List<Student> getAllStudents() {
+        return new ArrayList<>(andrewIDToStudent.values());
+    }
+
+    /**
+     * This method returns a read-only view of all students in the directory.
+     * @return The students in the directory
+     */
+    Collection<Student> students() {
+        return Collections.unmodifiableCollection(andrewIDToStudent.values());
+    }
+
+    /**
+     * This method returns the number of distinct first names in the firstNameToStudents map.
+     * @return The number of first name keys
+     */
+    int firstNameCount() {
+        return firstNameToStudents.size();
+    }
+
+    /**
+     * This method returns the number of distinct last names in the lastNameToStudents map.
+     * @return The number of last name keys
+     */
+    int lastNameCount() {
+        return lastNameToStudents.size();
+    }
+
+    /**
+     * This method returns the number of nodes in the first name BK-tree, including removed names not yet
+     * rebuilt away.
+     * @return The number of first name tree nodes
+     */
+    int firstNameTreeNodes() {
+        return firstNameTree.nodeCount();
+    }
+
+    /**
+     * This method adds a student to the three maps.
+     * @param student
+     */
+    private void addStudentToMap(Student student) {
+        // Map by Andrew ID
+        andrewIDToStudent.put(student.getAndrewId(), student);
+
+        if (student.getAndrewId() != null) {
+            sortedAndrewIDs.put(student.getAndrewId(), student);
+        }
+
+        addStudentToNameMaps(student);
+    }
+
+    /**
+     * This method adds a student to the first name and last name maps.
+     * @param student
+     */
+    private void addStudentToNameMaps(Student student) {
+        // Map by first name
+        StudentBucket sameFirstName = firstNameToStudents.get(student.getFirstName());
+
+        if (sameFirstName == null) {
+            sameFirstName = new StudentBucket(student.getFirstName());
+            firstNameToStudents.put(student.getFirstName(), sameFirstName);
+            addVariant(normalizedFirstNames, sameFirstName);
+            addSortedName(sortedFirstNames, student.getFirstName(), sameFirstName);
+            addTreeName(firstNameTree, student.getFirstName());
+        }
+
+        sameFirstName.add(student);
+
+        // Map by last name
+        StudentBucket sameLastName = lastNameToStudents.get(student.getLastName());
+
+        if (sameLastName == null) {
+            sameLastName = new StudentBucket(student.getLastName());
+            lastNameToStudents.put(student.getLastName(), sameLastName);
+            addVariant(normalizedLastNames, sameLastName);
+            addSortedName(sortedLastNames, student.getLastName(), sameLastName);
+            addTreeName(lastNameTree, student.getLastName());
+        }
+
+        sameLastName.add(student);
+    }
+
+    /**
+     * This method grows the andrewIDToStudent map once so that it can hold a number of students without
+     * rehashing. Growing a HashMap one doubling at a time rehashes every entry at each step.
+     * @param students The number of students the map must hold
+     */
+    private void ensureCapacity(int students) {
+        // Only a batch that would make the map double more than once is worth a rebuild
+        if (students > 2 * andrewIDToStudent.size() && students > 64) {
+            Map<String, Student> grown = new HashMap<>((int) (students / 0.75f) + 1);
+            grown.putAll(andrewIDToStudent);
+            andrewIDToStudent = grown;
+        }
+    }
+
+    /**
+     * This method adds a loaded student to the three maps, unless a student with the same Andrew ID was loaded
+     * before. Like Directory(String fn), the first row of an Andrew ID is kept.
+     * @param student
+     */
+    void addLoadedStudent(Student student) {
+        if (!andrewIDToStudent.containsKey(student.getAndrewId())) {
+            addStudentToMap(student);
+        }
+    }
+
+    /**
+     * This method moves all students of another directory into this one.
+     * The students of the other directory are appended after the students already in this directory.
+     * @param other The directory that was loaded from the chunk after this one
+     */
+    private void mergeFrom(Directory other) {
+        // This directory holds the earlier rows, so the other one drops the later rows of an Andrew ID
+        Iterator<Student> students = other.andrewIDToStudent.values().iterator();
+
+        while (students.hasNext()) {
+            Student student = students.next();
+
+            if (andrewIDToStudent.containsKey(student.getAndrewId())) {
+                students.remove();
+                other.removeStudentFromMap(student);
+            }
+        }
+
+        andrewIDToStudent.putAll(other.andrewIDToStudent);
+        sortedAndrewIDs.putAll(other.sortedAndrewIDs);
+        mergeNameMap(firstNameToStudents, sortedFirstNames, firstNameTree, normalizedFirstNames,
+        other.firstNameToStudents);
+        mergeNameMap(lastNameToStudents, sortedLastNames, lastNameTree, normalizedLastNames,
+        other.lastNameToStudents);
+    }
+
+    /**
+     * This method appends the lists of one name map to the lists of another.
+     * @param target The map that receives the students
+     * @param sortedTarget The sorted names of the map that receives the students
+     * @param treeTarget The BK-tree of the map that receives the students
+     * @param normalizedTarget The normalized name map of the map that receives the students
+     * @param source The map whose students are appended
+     */
+    private void mergeNameMap(Map<String, StudentBucket> target, NavigableMap<String, StudentBucket> sortedTarget,
+    BKTree treeTarget, Map<String, NameVariants> normalizedTarget, Map<String, StudentBucket> source) {
+        for (Map.Entry<String, StudentBucket> entry : source.entrySet()) {
+            StudentBucket sameName = target.get(entry.getKey());
+
+            if (sameName == null) {
+                target.put(entry.getKey(), entry.getValue());
+                addSortedName(sortedTarget, entry.getKey(), entry.getValue());
+                addTreeName(treeTarget, entry.getKey());
+                addVariant(normalizedTarget, entry.getValue());
+            } else {
+                for (Student student : entry.getValue()) {
+                    sameName.add(student);
+                }
+            }
+        }
+    }
+
+    /**
+     * This method creates a student from the values of a CSV line.
+     * The columns are first name, last name, Andrew ID and phone number.
+     * @param values The values of the CSV line
+     * @return The student
+     * @throws IllegalArgumentException if the line has fewer than four values
+     */
+    static Student toStudent(String[] values) {
+        if (values.length < 4) {
+            throw new IllegalArgumentException("Malformed row.");
+        }
+
+        return toStudent(values[0], values[1], values[2], values[3]);
+    }
+
+    /**
+     * This method creates a student from the four fields of a CSV line.
+     * @param firstName
+     * @param lastName
+     * @param andrewID
+     * @param phoneNumber
+     * @return The student
+     */
+    private static Student toStudent(String firstName, String lastName, String andrewID, String phoneNumber) {
+        return new Student(andrewID, firstName, lastName, phoneNumber);
+    }
+
+    /**
+     * This method creates a student from the four fields of a CSV line, giving it the Strings the directory
+     * already holds for its names. Without this, every row would keep its own copy of a popular name.
+     * @param firstName
+     * @param lastName
+     * @param andrewID
+     * @param phoneNumber
+     * @return The student
+     */
+    private Student toSharedStudent(String firstName, String lastName, String andrewID, String phoneNumber) {
+        return toStudent(sharedName(firstNameToStudents, firstName), sharedName(lastNameToStudents, lastName),
+        andrewID, phoneNumber);
+    }
+
+    /**
+     * This method gives a student the Strings the directory already holds for its names.
+     * @param student
+     * @return The student, or a copy of it that shares the names
+     */
+    private Student withSharedNames(Student student) {
+        return student.withNames(sharedName(firstNameToStudents, student.getFirstName()),
+        sharedName(lastNameToStudents, student.getLastName()));
+    }
+
+    /**
+     * This method finds the String a name map already holds for a name.
+     * @param nameToStudents The name map
+     * @param name The name
+     * @return The String of the name's list, or the name itself if no student has it yet
+     */
+    private static String sharedName(Map<String, StudentBucket> nameToStudents, String name) {
+        StudentBucket sameName = nameToStudents.get(name);
+        return sameName == null ? name : sameName.name();
+    }
+
+    /**
+     * This method memory-maps a byte range of a CSV file that starts at the beginning of a line and adds
+     * every line in it to the three maps. Empty lines and lines with fewer than four values are skipped.
+     * @param channel The file channel
+     * @param from The offset of the first byte of the range
+     * @param to The offset after the last byte of the range
+     * @throws IOException if the file cannot be mapped
+     */
+    private void loadMappedRange(FileChannel channel, long from, long to) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+        int limit = buffer.limit();
+
+        // Start and end offsets of the first four values of the current line
+        int[] starts = new int[4];
+        int[] ends = new int[4];
+        byte[] scratch = new byte[64];
+
+        int lineStart = 0;
+
+        while (lineStart < limit) {
+            int valueCount = 0;
+            int valueStart = lineStart;
+            int i = lineStart;
+
+            // Record the position of every comma until the end of the line
+            while (i < limit) {
+                byte b = buffer.get(i);
+
+                if (b == '\n') {
+                    break;
+                }
+
+                if (b == ',') {
+                    if (valueCount < 4) {
+                        starts[valueCount] = valueStart;
+                        ends[valueCount] = i;
+                    }
+                    valueCount++;
+                    valueStart = i + 1;
+                }
+
+                i++;
+            }
+
+            // Drop the carriage return of a Windows line ending
+            int lineEnd = i;
+            if (lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r') {
+                lineEnd--;
+            }
+
+            // handle the value that's after the last comma
+            if (valueCount < 4) {
+                starts[valueCount] = valueStart;
+                ends[valueCount] = lineEnd;
+            }
+            valueCount++;
+
+            if (lineEnd > lineStart && valueCount >= 4) {
+                scratch = ensureScratch(scratch, starts, ends);
+                addLoadedStudent(toSharedStudent(decodeValue(buffer, starts[0], ends[0], scratch),
+                decodeValue(buffer, starts[1], ends[1], scratch),
+                decodeValue(buffer, starts[2], ends[2], scratch),
+                decodeValue(buffer, starts[3], ends[3], scratch)));
+            }
+
+            lineStart = i + 1;
+        }
+    }
+
+    /**
+     * This method makes sure the scratch array can hold the longest of the four values.
+     * @param scratch The current scratch array
+     * @param starts The start offsets of the values
+     * @param ends The end offsets of the values
+     * @return The scratch array, or a larger one if the current one is too small
+     */
+    private static byte[] ensureScratch(byte[] scratch, int[] starts, int[] ends) {
+        int longest = 0;
+        for (int i = 0; i < starts.length; i++) {
+            longest = Math.max(longest, ends[i] - starts[i]);
+        }
+
+        return longest <= scratch.length ? scratch : new byte[Math.max(longest, scratch.length * 2)];
+    }
+
+    /**
+     * This method decodes one value of a mapped CSV line as UTF-8. If the value is surrounded by quotes, the quotes are removed.
+     * @param buffer The mapped buffer
+     * @param start The offset of the first byte of the value
+     * @param end The offset after the last byte of the value
+     * @param scratch The array the bytes are copied into before decoding
+     * @return The value
+     */
+    private static String decodeValue(ByteBuffer buffer, int start, int end, byte[] scratch) {
+        if (end - start >= 2 && buffer.get(start) == '"' && buffer.get(end - 1) == '"') {
+            start++;
+            end--;
+        }
+
+        buffer.get(start, scratch, 0, end - start);
+        return new String(scratch, 0, end - start, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * This method splits a file into roughly equal byte ranges that all start at the beginning of a line.
+     * @param channel The file channel
+     * @param chunks The desired number of chunks
+     * @return The chunk boundaries, starting with 0 and ending with the file size
+     * @throws IOException if the file cannot be read
+     */
+    private static long[] splitIntoChunks(FileChannel channel, int chunks) throws IOException {
+        long size = channel.size();
+        long chunkSize = Math.min(Math.max(size / Math.max(chunks, 1), MIN_CHUNK_SIZE), MAX_CHUNK_SIZE);
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        long position = chunkSize;
+
+        while (position < size) {
+            // Move the boundary forward to the first byte after the next newline
+            long boundary = -1;
+            long scan = position;
+
+            while (boundary < 0 && scan < size) {
+                buffer.clear();
+                int read = channel.read(buffer, scan);
+
+                for (int i = 0; i < read; i++) {
+                    if (buffer.get(i) == '\n') {
+                        boundary = scan + i + 1;
+                        break;
+                    }
+                }
+
+                scan += read;
+            }
+
+            if (boundary < 0 || boundary >= size) {
+                break;
+            }
+
+            bounds.add(boundary);
+            position = boundary + chunkSize;
+        }
+
+        bounds.add(size);
+
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = bounds.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * This method removes a student that was just removed from the andrewIDToStudent map from the other maps.
+     * Names that no student has any more are removed from the name maps.
+     * @param student
+     */
+    private void removeStudentFromMap(Student student) {
+        sortedAndrewIDs.remove(student.getAndrewId());
+
+        removeFromNameMap(firstNameToStudents, sortedFirstNames, firstNameTree, normalizedFirstNames,
+        student.getFirstName(), student);
+        removeFromNameMap(lastNameToStudents, sortedLastNames, lastNameTree, normalizedLastNames,
+        student.getLastName(), student);
+    }
+
+    /**
+     * This method adds a name to a sorted name map. Missing names are not searchable by prefix.
+     * @param sortedNames The sorted name map
+     * @param name The name, may be null
+     * @param sameName The list of the name
+     */
+    private static void addSortedName(NavigableMap<String, StudentBucket> sortedNames, String name,
+    StudentBucket sameName) {
+        if (name != null) {
+            sortedNames.put(name, sameName);
+        }
+    }
+
+    /**
+     * This method adds the list of a new name to the lists of its normalized key. The key is computed here,
+     * once per distinct name, and not for every student.
+     * @param normalizedNames The normalized name map
+     * @param sameName The list of the name
+     */
+    private void addVariant(Map<String, NameVariants> normalizedNames, StudentBucket sameName) {
+        String key = normalizer.normalize(sameName.name());
+        NameVariants variants = normalizedNames.get(key);
+
+        if (variants == null) {
+            normalizedNames.put(key, new NameVariants(sameName));
+        } else {
+            variants.addBucket(sameName);
+        }
+    }
+
+    /**
+     * This method removes the list of a name that no student has any more from the lists of its normalized key,
+     * and drops the key once it has no lists.
+     * @param normalizedNames The normalized name map
+     * @param sameName The list of the name
+     */
+    private void removeVariant(Map<String, NameVariants> normalizedNames, StudentBucket sameName) {
+        String key = normalizer.normalize(sameName.name());
+
+        if (normalizedNames.get(key).removeBucket(sameName)) {
+            normalizedNames.remove(key);
+        }
+    }
+
+    /**
+     * This method adds a name to a BK-tree. Missing names are not searchable by fuzzy search.
+     * @param tree The BK-tree
+     * @param name The name, may be null
+     */
+    private static void addTreeName(BKTree tree, String name) {
+        if (name != null) {
+            tree.add(name);
+        }
+    }
+
+    /**
+     * This method removes a student from the list of a name and drops the name once its list is empty.
+     * @param nameToStudents The name map
+     * @param sortedNames The sorted names of the name map
+     * @param tree The BK-tree of the name map
+     * @param normalizedNames The normalized name map of the name map
+     * @param name The name
+     * @param student The student to remove
+     */
+    private void removeFromNameMap(Map<String, StudentBucket> nameToStudents,
+    NavigableMap<String, StudentBucket> sortedNames, BKTree tree, Map<String, NameVariants> normalizedNames,
+    String name, Student student) {
+        StudentBucket sameName = nameToStudents.get(name);
+        sameName.removeStudent(student);
+
+        if (sameName.isEmpty()) {
+            nameToStudents.remove(name);
+            removeVariant(normalizedNames, sameName);
+
+            if (name != null) {
+                sortedNames.remove(name);
+                tree.remove(name);
+            }
+        }
+    }
+
+    /**
+     * A name found by a fuzzy search, with its distance to the query and its students.
+     * Matches are ordered by distance and then by name.
+     */
+    private static final class FuzzyMatch implements Comparable<FuzzyMatch> {
+        /**
+         * The matching name.
+         */
+        final String name;
+
+        /**
+         * The edit distance between the name and the query.
+         */
+        final int distance;
+
+        /**
+         * The students with the name.
+         */
+        final List<Student> students;
+
+        /**
+         * Initializes the match.
+         * @param name The matching name
+         * @param distance The edit distance to the query
+         * @param students The students with the name
+         */
+        FuzzyMatch(String name, int distance, List<Student> students) {
+            this.name = name;
+            this.distance = distance;
+            this.students = students;
+        }
+
+        @Override
+        public int compareTo(FuzzyMatch other) {
+            if (distance != other.distance) {
+                return Integer.compare(distance, other.distance);
+            }
+            return name.compareTo(other.name);
+        }
+    }
+
+    /**
+     * Fork-join task that loads a range of chunks into a partial directory.
+     * A task with a single chunk maps and scans it, otherwise it splits the range in half and merges the results.
+     */
+    private static class ChunkTask extends RecursiveTask<Directory> {
+        /**
+         * The version of the serialized form that RecursiveTask requires.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The file channel to read the chunks from.
+         */
+        private final FileChannel channel;
+
+        /**
+         * The chunk boundaries of the whole file.
+         */
+        private final long[] bounds;
+
+        /**
+         * The index of the first chunk of this task.
+         */
+        private final int from;
+
+        /**
+         * The index after the last chunk of this task.
+         */
+        private final int to;
+
+        /**
+         * Initializes the task.
+         * @param channel The file channel
+         * @param bounds The chunk boundaries
+         * @param from The index of the first chunk
+         * @param to The index after the last chunk
+         */
+        ChunkTask(FileChannel channel, long[] bounds, int from, int to) {
+            this.channel = channel;
+            this.bounds = bounds;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Directory compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                ChunkTask right = new ChunkTask(channel, bounds, mid, to);
+                right.fork();
+
+                Directory left = new ChunkTask(channel, bounds, from, mid).compute();
+                left.mergeFrom(right.join());
+                return left;
+            }
+
+            Directory partial = new Directory();
+
+            try {
+                partial.loadMappedRange(channel, bounds[from], bounds[to]);
+            } catch (IOException e) {
+                // Fail the whole load, which loadParallel reports once
+                throw new UncheckedIOException(e);
+            }
+
+            return partial;
+        }
+    }
+
+    /**
+     * A simplified version of CSV Reader.
+     *
+     * Subclass of a BufferedReader to handle a character stream that consists of
+     * comma separated values (CSVs)
+     *
+     * Provides an additional instance method, readCSVLine(), that parses lines into
+     * substrings. The substrings are separated by comma in the original input
+     * stream. The readCSVLine() method returns an array of references to Strings.
+     * The Strings are the values from the line that were separated by commas. If a
+     * value was surrounded by quotes, the quotes are removed.
+     *
+     * Limitations: Spaces before or after the commas are not removed. In the first
+     * and last quote are removed from a value. Embedding commas in a quoted value
+     * is not handled properly. (In this case, the commas will separate the values
+     * and the quotes will not be removed from the ends of those values.
+     *
+     * @author Jeffrey Eppinger (jle@cs.cmu.com)
+     * Date: October 2, 2007
+     */
+    static class CSVReader extends BufferedReader {
+        /**
+         * Initializes the class.
+         * @param in the reader from which to read CSV lines
+         */
+        CSVReader(Reader in) {
+            super(in);
+        }
+
+        /**
+         * This is the only additional method. It uses readLine from the superclass
+         * to get a line but returns the comma separated values as in an array of
+         * strings.
+         * @return an array of Strings containing the values At the end of the file,
+         *         readCSVLine returns null (just as readLine does).
+         * @throws IOException throws IOException
+         */
+        public String[] readCSVLine() throws IOException {
+
+            // Get a line by calling the superclass's readLine method
+            String line = super.readLine();
+
+            // If we're at the end of the file, readLine returns null
+            // so we return null.
+            if (line == null) {
+                return null;
+            }
+
+            // Count up the number of commas
+            int commaCount = 0;
+            for (int i = 0; i < line.length(); i++) {
+                if (line.charAt(i) == ',') {
+                    commaCount = commaCount + 1;
+                }
+            }
+
+            // Allocate an array of the necessary size to return the strings
+            String[] values = new String[commaCount + 1];
+
+            // In a loop, set beginIndex and endIndex to the start and end
+            // positions of each argument and then use the substring method
+            // to create strings for each of the comma separate values
+
+            // Start beginIndex at the beginning of the String, position 0
+            int beginIndex = 0;
+
+            for (int i = 0; i < commaCount; i++) {
+                // set endIndex to the position of the (next) comma
+                int endIndex = line.indexOf(',', beginIndex);
+
+                // if the argument begins and ends with quotes, remove them
+                if (endIndex - beginIndex >= 2 && line.charAt(beginIndex) == '"' && line.charAt(endIndex - 1) == '"') {
+
+                    // If we made it here, we have quotes around our string.
+                    // Add/subtract one from the start/end of the args
+                    // to substring to get the value. (See else comment
+                    // below for details on how this works.)
+                    values[i] = line.substring(beginIndex + 1, endIndex - 1);
+
+                } else {
+                    // If we made it here, we don't have quotes around
+                    // our string. Take the substring of this line
+                    // from the beginIndex to the endIndex. The substring
+                    // method called on a String will return the portion
+                    // of the String starting with the beginIndex and up
+                    // to but not including the endIndex.
+                    values[i] = line.substring(beginIndex, endIndex);
+                }
+
+                // Set beginIndex to the position character after the
+                // comma. (Remember, endIndex was set to the position
+                // of the comma.)
+                beginIndex = endIndex + 1;
+            }
+
+            // handle the value that's after the last comma
+            if (line.length() - beginIndex >= 2 && line.charAt(beginIndex) == '"'
+                && line.charAt(line.length() - 1) == '"') {
+                values[commaCount] = line.substring(beginIndex + 1, line.length() - 1);
+            } else {
+                values[commaCount] = line.substring(beginIndex, line.length());
+            }
+
+            return values;
+        }
+    }
+}
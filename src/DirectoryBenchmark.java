@@ -0,0 +1,1492 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * This is a small benchmark driver for the Directory class.
+ * Run it with the name of a benchmark and its arguments, for example: java DirectoryBenchmark load students.csv
+ * @author: Zijie Huang
+ * @date: 10/18/2026
+ */
+public class DirectoryBenchmark {
+    /**
+     * The number of times each measurement is repeated before the measured runs.
+     */
+    private static final int WARMUP_RUNS = 3;
+
+    /**
+     * The number of measured runs.
+     */
+    private static final int MEASURED_RUNS = 5;
+
+    /**
+     * Compare the sequential constructor with the parallel chunked loader and the memory-mapped loader.
+     * @param fn The CSV file name
+     */
+    private static void benchmarkLoad(String fn) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            new Directory(fn);
+            Directory.loadParallel(fn);
+            Directory.loadMapped(fn);
+        }
+
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long gc = gcMillis();
+            long start = System.nanoTime();
+            Directory sequential = new Directory(fn);
+            report("Directory(String fn)", sequential.size(), System.nanoTime() - start, gcMillis() - gc);
+
+            gc = gcMillis();
+            start = System.nanoTime();
+            Directory parallel = Directory.loadParallel(fn);
+            report("Directory.loadParallel", parallel.size(), System.nanoTime() - start, gcMillis() - gc);
+
+            gc = gcMillis();
+            start = System.nanoTime();
+            Directory mapped = Directory.loadMapped(fn);
+            report("Directory.loadMapped", mapped.size(), System.nanoTime() - start, gcMillis() - gc);
+        }
+    }
+
+    /**
+     * Compare the startup time of loading a directory from CSV with loading it from a binary snapshot.
+     * The snapshot is written from the CSV file first.
+     * @param csv The CSV file name
+     * @param snapshot The snapshot file name
+     * @throws IOException if the snapshot cannot be written or read
+     */
+    private static void benchmarkStartup(String csv, String snapshot) throws IOException {
+        DirectorySnapshot.save(new Directory(csv), snapshot);
+
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            new Directory(csv);
+            Directory.loadMapped(csv);
+            DirectorySnapshot.load(snapshot);
+        }
+
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long gc = gcMillis();
+            long start = System.nanoTime();
+            Directory fromCSV = new Directory(csv);
+            report("Directory(String fn)", fromCSV.size(), System.nanoTime() - start, gcMillis() - gc);
+
+            gc = gcMillis();
+            start = System.nanoTime();
+            Directory mapped = Directory.loadMapped(csv);
+            report("Directory.loadMapped", mapped.size(), System.nanoTime() - start, gcMillis() - gc);
+
+            gc = gcMillis();
+            start = System.nanoTime();
+            Directory fromSnapshot = DirectorySnapshot.load(snapshot);
+            report("DirectorySnapshot.load", fromSnapshot.size(), System.nanoTime() - start, gcMillis() - gc);
+        }
+    }
+
+    /**
+     * Measure the throughput of a 99% search, 1% update workload on the thread-safe directories as the number
+     * of threads grows from one to twice the number of cores.
+     * @param fn The CSV file name
+     * @param seconds How long each thread count runs
+     * @throws InterruptedException if the benchmark thread is interrupted
+     */
+    private static void benchmarkReads(String fn, int seconds) throws InterruptedException {
+        Directory loaded = Directory.loadMapped(fn);
+        List<Student> students = new ArrayList<>(loaded.students());
+        List<String> firstNames = new ArrayList<>(new HashSet<>(namesOf(students, true)));
+        List<String> lastNames = new ArrayList<>(new HashSet<>(namesOf(students, false)));
+
+        ConcurrentDirectory concurrent = new ConcurrentDirectory();
+        for (Student student : students) {
+            concurrent.addStudent(student);
+        }
+
+        ReadOptimizedDirectory readOptimized = new ReadOptimizedDirectory(loaded);
+
+        int maxThreads = Runtime.getRuntime().availableProcessors() * 2;
+
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            runReads("ConcurrentDirectory", concurrent, students, firstNames, lastNames, threads, seconds);
+            runReads("ReadOptimizedDirectory", readOptimized, students, firstNames, lastNames, threads, seconds);
+        }
+    }
+
+    /**
+     * Run the read-mostly workload on one directory with a fixed number of threads and print the throughput.
+     * @param name The name of the directory implementation
+     * @param directory The directory
+     * @param students The students in the directory
+     * @param firstNames The distinct first names in the directory
+     * @param lastNames The distinct last names in the directory
+     * @param threads The number of threads
+     * @param seconds How long the threads run
+     * @throws InterruptedException if the benchmark thread is interrupted
+     */
+    private static void runReads(String name, final StudentDirectory directory, final List<Student> students,
+    final List<String> firstNames, final List<String> lastNames, int threads, int seconds) throws InterruptedException {
+        final long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        final AtomicLong operations = new AtomicLong();
+        Thread[] workers = new Thread[threads];
+
+        for (int t = 0; t < threads; t++) {
+            final long seed = t;
+            workers[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Random random = new Random(seed);
+                    long count = 0;
+
+                    while (System.nanoTime() < deadline) {
+                        int action = random.nextInt(100);
+
+                        if (action < 97) {
+                            directory.searchByAndrewId(students.get(random.nextInt(students.size())).getAndrewId());
+                        } else if (action == 97) {
+                            directory.searchByFirstName(firstNames.get(random.nextInt(firstNames.size())));
+                        } else if (action == 98) {
+                            directory.searchByLastName(lastNames.get(random.nextInt(lastNames.size())));
+                        } else {
+                            // Replace a student, so the directory keeps its size
+                            Student student = students.get(random.nextInt(students.size()));
+                            try {
+                                directory.deleteStudent(student.getAndrewId());
+                                directory.addStudent(student);
+                            } catch (IllegalArgumentException e) {
+                                // Another thread is replacing the same student
+                            }
+                        }
+
+                        count++;
+                    }
+
+                    operations.addAndGet(count);
+                }
+            });
+            workers[t].start();
+        }
+
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        System.out.printf("%-24s %3d threads %,14.0f ops/s%n", name, threads, operations.get() / (double) seconds);
+    }
+
+    /**
+     * Get the first or last names of a list of students.
+     * @param students The students
+     * @param firstNames True for first names, false for last names
+     * @return The names, one per student
+     */
+    private static List<String> namesOf(List<Student> students, boolean firstNames) {
+        List<String> names = new ArrayList<>(students.size());
+        for (Student student : students) {
+            names.add(firstNames ? student.getFirstName() : student.getLastName());
+        }
+        return names;
+    }
+
+    /**
+     * Measure the bytes allocated per search on each directory implementation. Every distinct first and last
+     * name is searched once, so common names count as often as rare ones.
+     * @param fn The CSV file name
+     */
+    private static void benchmarkAllocation(String fn) {
+        Directory directory = Directory.loadMapped(fn);
+        List<Student> students = new ArrayList<>(directory.students());
+        List<String> firstNames = new ArrayList<>(new HashSet<>(namesOf(students, true)));
+        List<String> lastNames = new ArrayList<>(new HashSet<>(namesOf(students, false)));
+
+        ConcurrentDirectory concurrent = new ConcurrentDirectory();
+        for (Student student : students) {
+            concurrent.addStudent(student);
+        }
+
+        StudentDirectory[] directories = {directory, concurrent, new ReadOptimizedDirectory(directory)};
+
+        for (StudentDirectory target : directories) {
+            // Run once to warm up, then measure
+            for (int run = 0; run < 2; run++) {
+                long matches = 0;
+                long before = allocatedBytes();
+
+                for (String firstName : firstNames) {
+                    matches += target.searchByFirstName(firstName).size();
+                }
+                for (String lastName : lastNames) {
+                    matches += target.searchByLastName(lastName).size();
+                }
+
+                long allocated = allocatedBytes() - before;
+                int queries = firstNames.size() + lastNames.size();
+
+                if (run == 1) {
+                    System.out.printf("%-24s %,10d name searches %,12d matches %,12.1f bytes/search %8.2f bytes/match%n",
+                    target.getClass().getSimpleName(), queries, matches, allocated / (double) queries,
+                    allocated / (double) Math.max(matches, 1));
+                }
+            }
+        }
+    }
+
+    /**
+     * Run add/delete cycles against a Directory whose last names fall into a few very large buckets.
+     * Every added student also gets a first name no other student has, so the first name map only stays
+     * small if empty buckets are removed.
+     * @param students The number of students kept in the directory
+     * @param cycles The number of delete-then-add cycles
+     */
+    private static void benchmarkChurn(int students, long cycles) {
+        String[] lastNames = {"Smith", "Johnson", "Lee", "Brown"};
+        Directory directory = new Directory();
+
+        for (int i = 0; i < students; i++) {
+            directory.addStudent(new Student("s" + i, "First" + i, lastNames[i % lastNames.length], "4122681234"));
+        }
+
+        // The Andrew ID number of the student in each slot
+        long[] present = new long[students];
+        for (int i = 0; i < students; i++) {
+            present[i] = i;
+        }
+
+        Random random = new Random(42);
+        long start = System.nanoTime();
+
+        for (long cycle = 0; cycle < cycles; cycle++) {
+            int slot = random.nextInt(students);
+            long id = students + cycle;
+
+            directory.deleteStudent("s" + present[slot]);
+            directory.addStudent(new Student("s" + id, "First" + id, lastNames[(int) (id % lastNames.length)], "4122681234"));
+            present[slot] = id;
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        // Fuzzy searches visit every name the tree still holds within the distance bounds
+        int fuzzySearches = 1000;
+        long fuzzyStart = System.nanoTime();
+
+        for (int i = 0; i < fuzzySearches; i++) {
+            directory.fuzzySearchByFirstName("First" + present[random.nextInt(students)], 1);
+        }
+        long fuzzyNanos = (System.nanoTime() - fuzzyStart) / fuzzySearches;
+
+        System.out.printf("%,d students, %,d add/delete cycles in %.1f s (%,.0f cycles/s), %,d first name keys, "
+        + "%,d last name keys, %,d first name tree nodes, %.2f ms per fuzzy search%n", directory.size(), cycles, seconds,
+        cycles / seconds, directory.firstNameCount(), directory.lastNameCount(), directory.firstNameTreeNodes(),
+        fuzzyNanos / 1e6);
+    }
+
+    /**
+     * Measure the latency of the prefix searches used for type-ahead suggestions. The prefixes are the first
+     * one to three characters of the keys of random students, and each search returns at most ten students.
+     * @param fn The CSV file name
+     */
+    private static void benchmarkPrefix(String fn) {
+        Directory directory = Directory.loadMapped(fn);
+        List<Student> students = new ArrayList<>(directory.students());
+        Random random = new Random(42);
+        int queries = 1_000_000;
+
+        for (int run = 0; run < 2; run++) {
+            for (int length = 1; length <= 3; length++) {
+                long[] nanos = new long[3];
+                long results = 0;
+
+                for (int i = 0; i < queries; i++) {
+                    Student student = students.get(random.nextInt(students.size()));
+                    int kind = i % 3;
+                    String key = kind == 0 ? student.getAndrewId() : kind == 1 ? student.getFirstName() : student.getLastName();
+                    String prefix = key.substring(0, Math.min(length, key.length()));
+
+                    long start = System.nanoTime();
+                    List<Student> found = kind == 0 ? directory.searchByAndrewIdPrefix(prefix, 10)
+                    : kind == 1 ? directory.searchByFirstNamePrefix(prefix, 10) : directory.searchByLastNamePrefix(prefix, 10);
+                    nanos[kind] += System.nanoTime() - start;
+                    results += found.size();
+                }
+
+                if (run == 1) {
+                    System.out.printf("prefix length %d: Andrew ID %,6.0f ns, first name %,6.0f ns, last name %,6.0f ns "
+                    + "per search (%.1f results on average)%n", length, nanos[0] * 3.0 / queries, nanos[1] * 3.0 / queries,
+                    nanos[2] * 3.0 / queries, results / (double) queries);
+                }
+            }
+        }
+    }
+
+    /**
+     * Measure the latency of fuzzy name searches. The queries are the last names of random students with
+     * one character replaced, as if the user made a typo.
+     * @param fn The CSV file name
+     */
+    private static void benchmarkFuzzy(String fn) {
+        Directory directory = Directory.loadMapped(fn);
+        List<Student> students = new ArrayList<>(directory.students());
+        Random random = new Random(42);
+        int queries = 2_000;
+
+        for (int run = 0; run < 2; run++) {
+            for (int maxDistance = 1; maxDistance <= 2; maxDistance++) {
+                long nanos = 0;
+                long results = 0;
+
+                for (int i = 0; i < queries; i++) {
+                    char[] name = students.get(random.nextInt(students.size())).getLastName().toCharArray();
+                    name[random.nextInt(name.length)] = (char) ('a' + random.nextInt(26));
+
+                    long start = System.nanoTime();
+                    results += directory.fuzzySearchByLastName(new String(name), maxDistance).size();
+                    nanos += System.nanoTime() - start;
+                }
+
+                if (run == 1) {
+                    System.out.printf("max distance %d: %,10.1f us per search (%,.1f results on average)%n", maxDistance,
+                    nanos / 1000.0 / queries, results / (double) queries);
+                }
+            }
+        }
+    }
+
+    /**
+     * Measure how long logging an add or delete takes, not counting the change to the directory itself.
+     * DirectoryCheck journal checks that the log is recovered correctly.
+     * @param operations The number of adds and deletes
+     * @throws IOException if a journal file cannot be read or written
+     */
+    private static void benchmarkJournal(int operations) throws IOException {
+        Random random = new Random(42);
+        List<Student> students = new ArrayList<>();
+        boolean[] deletes = new boolean[operations];
+        List<Student> live = new ArrayList<>();
+
+        // A random sequence of adds and deletes
+        for (int i = 0; i < operations; i++) {
+            if (!live.isEmpty() && random.nextInt(10) < 3) {
+                int slot = random.nextInt(live.size());
+                students.add(live.get(slot));
+                live.set(slot, live.get(live.size() - 1));
+                live.remove(live.size() - 1);
+                deletes[i] = true;
+            } else {
+                Student student = new Student("s" + i, "First" + random.nextInt(1000), "Last" + random.nextInt(5000),
+                String.valueOf(4120000000L + random.nextInt(10000000)));
+                students.add(student);
+                live.add(student);
+            }
+        }
+
+        // Append latency
+        Path folder = Files.createTempDirectory("journal");
+        DirectoryJournal journal = new DirectoryJournal(folder.toString(), Long.MAX_VALUE);
+        Directory directory = journal.recover();
+        long total = 0;
+        long max = 0;
+
+        for (int i = 0; i < operations; i++) {
+            Student student = students.get(i);
+            long start;
+
+            if (deletes[i]) {
+                directory.deleteStudent(student.getAndrewId());
+                start = System.nanoTime();
+                journal.logDelete(student.getAndrewId());
+            } else {
+                directory.addStudent(student);
+                start = System.nanoTime();
+                journal.logAdd(student);
+            }
+
+            long elapsed = System.nanoTime() - start;
+            total += elapsed;
+            max = Math.max(max, elapsed);
+        }
+
+        long start = System.nanoTime();
+        journal.sync();
+        long syncNanos = System.nanoTime() - start;
+        journal.close();
+
+        byte[] log = Files.readAllBytes(folder.resolve("journal-0.log"));
+        System.out.printf("%,d adds and deletes logged: %.2f us per record on average, %.1f us max, sync %.1f ms, "
+        + "log %,d bytes%n", operations, total / 1e3 / operations, max / 1e3, syncNanos / 1e6, log.length);
+        deleteFolder(folder);
+    }
+
+
+    /**
+     * Compare adding and deleting students one at a time with the batch methods addAll and deleteAll.
+     * Each run fills an empty directory with all students and then deletes them all again.
+     * @param count The number of students
+     */
+    private static void benchmarkBatch(int count) {
+        Random random = new Random(42);
+        List<Student> students = new ArrayList<>(count);
+        List<String> andrewIDs = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            students.add(new Student("s" + i, "First" + random.nextInt(5000), "Last" + random.nextInt(20000),
+            "4122681234"));
+        }
+
+        // Enrollment scripts do not add students in Andrew ID order
+        Collections.shuffle(students, random);
+        for (Student student : students) {
+            andrewIDs.add(student.getAndrewId());
+        }
+
+        for (int run = 0; run < WARMUP_RUNS + MEASURED_RUNS; run++) {
+            boolean measured = run >= WARMUP_RUNS;
+            Directory directory = new Directory();
+
+            long gc = gcMillis();
+            long start = System.nanoTime();
+            for (Student student : students) {
+                directory.addStudent(student);
+            }
+            if (measured) {
+                report("addStudent loop", count, System.nanoTime() - start, gcMillis() - gc);
+            }
+
+            gc = gcMillis();
+            start = System.nanoTime();
+            for (String andrewID : andrewIDs) {
+                directory.deleteStudent(andrewID);
+            }
+            if (measured) {
+                report("deleteStudent loop", count, System.nanoTime() - start, gcMillis() - gc);
+            }
+
+            directory = new Directory();
+
+            gc = gcMillis();
+            start = System.nanoTime();
+            directory.addAll(students);
+            if (measured) {
+                report("addAll", count, System.nanoTime() - start, gcMillis() - gc);
+            }
+
+            gc = gcMillis();
+            start = System.nanoTime();
+            directory.deleteAll(andrewIDs);
+            if (measured) {
+                report("deleteAll", count, System.nanoTime() - start, gcMillis() - gc);
+            }
+        }
+    }
+
+    /**
+     * Compare the heap used per student with and without shared name Strings. The first directory is filled
+     * through addLoadedStudent, so every student keeps the Strings the CSV reader created for its names; the
+     * second one is loaded by the constructor, which gives every student the directory's String for its names.
+     * @param fn The CSV file name
+     * @throws IOException if the file cannot be read
+     */
+    private static void benchmarkHeap(String fn) throws IOException {
+        long before = usedHeap();
+        Directory separate = new Directory();
+
+        try (Directory.CSVReader reader = new Directory.CSVReader(new FileReader(fn))) {
+            String[] values = reader.readCSVLine();
+
+            while (values != null) {
+                separate.addLoadedStudent(Directory.toStudent(values));
+                values = reader.readCSVLine();
+            }
+        }
+
+        long separateBytes = usedHeap() - before;
+        int count = separate.size();
+        separate = null;
+
+        before = usedHeap();
+        Directory shared = new Directory(fn);
+        long sharedBytes = usedHeap() - before;
+
+        System.out.printf("%,d students: %,.1f bytes per student with a String per name, %,.1f bytes per student "
+        + "with shared names (%,d distinct first names, %,d distinct last names)%n", count,
+        separateBytes / (double) count, sharedBytes / (double) shared.size(), shared.firstNameCount(),
+        shared.lastNameCount());
+    }
+
+    /**
+     * Compare the heap used per student and the lookup speed of Directory and ColumnarDirectory, and check
+     * that both return the same students.
+     * @param fn The CSV file name
+     */
+    private static void benchmarkColumnar(String fn) {
+        long before = usedHeap();
+        Directory directory = new Directory(fn);
+        long directoryBytes = usedHeap() - before;
+
+        before = usedHeap();
+        ColumnarDirectory columnar = new ColumnarDirectory(fn);
+        long columnarBytes = usedHeap() - before;
+
+        List<Student> students = directory.getAllStudents();
+        int count = students.size();
+        System.out.printf("%,d students: %,.1f bytes per student in Directory, %,.1f in ColumnarDirectory%n", count,
+        directoryBytes / (double) count, columnarBytes / (double) columnar.size());
+
+        for (Student student : students) {
+            Student other = columnar.searchByAndrewId(student.getAndrewId());
+
+            if (other == null || !other.toString().equals(student.toString())) {
+                System.out.println("Mismatch for " + student.getAndrewId());
+                return;
+            }
+        }
+
+        // Every student is looked up by Andrew ID, but only a sample by last name, since a last name search
+        // returns every student with that name
+        int step = Math.max(1, count / 1000);
+
+        // Look up copies of the names in random order, so neither directory finds its own String and skips
+        // the comparison, and Directory does not walk its table in order
+        Collections.shuffle(students, new Random(42));
+        String[] andrewIDs = new String[count];
+        String[] lastNames = new String[count];
+
+        for (int i = 0; i < count; i++) {
+            andrewIDs[i] = new String(students.get(i).getAndrewId().toCharArray());
+            lastNames[i] = new String(students.get(i).getLastName().toCharArray());
+        }
+
+        StudentDirectory[] directories = {directory, columnar};
+        String[] names = {"Directory", "ColumnarDirectory"};
+
+        for (int round = 0; round < 3; round++) {
+            boolean measured = round == 2;
+
+            for (int d = 0; d < directories.length; d++) {
+                long gc = gcMillis();
+                long start = System.nanoTime();
+
+                for (String andrewID : andrewIDs) {
+                    directories[d].searchByAndrewId(andrewID);
+                }
+                if (measured) {
+                    report(names[d] + " by ID", count, System.nanoTime() - start, gcMillis() - gc);
+                }
+
+                gc = gcMillis();
+                start = System.nanoTime();
+                long found = 0;
+
+                for (int i = 0; i < count; i += step) {
+                    found += directories[d].searchByLastName(lastNames[i]).size();
+                }
+                if (measured) {
+                    report(names[d] + " by last", found, System.nanoTime() - start, gcMillis() - gc);
+                }
+            }
+        }
+    }
+
+    /**
+     * Compare garbage collection with Directory and OffHeapDirectory. Each directory is filled with generated
+     * students, then has a number of delete, add and search cycles; the report shows the heap the directory
+     * keeps live, the collections during the cycles, and how long a full collection takes with it in memory.
+     * @param students The number of students
+     * @param cycles The number of cycles
+     */
+    private static void benchmarkOffHeap(int students, int cycles) {
+        for (int run = 0; run < 2; run++) {
+            boolean offHeap = run == 1;
+            String name = offHeap ? "OffHeapDirectory" : "Directory";
+            long before = usedHeap();
+            StudentDirectory directory = offHeap ? new OffHeapDirectory() : new Directory();
+
+            for (int i = 0; i < students; i++) {
+                directory.addStudent(generatedStudent(i));
+            }
+            // The off-heap directory keeps so little on the heap that the difference can be below zero
+            long heapBytes = Math.max(usedHeap() - before, 0);
+
+            Random random = new Random(42);
+            int[] present = new int[students];
+            for (int i = 0; i < students; i++) {
+                present[i] = i;
+            }
+
+            long collections = gcCount();
+            long gc = gcMillis();
+            long start = System.nanoTime();
+
+            for (int cycle = 0; cycle < cycles; cycle++) {
+                int slot = random.nextInt(students);
+                int id = students + cycle;
+
+                directory.deleteStudent("s" + present[slot]);
+                directory.addStudent(generatedStudent(id));
+                present[slot] = id;
+                directory.searchByAndrewId("s" + present[random.nextInt(students)]);
+                directory.searchByFirstName("First" + random.nextInt(5000));
+            }
+
+            long nanos = System.nanoTime() - start;
+            collections = gcCount() - collections;
+            gc = gcMillis() - gc;
+
+            start = System.nanoTime();
+            System.gc();
+            long fullGcNanos = System.nanoTime() - start;
+
+            String offHeapBytes = offHeap ? String.format(", %,.1f MB off heap",
+            ((OffHeapDirectory) directory).offHeapBytes() / 1e6) : "";
+            System.out.printf("%-18s %,d students: %,.1f MB live heap%s%n", name, directory.size(), heapBytes / 1e6,
+            offHeapBytes);
+            System.out.printf("%-18s %,d cycles in %,.0f ms, %,d collections, %,d ms GC (%.2f ms per collection), "
+            + "full GC %,.0f ms%n", name, cycles, nanos / 1e6, collections, gc,
+            collections == 0 ? 0.0 : gc / (double) collections, fullGcNanos / 1e6);
+        }
+    }
+
+    /**
+     * Create a generated student with a name from a fixed set of first and last names.
+     * @param id The number of the student
+     * @return The student
+     */
+    private static Student generatedStudent(int id) {
+        return new Student("s" + id, "First" + id % 5000, "Last" + id % 20000,
+        String.format("412%07d", id % 10_000_000));
+    }
+
+    /**
+     * Get the total number of collections so far.
+     * @return The number of collections
+     */
+    private static long gcCount() {
+        long total = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(bean.getCollectionCount(), 0);
+        }
+        return total;
+    }
+
+    /**
+     * Compare Student.formatPhoneNumber with the regex and String.format version it replaced, which is kept
+     * below as regexFormatPhoneNumber. The inputs mix formatted, unformatted, punctuated, empty and invalid
+     * phone numbers; both versions must agree on every input before they are timed.
+     * @param count The number of inputs
+     */
+    private static void benchmarkPhone(int count) {
+        String[] formats = {"%s-%s-%s", "%s%s%s", "(%s) %s-%s", "%s.%s.%s", "+1 %s %s %s"};
+        Random random = new Random(42);
+        String[] inputs = new String[count];
+
+        for (int i = 0; i < count; i++) {
+            int kind = random.nextInt(20);
+
+            if (kind == 0) {
+                inputs[i] = "";
+            } else if (kind == 1) {
+                inputs[i] = String.valueOf(random.nextInt(1_000_000));
+            } else {
+                inputs[i] = String.format(formats[kind % formats.length], 100 + random.nextInt(900),
+                100 + random.nextInt(900), 1000 + random.nextInt(9000));
+            }
+        }
+
+        for (String input : inputs) {
+            if (!Objects.equals(regexFormatPhoneNumber(input), Student.formatPhoneNumber(input))) {
+                System.out.println("Mismatch for \"" + input + "\"");
+                return;
+            }
+        }
+
+        for (int run = 0; run < 3; run++) {
+            boolean measured = run == 2;
+
+            for (int version = 0; version < 2; version++) {
+                long gc = gcMillis();
+                long allocated = allocatedBytes();
+                long start = System.nanoTime();
+                int valid = 0;
+
+                for (String input : inputs) {
+                    String formatted = version == 0 ? regexFormatPhoneNumber(input) : Student.formatPhoneNumber(input);
+                    valid += formatted == null ? 0 : 1;
+                }
+
+                long nanos = System.nanoTime() - start;
+                if (measured) {
+                    report(version == 0 ? "regex formatter" : "single-pass formatter", count, nanos,
+                    gcMillis() - gc);
+                    System.out.printf("%-28s %,12.1f bytes/input, %,d valid%n", "", (allocatedBytes() - allocated)
+                    / (double) count, valid);
+                }
+            }
+        }
+    }
+
+    /**
+     * The phone number formatter Student used before, kept to compare against.
+     * @param input The phone number
+     * @return The formatted phone number
+     */
+    private static String regexFormatPhoneNumber(String input) {
+        String cleaned = input.replaceAll("[^0-9]", "");
+
+        if (cleaned.length() == 0) {
+            return "";
+        }
+
+        if (cleaned.length() == 10) {
+            return String.format("%s-%s-%s", cleaned.substring(0, 3), cleaned.substring(3, 6), cleaned.substring(6, 10));
+        }
+
+        return null;
+    }
+
+    /**
+     * Run the benchmark suite of the Directory hot paths on RosterGenerator rosters of 1,000 rows and every tenfold
+     * size up to a maximum. Each operation runs WARMUP_RUNS times and then MEASURED_RUNS times, and the mean
+     * and standard deviation of the measured runs are reported in nanoseconds per operation, so a change in
+     * any of the paths shows up by comparing the output before and after it.
+     * @param maxRows The largest roster size
+     * @throws IOException if a roster cannot be written or read
+     */
+    private static void benchmarkSuite(int maxRows) throws IOException {
+        Path folder = Files.createTempDirectory("directory-suite");
+
+        try {
+            for (int rows = 1000; rows <= maxRows && rows > 0; rows *= 10) {
+                Path file = folder.resolve("roster-" + rows + ".csv");
+                new RosterGenerator(42).write(file.toString(), rows);
+                runSuite(file.toString(), rows);
+                Files.delete(file);
+            }
+        } finally {
+            deleteFolder(folder);
+        }
+    }
+
+    /**
+     * Run the suite on one roster.
+     * @param fn The CSV file name of the roster
+     * @param rows The number of rows in the roster
+     * @throws IOException if the roster cannot be read
+     */
+    private static void runSuite(final String fn, int rows) throws IOException {
+        final List<String[]> lines = new ArrayList<>();
+        final List<Student> students = new ArrayList<>();
+
+        try (Directory.CSVReader reader = new Directory.CSVReader(new FileReader(fn))) {
+            String[] values = reader.readCSVLine();
+
+            while (values != null) {
+                lines.add(values);
+                students.add(Directory.toStudent(values));
+                values = reader.readCSVLine();
+            }
+        }
+
+        // The queries are drawn from the rows, so common names are searched as often as they occur
+        Random random = new Random(7);
+        int queryCount = Math.min(students.size(), 1_000_000);
+        final String[] andrewIDs = new String[queryCount];
+        final String[] firstNames = new String[queryCount];
+        final String[] lastNames = new String[queryCount];
+
+        for (int i = 0; i < queryCount; i++) {
+            andrewIDs[i] = students.get(random.nextInt(students.size())).getAndrewId();
+            firstNames[i] = students.get(random.nextInt(students.size())).getFirstName();
+            lastNames[i] = students.get(random.nextInt(students.size())).getLastName();
+        }
+
+        final Directory loaded = new Directory(fn);
+        final int count = students.size();
+
+        measureSuite("Directory(String fn)", rows, count, new SuiteOperation() {
+            @Override
+            public long run() {
+                long start = System.nanoTime();
+                new Directory(fn);
+                return System.nanoTime() - start;
+            }
+        });
+
+        measureSuite("CSVReader.readCSVLine", rows, count, new SuiteOperation() {
+            @Override
+            public long run() throws IOException {
+                long start = System.nanoTime();
+
+                try (Directory.CSVReader reader = new Directory.CSVReader(new FileReader(fn))) {
+                    while (reader.readCSVLine() != null) {
+                        // Only the parsing is measured
+                    }
+                }
+                return System.nanoTime() - start;
+            }
+        });
+
+        measureSuite("addStudent", rows, count, new SuiteOperation() {
+            @Override
+            public long run() {
+                Directory directory = new Directory();
+                long start = System.nanoTime();
+
+                for (Student student : students) {
+                    directory.addStudent(student);
+                }
+                return System.nanoTime() - start;
+            }
+        });
+
+        measureSuite("deleteStudent", rows, count, new SuiteOperation() {
+            @Override
+            public long run() {
+                Directory directory = new Directory();
+                for (Student student : students) {
+                    directory.addStudent(student);
+                }
+
+                long start = System.nanoTime();
+
+                for (Student student : students) {
+                    directory.deleteStudent(student.getAndrewId());
+                }
+                return System.nanoTime() - start;
+            }
+        });
+
+        measureSuite("searchByAndrewId", rows, queryCount, new SuiteOperation() {
+            @Override
+            public long run() {
+                long start = System.nanoTime();
+
+                for (String andrewID : andrewIDs) {
+                    loaded.searchByAndrewId(andrewID);
+                }
+                return System.nanoTime() - start;
+            }
+        });
+
+        measureSuite("searchByFirstName", rows, queryCount, new SuiteOperation() {
+            @Override
+            public long run() {
+                long start = System.nanoTime();
+
+                for (String firstName : firstNames) {
+                    loaded.searchByFirstName(firstName);
+                }
+                return System.nanoTime() - start;
+            }
+        });
+
+        measureSuite("searchByLastName", rows, queryCount, new SuiteOperation() {
+            @Override
+            public long run() {
+                long start = System.nanoTime();
+
+                for (String lastName : lastNames) {
+                    loaded.searchByLastName(lastName);
+                }
+                return System.nanoTime() - start;
+            }
+        });
+
+        measureSuite("Student phone number", rows, count, new SuiteOperation() {
+            @Override
+            public long run() {
+                long start = System.nanoTime();
+
+                for (String[] values : lines) {
+                    Student.formatPhoneNumber(values[3]);
+                }
+                return System.nanoTime() - start;
+            }
+        });
+    }
+
+    /**
+     * One timed operation of the suite.
+     */
+    private interface SuiteOperation {
+        /**
+         * Run the operation once. Any setup it needs is done before the clock starts.
+         * @return The elapsed time of the measured part in nanoseconds
+         * @throws IOException if a file cannot be read
+         */
+        long run() throws IOException;
+    }
+
+    /**
+     * Warm up and measure one operation of the suite and print its time per operation.
+     * @param name The name of the operation
+     * @param rows The number of rows in the roster
+     * @param operations The number of operations in one run
+     * @param operation The operation
+     * @throws IOException if a file cannot be read
+     */
+    private static void measureSuite(String name, int rows, int operations, SuiteOperation operation)
+        throws IOException {
+        for (int run = 0; run < WARMUP_RUNS; run++) {
+            operation.run();
+        }
+
+        double[] nanosPerOperation = new double[MEASURED_RUNS];
+        double sum = 0;
+
+        for (int run = 0; run < MEASURED_RUNS; run++) {
+            nanosPerOperation[run] = operation.run() / (double) operations;
+            sum += nanosPerOperation[run];
+        }
+
+        double mean = sum / MEASURED_RUNS;
+        double squares = 0;
+
+        for (double value : nanosPerOperation) {
+            squares += (value - mean) * (value - mean);
+        }
+
+        System.out.printf("%,12d rows  %-24s %,12.1f ns/op  +- %,10.1f%n", rows, name, mean,
+        Math.sqrt(squares / (MEASURED_RUNS - 1)));
+    }
+
+    /**
+     * Load a CSV file into a DirectoryServer on a free local port and measure its request latency. The given
+     * number of connections is opened and spread over the client threads, and every thread sends one request
+     * at a time on its connections in turn: 90% Andrew ID lookups, 5% last name searches, 3% first name
+     * searches and 2% adds and deletes of new students. The percentiles are over all requests of all threads.
+     * @param fn The CSV file name
+     * @param connections The number of connections
+     * @param threads The number of client threads
+     * @param seconds The length of the run
+     * @throws IOException if the server cannot be started or a connection fails
+     * @throws InterruptedException if interrupted while waiting for the client threads
+     */
+    private static void benchmarkServer(String fn, int connections, int threads, int seconds)
+        throws IOException, InterruptedException {
+        Directory directory = new Directory(fn);
+        final List<Student> students = directory.getAllStudents();
+        final DirectoryServer server = new DirectoryServer(directory, 0);
+
+        Thread serverThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    server.run();
+                } catch (IOException e) {
+                    System.out.println("Error running server: " + e);
+                }
+            }
+        }, "server");
+        serverThread.start();
+
+        final DirectoryClient[] clients = new DirectoryClient[connections];
+        for (int i = 0; i < connections; i++) {
+            clients[i] = new DirectoryClient(server.getAddress().getHostAddress(), server.getPort());
+        }
+
+        final int threadCount = Math.min(threads, connections);
+        final long[][] latencies = new long[threadCount][];
+        final int[] counts = new int[threadCount];
+        final long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        Thread[] workers = new Thread[threadCount];
+
+        for (int t = 0; t < threadCount; t++) {
+            final int thread = t;
+            workers[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Random random = new Random(thread);
+                    long[] own = new long[1 << 16];
+                    int count = 0;
+                    int next = thread;
+                    String added = null;
+
+                    while (System.nanoTime() < deadline) {
+                        DirectoryClient client = clients[next];
+                        next = next + threadCount < clients.length ? next + threadCount : thread;
+                        Student student = students.get(random.nextInt(students.size()));
+                        int kind = random.nextInt(100);
+                        long start = System.nanoTime();
+
+                        if (kind < 90) {
+                            client.searchByAndrewId(student.getAndrewId());
+                        } else if (kind < 95) {
+                            client.searchByLastName(student.getLastName());
+                        } else if (kind < 98) {
+                            client.searchByFirstName(student.getFirstName());
+                        } else if (added == null) {
+                            added = "load" + thread + "-" + count;
+                            client.addStudent(new Student(added, "Load", "Test", "4122681234"));
+                        } else {
+                            client.deleteStudent(added);
+                            added = null;
+                        }
+
+                        if (count == own.length) {
+                            own = Arrays.copyOf(own, count * 2);
+                        }
+                        own[count++] = System.nanoTime() - start;
+                    }
+
+                    latencies[thread] = own;
+                    counts[thread] = count;
+                }
+            }, "client-" + t);
+            workers[t].start();
+        }
+
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        for (DirectoryClient client : clients) {
+            client.close();
+        }
+        server.close();
+        serverThread.join();
+
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+
+        long[] all = new long[total];
+        int filled = 0;
+        for (int t = 0; t < threadCount; t++) {
+            System.arraycopy(latencies[t], 0, all, filled, counts[t]);
+            filled += counts[t];
+        }
+        Arrays.sort(all);
+
+        System.out.printf("%,d connections, %d client threads: %,d requests in %d s (%,.0f requests/s)%n", connections,
+        threadCount, total, seconds, total / (double) seconds);
+        System.out.printf("p50 %,.1f us, p99 %,.1f us, p99.9 %,.1f us, max %,.1f us%n", percentile(all, 0.5) / 1e3,
+        percentile(all, 0.99) / 1e3, percentile(all, 0.999) / 1e3, all[all.length - 1] / 1e3);
+    }
+
+    /**
+     * Compare three ways for a client to resolve a roster of Andrew IDs through a local DirectoryServer: one
+     * GET round trip per Andrew ID, pipelined GET requests, and MGET requests. Every roster also contains a few
+     * Andrew IDs that do not exist, and all three ways must return the same students.
+     * @param fn The CSV file name
+     * @param rosterSize The number of Andrew IDs in a roster
+     * @param rosters The number of rosters resolved by each way
+     * @throws IOException if the server cannot be started or the connection fails
+     * @throws InterruptedException if interrupted while waiting for the server to stop
+     */
+    private static void benchmarkMultiGet(String fn, int rosterSize, int rosters)
+        throws IOException, InterruptedException {
+        Directory directory = new Directory(fn);
+        List<Student> students = directory.getAllStudents();
+        final DirectoryServer server = new DirectoryServer(directory, 0);
+
+        Thread serverThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    server.run();
+                } catch (IOException e) {
+                    System.out.println("Error running server: " + e);
+                }
+            }
+        }, "server");
+        serverThread.start();
+
+        Random random = new Random(42);
+        List<List<String>> rosterIDs = new ArrayList<>(rosters);
+
+        for (int r = 0; r < rosters; r++) {
+            List<String> roster = new ArrayList<>(rosterSize);
+            for (int i = 0; i < rosterSize; i++) {
+                roster.add(i % 50 == 49 ? "missing" + i : students.get(random.nextInt(students.size())).getAndrewId());
+            }
+            rosterIDs.add(roster);
+        }
+
+        String[] names = {"GET each", "pipelined GET", "MGET"};
+
+        try (DirectoryClient client = new DirectoryClient(server.getAddress().getHostAddress(), server.getPort())) {
+            String expected = client.searchByAndrewIds(rosterIDs.get(0)).toString();
+
+            for (int run = 0; run < 2; run++) {
+                for (int way = 0; way < names.length; way++) {
+                    long start = System.nanoTime();
+
+                    for (List<String> roster : rosterIDs) {
+                        List<Student> found;
+
+                        if (way == 0) {
+                            found = new ArrayList<>(roster.size());
+                            for (String andrewID : roster) {
+                                found.add(client.searchByAndrewId(andrewID));
+                            }
+                        } else if (way == 1) {
+                            found = client.searchByAndrewIdsPipelined(roster);
+                        } else {
+                            found = client.searchByAndrewIds(roster);
+                        }
+
+                        if (roster == rosterIDs.get(0) && !found.toString().equals(expected)) {
+                            System.out.println(names[way] + " returned different students.");
+                            return;
+                        }
+                    }
+
+                    long nanos = System.nanoTime() - start;
+                    if (run == 1) {
+                        System.out.printf("%-14s %,d rosters of %,d Andrew IDs: %,10.1f us per roster, %,12.0f IDs/s%n",
+                        names[way], rosters, rosterSize, nanos / 1e3 / rosters, rosters * (double) rosterSize
+                        / (nanos / 1e9));
+                    }
+                }
+            }
+        } finally {
+            server.close();
+            serverThread.join();
+        }
+    }
+
+    /**
+     * Compare name searches on a ColumnarDirectory with and without a CachingDirectory in front of it. The
+     * searches pick the names of random students, so popular names are searched as often as they occur, and
+     * one in a thousand operations deletes a student and adds it back, which invalidates its names. Both
+     * directories get the same operations and must return the same students.
+     * @param fn The CSV file name
+     * @param operations The number of operations on each directory
+     */
+    private static void benchmarkCache(String fn, int operations) {
+        ColumnarDirectory plain = new ColumnarDirectory(fn);
+        CachingDirectory cached = new CachingDirectory(new ColumnarDirectory(fn));
+        List<Student> students = new ArrayList<>();
+
+        for (Student student : new Directory(fn).getAllStudents()) {
+            if (plain.searchByAndrewId(student.getAndrewId()) != null) {
+                students.add(student);
+            }
+        }
+
+        StudentDirectory[] directories = {plain, cached};
+        String[] names = {"ColumnarDirectory", "CachingDirectory"};
+
+        for (int round = 0; round < WARMUP_RUNS + 1; round++) {
+            boolean measured = round == WARMUP_RUNS;
+
+            for (int d = 0; d < directories.length; d++) {
+                Random random = new Random(round);
+                long found = 0;
+                long gc = gcMillis();
+                long start = System.nanoTime();
+
+                for (int i = 0; i < operations; i++) {
+                    Student student = students.get(random.nextInt(students.size()));
+
+                    if (i % 1000 == 999) {
+                        directories[d].deleteStudent(student.getAndrewId());
+                        directories[d].addStudent(student);
+                    } else if (random.nextBoolean()) {
+                        found += directories[d].searchByFirstName(student.getFirstName()).size();
+                    } else {
+                        found += directories[d].searchByLastName(student.getLastName()).size();
+                    }
+                }
+
+                if (measured) {
+                    report(names[d], found, System.nanoTime() - start, gcMillis() - gc);
+                }
+            }
+        }
+
+        System.out.printf("%,d hits, %,d misses, %,d evictions%n", cached.getHits(), cached.getMisses(),
+        cached.getEvictions());
+
+        for (int i = 0; i < students.size(); i += 100) {
+            Student student = students.get(i);
+
+            if (!sameNames(plain.searchByLastName(student.getLastName()),
+            cached.searchByLastName(student.getLastName()))) {
+                System.out.println("Mismatch for " + student.getLastName());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Check that two search results hold the same students, in any order.
+     * @param expected The first result
+     * @param actual The second result
+     * @return True if the results hold the same students
+     */
+    private static boolean sameNames(List<Student> expected, List<Student> actual) {
+        HashSet<String> lines = new HashSet<>();
+
+        for (Student student : expected) {
+            lines.add(student.toString());
+        }
+        for (Student student : actual) {
+            if (!lines.contains(student.toString())) {
+                return false;
+            }
+        }
+        return expected.size() == actual.size();
+    }
+
+    /**
+     * Compare exact last name searches with normalized ones. Normalized searches run twice: with queries that
+     * are already normalized, which must not allocate, and with the names as they were written, which have to
+     * be normalized first. Every normalized search must find at least the students of the exact search.
+     * @param fn The CSV file name
+     */
+    private static void benchmarkNormalized(String fn) {
+        Directory directory = new Directory(fn);
+        List<String> lastNames = new ArrayList<>(new HashSet<>(namesOf(directory.getAllStudents(), false)));
+        lastNames.remove(null);
+        List<String> normalizedNames = new ArrayList<>();
+
+        // Look up copies of the names, so no search finds the directory's own String and skips the comparison
+        for (int i = 0; i < lastNames.size(); i++) {
+            String lastName = new String(lastNames.get(i).toCharArray());
+            lastNames.set(i, lastName);
+            normalizedNames.add(new String(NameNormalizer.DEFAULT.normalize(lastName).toCharArray()));
+        }
+
+        for (int i = 0; i < lastNames.size(); i++) {
+            if (directory.searchByNormalizedLastName(normalizedNames.get(i)).size()
+            < directory.searchByLastName(lastNames.get(i)).size()) {
+                System.out.println("Mismatch for " + lastNames.get(i));
+                return;
+            }
+        }
+
+        for (int round = 0; round < WARMUP_RUNS + 1; round++) {
+            boolean measured = round == WARMUP_RUNS;
+            measureLastNames("exact", directory, lastNames, false, measured);
+            measureLastNames("normalized query", directory, normalizedNames, true, measured);
+            measureLastNames("raw query", directory, lastNames, true, measured);
+        }
+    }
+
+    /**
+     * Search every last name of a list ten times and print the time and the bytes allocated per search.
+     * Each kind of search runs in its own call, so the JIT compiles a loop for each.
+     * @param name The name of the measured searches
+     * @param directory The directory
+     * @param lastNames The last names to search
+     * @param normalized True for normalized searches, false for exact ones
+     * @param measured True to print the results
+     */
+    private static void measureLastNames(String name, Directory directory, List<String> lastNames,
+    boolean normalized, boolean measured) {
+        long matches = 0;
+        long before = allocatedBytes();
+        long start = System.nanoTime();
+
+        for (int r = 0; r < 10; r++) {
+            for (String lastName : lastNames) {
+                matches += normalized ? directory.searchByNormalizedLastName(lastName).size()
+                : directory.searchByLastName(lastName).size();
+            }
+        }
+
+        long nanos = System.nanoTime() - start;
+        long allocated = allocatedBytes() - before;
+        int queries = 10 * lastNames.size();
+
+        if (measured) {
+            System.out.printf("%-18s %,10d searches %,14d matches %8.1f ns/search %8.1f bytes/search%n", name,
+            queries, matches, nanos / (double) queries, allocated / (double) queries);
+        }
+    }
+
+    /**
+     * Get a percentile of sorted values.
+     * @param sorted The values in ascending order
+     * @param fraction The percentile as a fraction, for example 0.99
+     * @return The value
+     */
+    private static long percentile(long[] sorted, double fraction) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.round(fraction * (sorted.length - 1)))];
+    }
+
+    /**
+     * Get the heap in use after collecting garbage.
+     * @return The used heap in bytes
+     */
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Delete a folder and the files in it.
+     * @param folder The folder
+     * @throws IOException if a file cannot be deleted
+     */
+    private static void deleteFolder(Path folder) throws IOException {
+        for (File file : folder.toFile().listFiles()) {
+            Files.delete(file.toPath());
+        }
+        Files.delete(folder);
+    }
+
+    /**
+     * Get the number of bytes allocated by the current thread so far.
+     * @return The allocated bytes
+     */
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Print the number of rows, the elapsed time, the rows per second and the GC time of one run.
+     * @param name The name of the measured operation
+     * @param rows The number of rows processed
+     * @param nanos The elapsed time in nanoseconds
+     * @param gcMillis The time spent in garbage collection in milliseconds
+     */
+    private static void report(String name, long rows, long nanos, long gcMillis) {
+        double seconds = nanos / 1e9;
+        System.out.printf("%-28s %,12d rows %10.1f ms %,14.0f rows/s %8d ms GC%n", name, rows, seconds * 1000,
+        rows / seconds, gcMillis);
+    }
+
+    /**
+     * Get the total time all garbage collectors have spent so far.
+     * @return The accumulated collection time in milliseconds
+     */
+    private static long gcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(bean.getCollectionTime(), 0);
+        }
+        return total;
+    }
+
+    /**
+     * Main method that runs the requested benchmark.
+     * @param args The benchmark name followed by its arguments
+     * @throws IOException if a benchmark file cannot be read or written
+     * @throws InterruptedException if the benchmark thread is interrupted
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length == 2 && args[0].equals("load")) {
+            benchmarkLoad(args[1]);
+            return;
+        }
+
+        if (args.length == 3 && args[0].equals("startup")) {
+            benchmarkStartup(args[1], args[2]);
+            return;
+        }
+
+        if (args.length == 3 && args[0].equals("reads")) {
+            benchmarkReads(args[1], Integer.parseInt(args[2]));
+            return;
+        }
+
+        if (args.length == 2 && args[0].equals("alloc")) {
+            benchmarkAllocation(args[1]);
+            return;
+        }
+
+        if (args.length == 3 && args[0].equals("churn")) {
+            benchmarkChurn(Integer.parseInt(args[1]), Long.parseLong(args[2]));
+            return;
+        }
+
+        if (args.length == 2 && args[0].equals("prefix")) {
+            benchmarkPrefix(args[1]);
+            return;
+        }
+
+        if (args.length == 2 && args[0].equals("fuzzy")) {
+            benchmarkFuzzy(args[1]);
+            return;
+        }
+
+        if (args.length == 2 && args[0].equals("journal")) {
+            benchmarkJournal(Integer.parseInt(args[1]));
+            return;
+        }
+
+        if (args.length == 2 && args[0].equals("batch")) {
+            benchmarkBatch(Integer.parseInt(args[1]));
+            return;
+        }
+
+        if (args.length == 2 && args[0].equals("heap")) {
+            benchmarkHeap(args[1]);
+            return;
+        }
+
+        if (args.length == 2 && args[0].equals("columnar")) {
+            benchmarkColumnar(args[1]);
+            return;
+        }
+
+        if (args.length == 3 && args[0].equals("offheap")) {
+            benchmarkOffHeap(Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+            return;
+        }
+
+        if (args.length == 2 && args[0].equals("phone")) {
+            benchmarkPhone(Integer.parseInt(args[1]));
+            return;
+        }
+
+        if (args.length >= 1 && args.length <= 2 && args[0].equals("suite")) {
+            benchmarkSuite(args.length == 2 ? Integer.parseInt(args[1]) : 10_000_000);
+            return;
+        }
+
+        if (args.length == 5 && args[0].equals("server")) {
+            benchmarkServer(args[1], Integer.parseInt(args[2]), Integer.parseInt(args[3]), Integer.parseInt(args[4]));
+            return;
+        }
+
+        if (args.length == 4 && args[0].equals("mget")) {
+            benchmarkMultiGet(args[1], Integer.parseInt(args[2]), Integer.parseInt(args[3]));
+            return;
+        }
+
+        if (args.length == 3 && args[0].equals("cache")) {
+            benchmarkCache(args[1], Integer.parseInt(args[2]));
+            return;
+        }
+
+        if (args.length == 2 && args[0].equals("normalized")) {
+            benchmarkNormalized(args[1]);
+            return;
+        }
+
+        System.out.println("Usage: java DirectoryBenchmark load <csv file>");
+        System.out.println("       java DirectoryBenchmark startup <csv file> <snapshot file>");
+        System.out.println("       java DirectoryBenchmark reads <csv file> <seconds>");
+        System.out.println("       java DirectoryBenchmark alloc <csv file>");
+        System.out.println("       java DirectoryBenchmark churn <students> <cycles>");
+        System.out.println("       java DirectoryBenchmark prefix <csv file>");
+        System.out.println("       java DirectoryBenchmark fuzzy <csv file>");
+        System.out.println("       java DirectoryBenchmark journal <operations>");
+        System.out.println("       java DirectoryBenchmark batch <students>");
+        System.out.println("       java DirectoryBenchmark heap <csv file>");
+        System.out.println("       java DirectoryBenchmark columnar <csv file>");
+        System.out.println("       java DirectoryBenchmark offheap <students> <cycles>");
+        System.out.println("       java DirectoryBenchmark phone <inputs>");
+        System.out.println("       java DirectoryBenchmark suite [max rows]");
+        System.out.println("       java DirectoryBenchmark server <csv file> <connections> <threads> <seconds>");
+        System.out.println("       java DirectoryBenchmark mget <csv file> <roster size> <rosters>");
+        System.out.println("       java DirectoryBenchmark cache <csv file> <operations>");
+        System.out.println("       java DirectoryBenchmark normalized <csv file>");
+    }
+}
@@ -0,0 +1,486 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * This is a driver for the correctness checks of the directories. Unlike DirectoryBenchmark, it measures
+ * nothing: every check prints what it compared and whether it passed, and the program exits with status 1
+ * if any check failed, so a failure cannot be missed in a script.
+ * Run it with the name of a check and its arguments, for example: java DirectoryCheck loaders 200000
+ * @author: Zijie Huang
+ * @date: 10/18/2026
+ */
+public class DirectoryCheck {
+    /**
+     * How long the client check waits for a lookup before it counts as blocked.
+     */
+    private static final int LOOKUP_SECONDS = 60;
+
+    /**
+     * Load a generated roster with malformed rows and repeated Andrew IDs through every loader and check that
+     * they all keep the same students as Directory(String fn): the first row of every Andrew ID.
+     * @param rows The number of rows of the roster
+     * @return True if every loader agrees
+     * @throws IOException if the roster or the snapshot cannot be written
+     */
+    private static boolean checkLoaders(long rows) throws IOException {
+        Path folder = Files.createTempDirectory("loaders");
+        String fn = folder.resolve("roster.csv").toString();
+        String snapshot = folder.resolve("roster.bin").toString();
+
+        RosterGenerator generator = new RosterGenerator(42, 0.05, 0.05);
+        generator.write(fn, rows);
+        System.out.printf("Roster of %,d rows with %,d malformed rows and %,d duplicate Andrew IDs%n", rows,
+        generator.getMalformedRows(), generator.getDuplicateRows());
+
+        Directory expected = new Directory(fn);
+        DirectorySnapshot.save(expected, snapshot);
+        boolean passed = generator.getDuplicateRows() > 0 && expected.size() < rows;
+        report("Directory(String fn)", expected, passed);
+
+        passed &= report("Directory.loadMapped", Directory.loadMapped(fn), expected);
+        passed &= report("Directory.loadParallel", Directory.loadParallel(fn), expected);
+        passed &= report("DirectorySnapshot.load", DirectorySnapshot.load(snapshot), expected);
+        passed &= report("ColumnarDirectory(String fn)", new ColumnarDirectory(fn), expected);
+        passed &= report("OffHeapDirectory(String fn)", new OffHeapDirectory(fn), expected);
+
+        Files.delete(folder.resolve("roster.csv"));
+        Files.delete(folder.resolve("roster.bin"));
+        Files.delete(folder);
+        return passed;
+    }
+
+    /**
+     * Run random adds, deletes and searches against one ConcurrentDirectory from several threads while a
+     * checker thread verifies that the three maps never disagree.
+     * @param threads The number of worker threads
+     * @param seconds How long the workers run
+     * @return True if the maps agreed at every check
+     * @throws InterruptedException if the checking thread is interrupted
+     */
+    private static boolean checkConcurrent(int threads, int seconds) throws InterruptedException {
+        final ConcurrentDirectory directory = new ConcurrentDirectory();
+        final String[] firstNames = {"Anna", "Brian", "Catherine", "David", "Emma", "Felix", "Grace", "Henry"};
+        final String[] lastNames = {"Smith", "Johnson", "Lee", "Brown", "Garcia", "Miller"};
+        final long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        final AtomicLong operations = new AtomicLong();
+        final AtomicInteger inconsistencies = new AtomicInteger();
+
+        Thread[] workers = new Thread[threads];
+
+        for (int t = 0; t < threads; t++) {
+            final long seed = t;
+            workers[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Random random = new Random(seed);
+                    long count = 0;
+
+                    while (System.nanoTime() < deadline) {
+                        String andrewID = "s" + random.nextInt(10_000);
+                        int action = random.nextInt(4);
+
+                        try {
+                            if (action == 0) {
+                                Student student = new Student(andrewID, firstNames[random.nextInt(firstNames.length)],
+                                lastNames[random.nextInt(lastNames.length)], "4122681234");
+                                directory.addStudent(student);
+                            } else if (action == 1) {
+                                directory.deleteStudent(andrewID);
+                            } else if (action == 2) {
+                                directory.searchByFirstName(firstNames[random.nextInt(firstNames.length)]);
+                            } else {
+                                directory.searchByAndrewId(andrewID);
+                            }
+                        } catch (IllegalArgumentException e) {
+                            // The student already existed or was already deleted
+                        }
+
+                        count++;
+                    }
+
+                    operations.addAndGet(count);
+                }
+            });
+            workers[t].start();
+        }
+
+        Thread checker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (System.nanoTime() < deadline) {
+                    if (!directory.isConsistent()) {
+                        inconsistencies.incrementAndGet();
+                    }
+                    try {
+                        Thread.sleep(10);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+        });
+        checker.start();
+
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        checker.join();
+
+        if (!directory.isConsistent()) {
+            inconsistencies.incrementAndGet();
+        }
+
+        System.out.printf("%d threads, %,d operations in %d s, %d students left, %d inconsistent checks%n",
+        threads, operations.get(), seconds, directory.size(), inconsistencies.get());
+        return inconsistencies.get() == 0;
+    }
+
+    /**
+     * Check crash recovery of DirectoryJournal. A log of random adds and deletes is cut at random offsets, as a
+     * crash in the middle of a write would leave it, and the recovered directory must equal the directory after
+     * exactly the records that are complete in the cut log. Then a journal that compacts often is closed and
+     * recovered, and must give back the final directory.
+     * @param operations The number of adds and deletes
+     * @param trials The number of cut logs to recover
+     * @return True if every log was recovered correctly
+     * @throws IOException if a journal file cannot be read or written
+     */
+    private static boolean checkJournal(int operations, int trials) throws IOException {
+        Random random = new Random(42);
+        List<Student> students = new ArrayList<>();
+        boolean[] deletes = new boolean[operations];
+        List<Student> live = new ArrayList<>();
+
+        // A random sequence of adds and deletes
+        for (int i = 0; i < operations; i++) {
+            if (!live.isEmpty() && random.nextInt(10) < 3) {
+                int slot = random.nextInt(live.size());
+                students.add(live.get(slot));
+                live.set(slot, live.get(live.size() - 1));
+                live.remove(live.size() - 1);
+                deletes[i] = true;
+            } else {
+                Student student = new Student("s" + i, "First" + random.nextInt(1000), "Last" + random.nextInt(5000),
+                String.valueOf(4120000000L + random.nextInt(10000000)));
+                students.add(student);
+                live.add(student);
+            }
+        }
+
+        // Log the whole sequence
+        Path folder = Files.createTempDirectory("journal");
+        DirectoryJournal journal = new DirectoryJournal(folder.toString(), Long.MAX_VALUE);
+        Directory directory = journal.recover();
+
+        for (int i = 0; i < operations; i++) {
+            Student student = students.get(i);
+
+            if (deletes[i]) {
+                directory.deleteStudent(student.getAndrewId());
+                journal.logDelete(student.getAndrewId());
+            } else {
+                directory.addStudent(student);
+                journal.logAdd(student);
+            }
+        }
+        journal.close();
+
+        byte[] log = Files.readAllBytes(folder.resolve("journal-0.log"));
+        System.out.printf("Log of %,d adds and deletes, %,d bytes%n", operations, log.length);
+        deleteFolder(folder);
+
+        // Recovery from logs cut at random offsets
+        int passed = 0;
+
+        for (int trial = 0; trial < trials; trial++) {
+            int cut = random.nextInt(log.length + 1);
+            Path trialFolder = Files.createTempDirectory("journal");
+            Files.write(trialFolder.resolve("journal-0.log"), Arrays.copyOf(log, cut));
+
+            DirectoryJournal recovering = new DirectoryJournal(trialFolder.toString());
+            Directory recovered = recovering.recover();
+            int replayed = recovering.recoveredRecords() + recovering.skippedRecords();
+            recovering.close();
+
+            // The records after the kept bytes must not fit into the cut
+            long kept = Files.size(trialFolder.resolve("journal-0.log"));
+            boolean complete = kept + 8 > cut || kept + 8 + ByteBuffer.wrap(log).getInt((int) kept) > cut;
+
+            Directory expected = new Directory();
+            for (int i = 0; i < replayed; i++) {
+                if (deletes[i]) {
+                    expected.deleteStudent(students.get(i).getAndrewId());
+                } else {
+                    expected.addStudent(students.get(i));
+                }
+            }
+
+            if (complete && kept <= cut && sameStudents(expected, recovered)) {
+                passed++;
+            } else {
+                System.out.printf("Recovery failed for a log cut at byte %,d of %,d%n", cut, log.length);
+            }
+
+            deleteFolder(trialFolder);
+        }
+
+        System.out.printf("%d of %d cut logs recovered correctly%n", passed, trials);
+        boolean recoveredAll = passed == trials;
+
+        // Compaction while logging
+        folder = Files.createTempDirectory("journal");
+        journal = new DirectoryJournal(folder.toString(), 64 << 10);
+        directory = journal.recover();
+        int compactions = 0;
+
+        for (int i = 0; i < operations; i++) {
+            Student student = students.get(i);
+
+            if (deletes[i]) {
+                directory.deleteStudent(student.getAndrewId());
+                journal.logDelete(student.getAndrewId());
+            } else {
+                directory.addStudent(student);
+                journal.logAdd(student);
+            }
+
+            if (journal.needsCompaction()) {
+                journal.compact(directory.getAllStudents());
+                compactions++;
+            }
+        }
+        journal.close();
+
+        journal = new DirectoryJournal(folder.toString());
+        Directory recovered = journal.recover();
+        journal.close();
+
+        System.out.printf("%d compactions, %d files left%n", compactions, folder.toFile().list().length);
+        recoveredAll &= report("Recovered after compactions", recovered, directory);
+        deleteFolder(folder);
+        return recoveredAll;
+    }
+
+    /**
+     * Look up every Andrew ID of a generated roster, plus some that do not exist, through a DirectoryClient
+     * connected to a local DirectoryServer, once with MGET requests and once with pipelined GET requests, and
+     * check that both return the students of the directory. The roster should be big enough that the MGET
+     * responses add up to more than the server buffers for one connection, so a client that sends too far
+     * ahead blocks; a lookup that does not finish within LOOKUP_SECONDS fails.
+     * @param rows The number of rows of the roster
+     * @return True if both lookups finished and returned the right students
+     * @throws IOException if the roster cannot be written or the server cannot be started
+     * @throws InterruptedException if the checking thread is interrupted
+     */
+    private static boolean checkClient(long rows) throws IOException, InterruptedException {
+        Path folder = Files.createTempDirectory("client");
+        String fn = folder.resolve("roster.csv").toString();
+        new RosterGenerator(42).write(fn, rows);
+        Directory roster = new Directory(fn);
+        deleteFolder(folder);
+
+        // Long Andrew IDs make the requests big too, so unread requests fill the socket buffers
+        final Directory directory = new Directory();
+        final List<String> andrewIDs = new ArrayList<>();
+        char[] padding = new char[100];
+        Arrays.fill(padding, 'x');
+
+        for (Student student : roster.getAllStudents()) {
+            String andrewID = student.getAndrewId() + "-" + new String(padding);
+            directory.addStudent(new Student(andrewID, student.getFirstName(), student.getLastName(),
+            student.getPhoneNumber()));
+            andrewIDs.add(andrewID);
+
+            if (andrewIDs.size() % 100 == 0) {
+                andrewIDs.add("missing" + andrewIDs.size());
+            }
+        }
+
+        final DirectoryServer server = new DirectoryServer(directory, 0);
+        Thread serverThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    server.run();
+                } catch (IOException e) {
+                    System.out.println("Error running server: " + e);
+                }
+            }
+        }, "server");
+        serverThread.start();
+
+        final DirectoryClient client = new DirectoryClient(server.getAddress().getHostAddress(), server.getPort());
+        final List<List<Student>> results = new ArrayList<>();
+        Thread lookups = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                results.add(client.searchByAndrewIds(andrewIDs));
+                results.add(client.searchByAndrewIdsPipelined(andrewIDs));
+            }
+        }, "lookups");
+        lookups.setDaemon(true);
+        lookups.start();
+        lookups.join(LOOKUP_SECONDS * 1000L);
+        boolean blocked = lookups.isAlive();
+
+        // Closing the connection ends a lookup that is still blocked
+        client.close();
+        lookups.join();
+        server.close();
+        serverThread.join();
+
+        String[] names = {"MGET", "Pipelined GET"};
+        boolean passed = true;
+
+        for (int i = 0; i < names.length; i++) {
+            boolean same = i < results.size() && sameLookups(directory, andrewIDs, results.get(i));
+            System.out.printf("%-30s %,12d Andrew IDs  %s%n", names[i], andrewIDs.size(), same ? "ok"
+            : blocked && i == results.size() ? "FAILED (blocked for " + LOOKUP_SECONDS + " s)" : "FAILED");
+            passed &= same;
+        }
+        return passed;
+    }
+
+    /**
+     * Check that the students found for a list of Andrew IDs are the students of a directory.
+     * @param directory The directory
+     * @param andrewIDs The Andrew IDs
+     * @param found The students found, with null for an Andrew ID that does not exist
+     * @return True if every student matches
+     */
+    private static boolean sameLookups(Directory directory, List<String> andrewIDs, List<Student> found) {
+        if (found.size() != andrewIDs.size()) {
+            return false;
+        }
+
+        for (int i = 0; i < andrewIDs.size(); i++) {
+            Student expected = directory.searchByAndrewId(andrewIDs.get(i));
+
+            if (expected == null ? found.get(i) != null
+                : found.get(i) == null || !found.get(i).toString().equals(expected.toString())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check that a directory has the same students as the expected one, and the same number of students
+     * under every first and last name, then print the result.
+     * @param name The name of the loader
+     * @param actual The directory to check
+     * @param expected The expected directory
+     * @return True if both have the same students
+     */
+    private static boolean report(String name, StudentDirectory actual, Directory expected) {
+        return report(name, actual, sameStudents(expected, actual));
+    }
+
+    /**
+     * Print the result of a check on a directory.
+     * @param name The name of the check
+     * @param directory The directory
+     * @param passed True if the check passed
+     * @return The result
+     */
+    private static boolean report(String name, StudentDirectory directory, boolean passed) {
+        System.out.printf("%-30s %,12d students  %s%n", name, directory.size(), passed ? "ok" : "FAILED");
+        return passed;
+    }
+
+    /**
+     * Check that a directory has the same students as the expected one.
+     * @param expected The expected directory
+     * @param actual The directory to check
+     * @return True if both have the same Andrew IDs, names and phone numbers, and the name searches agree
+     */
+    private static boolean sameStudents(Directory expected, StudentDirectory actual) {
+        if (expected.size() != actual.size()) {
+            return false;
+        }
+
+        List<Student> students = expected.getAllStudents();
+        Set<String> firstNames = new HashSet<>();
+        Set<String> lastNames = new HashSet<>();
+
+        for (Student student : students) {
+            Student other = actual.searchByAndrewId(student.getAndrewId());
+
+            if (other == null || !other.toString().equals(student.toString())) {
+                return false;
+            }
+
+            firstNames.add(student.getFirstName());
+            lastNames.add(student.getLastName());
+        }
+
+        for (String firstName : firstNames) {
+            if (expected.searchByFirstName(firstName).size() != actual.searchByFirstName(firstName).size()) {
+                return false;
+            }
+        }
+
+        for (String lastName : lastNames) {
+            if (expected.searchByLastName(lastName).size() != actual.searchByLastName(lastName).size()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Delete a folder and the files in it.
+     * @param folder The folder
+     * @throws IOException if a file cannot be deleted
+     */
+    private static void deleteFolder(Path folder) throws IOException {
+        for (File file : folder.toFile().listFiles()) {
+            Files.delete(file.toPath());
+        }
+        Files.delete(folder);
+    }
+
+    /**
+     * Main method that runs the requested check and exits with status 1 if it failed.
+     * @param args The check name followed by its arguments
+     * @throws IOException if a check file cannot be read or written
+     * @throws InterruptedException if the main thread is interrupted
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        boolean passed;
+
+        if (args.length == 2 && args[0].equals("loaders")) {
+            passed = checkLoaders(Long.parseLong(args[1]));
+        } else if (args.length == 3 && args[0].equals("stress")) {
+            passed = checkConcurrent(Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+        } else if (args.length == 3 && args[0].equals("journal")) {
+            passed = checkJournal(Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+        } else if (args.length == 2 && args[0].equals("client")) {
+            passed = checkClient(Long.parseLong(args[1]));
+        } else {
+            System.out.println("Usage: java DirectoryCheck loaders <rows>");
+            System.out.println("       java DirectoryCheck stress <threads> <seconds>");
+            System.out.println("       java DirectoryCheck journal <operations> <trials>");
+            System.out.println("       java DirectoryCheck client <rows>");
+            System.exit(2);
+            return;
+        }
+
+        if (!passed) {
+            System.out.println("Check failed.");
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,431 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This class is a directory that forwards every call to a DirectoryServer over one TCP connection.
+ * A request the server rejects throws IllegalArgumentException with the server's message, like the local
+ * directories do, or DuplicateStudentException and MissingStudentException for an add of a taken Andrew ID and
+ * a delete of a missing one, and a failed connection throws UncheckedIOException. A client is not thread-safe.
+ * @author: Zijie Huang
+ * @date: 10/18/2026
+ */
+public class DirectoryClient implements StudentDirectory, Closeable {
+    /**
+     * The largest number of Andrew IDs sent in one MGET request.
+     */
+    private static final int MGET_BATCH = 1000;
+
+    /**
+     * The largest MGET request line in bytes, well below the longest line DirectoryServer accepts.
+     */
+    private static final int MGET_BYTES = 1 << 15;
+
+    /**
+     * The largest number of requests sent ahead of the responses read.
+     */
+    private static final int PIPELINE_WINDOW = 64;
+
+    /**
+     * The largest number of request bytes sent ahead of the responses read.
+     */
+    private static final int PIPELINE_BYTES = 1 << 16;
+
+    /**
+     * The connection to the server.
+     */
+    private final Socket socket;
+
+    /**
+     * The responses from the server.
+     */
+    private final BufferedReader in;
+
+    /**
+     * The requests to the server.
+     */
+    private final Writer out;
+
+    /**
+     * The number of request bytes this connection sends ahead of the responses read. The server stops reading
+     * while too many response bytes are unread, so the requests in flight must fit into the send buffer of the
+     * socket, or the client would block writing them while the server waits for it to read.
+     */
+    private final int pipelineBytes;
+
+    /**
+     * Constructor take the host and port of the server and connects to it.
+     * @param host The host name
+     * @param port The port
+     * @throws IOException if the server cannot be reached
+     */
+    public DirectoryClient(String host, int port) throws IOException {
+        socket = new Socket(host, port);
+        socket.setTcpNoDelay(true);
+        in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+
+        // Linux reports twice the buffer size, to account for its bookkeeping
+        pipelineBytes = Math.min(PIPELINE_BYTES, socket.getSendBufferSize() / 2);
+    }
+
+    /**
+     * This method adds a student on the server.
+     * @param student
+     */
+    @Override
+    public void addStudent(Student student) {
+        if (student == null) {
+            throw new IllegalArgumentException("Student cannot be null.");
+        }
+
+        request("ADD " + DirectoryServer.encodeValue(student.getAndrewId()) + "\t"
+        + DirectoryServer.encodeValue(student.getFirstName()) + "\t"
+        + DirectoryServer.encodeValue(student.getLastName()) + "\t"
+        + DirectoryServer.encodeValue(student.getPhoneNumber()));
+    }
+
+    /**
+     * This method deletes a student by andrewID on the server.
+     * @param andrewID
+     * @return The deleted student
+     */
+    @Override
+    public Student deleteStudent(String andrewID) {
+        if (andrewID == null) {
+            throw new IllegalArgumentException("Andrew ID cannot be null.");
+        }
+
+        return readStudents(request("DEL " + andrewID)).get(0);
+    }
+
+    /**
+     * This method searches a student by andrewID on the server.
+     * @param andrewID
+     * @return The student and null if the student does not exist
+     */
+    @Override
+    public Student searchByAndrewId(String andrewID) {
+        if (andrewID == null) {
+            throw new IllegalArgumentException("Andrew ID cannot be null.");
+        }
+
+        List<Student> students = readStudents(request("GET " + andrewID));
+        return students.isEmpty() ? null : students.get(0);
+    }
+
+    /**
+     * This method searches students by a collection of andrewIDs with MGET requests of up to MGET_BATCH
+     * Andrew IDs and MGET_BYTES bytes each, pipelined like searchByAndrewIdsPipelined.
+     * @param andrewIDs
+     * @return The students in the order of the Andrew IDs, with null for an Andrew ID that does not exist
+     */
+    @Override
+    public List<Student> searchByAndrewIds(Collection<String> andrewIDs) {
+        List<String> requests = new ArrayList<>();
+        StringBuilder request = new StringBuilder("MGET ");
+        int inRequest = 0;
+        int requestBytes = 0;
+
+        for (String andrewID : checkAndrewIDs(andrewIDs)) {
+            int bytes = utf8Length(andrewID) + 1;
+
+            if (inRequest == MGET_BATCH || inRequest > 0 && requestBytes + bytes > MGET_BYTES) {
+                requests.add(request.toString());
+                request.setLength(5);
+                inRequest = 0;
+                requestBytes = 0;
+            }
+
+            if (inRequest > 0) {
+                request.append('\t');
+            }
+            request.append(andrewID);
+            inRequest++;
+            requestBytes += bytes;
+        }
+
+        if (inRequest > 0) {
+            requests.add(request.toString());
+        }
+        return pipeline(requests, true);
+    }
+
+    /**
+     * This method searches students by a collection of andrewIDs with one GET request each, but sends up to
+     * PIPELINE_WINDOW requests, and no more bytes than fit into the socket, before reading their responses, so
+     * they share round trips.
+     * @param andrewIDs
+     * @return The students in the order of the Andrew IDs, with null for an Andrew ID that does not exist
+     */
+    public List<Student> searchByAndrewIdsPipelined(Collection<String> andrewIDs) {
+        List<String> requests = new ArrayList<>(andrewIDs == null ? 0 : andrewIDs.size());
+
+        for (String andrewID : checkAndrewIDs(andrewIDs)) {
+            requests.add("GET " + andrewID);
+        }
+        return pipeline(requests, false);
+    }
+
+    /**
+     * This method searches students by first name on the server.
+     * @param firstName
+     * @return A read-only list of the students with the same first name
+     */
+    @Override
+    public List<Student> searchByFirstName(String firstName) {
+        if (firstName == null) {
+            throw new IllegalArgumentException("First name cannot be null.");
+        }
+
+        return readStudents(request("FIRST " + firstName));
+    }
+
+    /**
+     * This method searches students by last name on the server.
+     * @param lastName
+     * @return A read-only list of the students with the same last name
+     */
+    @Override
+    public List<Student> searchByLastName(String lastName) {
+        if (lastName == null) {
+            throw new IllegalArgumentException("Last name cannot be null.");
+        }
+
+        return readStudents(request("LAST " + lastName));
+    }
+
+    /**
+     * This method returns the number of students on the server.
+     * @return The number of students
+     */
+    @Override
+    public int size() {
+        return Integer.parseInt(request("SIZE"));
+    }
+
+    /**
+     * This method closes the connection.
+     * @throws IOException if the connection cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    /**
+     * Send requests that each look up Andrew IDs, keeping up to PIPELINE_WINDOW of them and pipelineBytes bytes
+     * in flight, and collect the students of all responses. One request is always sent, however long it is,
+     * because the server reads it once every earlier response was read.
+     * @param requests The request lines
+     * @param multiple True for MGET requests, which answer one line per Andrew ID, false for GET requests
+     * @return The students in the order of the requests, with null for an Andrew ID that does not exist
+     */
+    private List<Student> pipeline(List<String> requests, boolean multiple) {
+        List<Student> result = new ArrayList<>();
+        int[] requestBytes = new int[requests.size()];
+        int sent = 0;
+        long inFlight = 0;
+
+        try {
+            for (int received = 0; received < requests.size(); received++) {
+                while (sent < requests.size() && sent - received < PIPELINE_WINDOW) {
+                    requestBytes[sent] = utf8Length(requests.get(sent)) + 1;
+
+                    if (sent > received && inFlight + requestBytes[sent] > pipelineBytes) {
+                        break;
+                    }
+
+                    out.write(requests.get(sent));
+                    out.write('\n');
+                    inFlight += requestBytes[sent++];
+                }
+                out.flush();
+
+                // The server has read the request whose response comes next
+                inFlight -= requestBytes[received];
+
+                int count;
+
+                try {
+                    count = Integer.parseInt(readHeader());
+                } catch (IllegalArgumentException e) {
+                    // Read the responses to the requests still in flight, so the next call reads its own
+                    for (int i = received + 1; i < sent; i++) {
+                        skipResponse();
+                    }
+                    throw e;
+                }
+
+                if (!multiple) {
+                    result.add(count == 0 ? null : toStudent(in.readLine()));
+                    continue;
+                }
+
+                for (int i = 0; i < count; i++) {
+                    String line = in.readLine();
+                    result.add(line != null && line.isEmpty() ? null : toStudent(line));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return result;
+    }
+
+    /**
+     * Count the bytes of a string in UTF-8 without encoding it.
+     * @param value The string
+     * @return The number of bytes
+     */
+    private static int utf8Length(String value) {
+        int bytes = value.length();
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+
+            // Two bytes up to U+07FF, three above, and four for a surrogate pair, which has two chars
+            if (c >= 0x80) {
+                bytes += c < 0x800 || Character.isSurrogate(c) ? 1 : 2;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Check that a collection of Andrew IDs can be sent in GET and MGET requests.
+     * @param andrewIDs The Andrew IDs
+     * @return The Andrew IDs
+     */
+    private static Collection<String> checkAndrewIDs(Collection<String> andrewIDs) {
+        if (andrewIDs == null) {
+            throw new IllegalArgumentException("Andrew IDs cannot be null.");
+        }
+
+        for (String andrewID : andrewIDs) {
+            if (andrewID == null) {
+                throw new IllegalArgumentException("Andrew ID cannot be null.");
+            }
+
+            if (andrewID.indexOf('\t') >= 0 || andrewID.indexOf('\n') >= 0 || andrewID.indexOf('\r') >= 0) {
+                throw new IllegalArgumentException("Andrew ID cannot contain tabs or line breaks.");
+            }
+        }
+        return andrewIDs;
+    }
+
+    /**
+     * Send a request and read the header of its response.
+     * @param line The request line
+     * @return The text after OK in the header, or "" if there is none
+     */
+    private String request(String line) {
+        if (line.indexOf('\n') >= 0 || line.indexOf('\r') >= 0) {
+            throw new IllegalArgumentException("Values cannot contain line breaks.");
+        }
+
+        try {
+            out.write(line);
+            out.write('\n');
+            out.flush();
+            return readHeader();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Read the header line of a response.
+     * @return The text after OK in the header, or "" if there is none
+     * @throws IOException if the connection fails
+     */
+    private String readHeader() throws IOException {
+        String header = in.readLine();
+
+        if (header == null) {
+            throw new IOException("Connection closed by the server.");
+        }
+
+        if (header.startsWith("ERR ")) {
+            String message = header.substring(4);
+
+            // The server sends the message of the exception, so the two known rejections get their own type back
+            if (message.equals("Student already exists.")) {
+                throw new DuplicateStudentException();
+            }
+            if (message.equals("Student does not exist.")) {
+                throw new MissingStudentException();
+            }
+            throw new IllegalArgumentException(message);
+        }
+
+        return header.length() > 3 ? header.substring(3) : "";
+    }
+
+    /**
+     * Read and discard the response to a GET or MGET request.
+     * @throws IOException if the connection fails
+     */
+    private void skipResponse() throws IOException {
+        String header = in.readLine();
+
+        if (header == null) {
+            throw new IOException("Connection closed by the server.");
+        }
+
+        if (header.startsWith("OK ")) {
+            int count = Integer.parseInt(header.substring(3));
+
+            for (int i = 0; i < count; i++) {
+                in.readLine();
+            }
+        }
+    }
+
+    /**
+     * Read the student lines that follow a response header.
+     * @param header The text after OK in the header, which is the number of students
+     * @return A read-only list of the students
+     */
+    private List<Student> readStudents(String header) {
+        int count = Integer.parseInt(header);
+        List<Student> students = new ArrayList<>(count);
+
+        try {
+            for (int i = 0; i < count; i++) {
+                students.add(toStudent(in.readLine()));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return Collections.unmodifiableList(students);
+    }
+
+    /**
+     * Create a student from a student line of a response.
+     * @param line The line
+     * @return The student
+     * @throws IOException if the connection was closed before the line
+     */
+    static Student toStudent(String line) throws IOException {
+        if (line == null) {
+            throw new IOException("Connection closed by the server.");
+        }
+
+        return DirectoryServer.toStudent(line.split("\t", -1));
+    }
+}
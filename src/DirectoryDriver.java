@@ -1,635 +1,1663 @@
-import java.util.List;
-
-import java.awt.BorderLayout;
-import java.awt.FlowLayout;
-import java.awt.Font;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
-
-import javax.swing.BorderFactory;
-import javax.swing.BoxLayout;
-import javax.swing.JButton;
-import javax.swing.JFrame;
-import javax.swing.JLabel;
-import javax.swing.JOptionPane;
-import javax.swing.JPanel;
-import javax.swing.JScrollPane;
-import javax.swing.JTextArea;
-import javax.swing.JTextField;
-import javax.swing.SwingConstants;
-
-/**
- * This is the driver class that displays the GUI of the program.
- * @author: Zijie Huang
- * @date: 09/29/2023
- */
-public class DirectoryDriver extends JFrame {
-    /**
-     * The directory that stores the students' info.
-     */
-    private Directory directory;
-
-    /**
-     * The add button that are used in the GUI.
-     */
-    private JButton addButton;
-
-    /**
-     * The delete button that are used in the GUI.
-     */
-    private JButton deleteButton;
-
-    /**
-     * The search by andrewID button that are used in the GUI.
-     */
-    private JButton byAndrewIDButton;
-
-    /**
-     * The search by first name button that are used in the GUI.
-     */
-    private JButton byFirstNameButton;
-
-    /**
-     * The search by last name button that are used in the GUI.
-     */
-    private JButton byLastNameButton;
-
-    /**
-     * The result area that are used in the GUI.
-     */
-    private JTextArea resultArea;
-
-    /**
-     * The font that are used in the GUI.
-     */
-    private Font textFont;
-
-    /**
-     * The andrewID add fields that are used in the GUI.
-     */
-    private JTextField andrewIDFieldAdd;
-
-    /**
-     * The andrewID delete fields that are used in the GUI.
-     */
-    private JTextField andrewIDFieldDelete;
-
-    /**
-     * The first name fields that are used in the GUI.
-     */
-    private JTextField firstNameField;
-
-    /**
-     * The last name fields that are used in the GUI.
-     */
-    private JTextField lastNameField;
-
-    /**
-     * The phone number fields that are used in the GUI.
-     */
-    private JTextField phoneNumberField;
-
-    /**
-     * The search fields that are used in the GUI.
-     */
-    private JTextField searchField;
-
-    /**
-     * Constructor take a CSV file name as a parameter and load the directory from the CSV file.
-     * @param fn The CSV file name
-     */
-    public DirectoryDriver(String fn) {
-        directory = new Directory(fn);
-
-        // Initialize the GUI
-        initGUI();
-    }
-
-    /**
-     * Constructor take no parameters and create an empty directory.
-     */
-    public DirectoryDriver() {
-        directory = new Directory();
-
-        // Initialize the GUI
-        initGUI();
-    }
-
-    /**
-     * This is the GUI method that displays the GUI of the program.
-     */
-    private void initGUI() {
-
-        // Set the title and size of the frame
-        setTitle("CMU Student Directory");
-
-        // Font setting
-        textFont = new Font("Arial", Font.BOLD, 16);
-
-        // Add function panel
-        JPanel addStudentPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
-
-        // Text fields initialization
-        andrewIDFieldAdd = new JTextField(8);
-        firstNameField = new JTextField(8);
-        lastNameField = new JTextField(8);
-        phoneNumberField = new JTextField(10);
-
-        // Button initialization
-        addButton = new JButton("ADD");
-
-        // Add the labels and text fields to the addStudent panel
-        addStudentPanel.add(new JLabel("First Name:", SwingConstants.LEFT));
-        addStudentPanel.add(firstNameField);
-        addStudentPanel.add(new JLabel("Last Name:", SwingConstants.LEFT));
-        addStudentPanel.add(lastNameField);
-        addStudentPanel.add(new JLabel("Andrew ID:", SwingConstants.LEFT));
-        addStudentPanel.add(andrewIDFieldAdd);
-        addStudentPanel.add(new JLabel("Phone Number:", SwingConstants.LEFT));
-        addStudentPanel.add(phoneNumberField);
-        addStudentPanel.add(addButton);
-
-        // Add a titled border to the addStudent panel
-        addStudentPanel.setBorder(BorderFactory.createTitledBorder("Add Student"));
-
-        // Delete function panel
-        JPanel deleteStudentPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
-
-        // Text fields initialization
-        andrewIDFieldDelete = new JTextField(8);
-
-        // Button initialization
-        deleteButton = new JButton("DELETE");
-
-        // Add the labels and text fields to the deleteStudent panel
-        deleteStudentPanel.add(new JLabel("Andrew ID:", SwingConstants.LEFT));
-        deleteStudentPanel.add(andrewIDFieldDelete);
-        deleteStudentPanel.add(deleteButton);
-
-        // Add a titled border to the deleteStudent panel
-        deleteStudentPanel.setBorder(BorderFactory.createTitledBorder("Delete Student"));
-
-        // Search function panel
-        JPanel searchPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
-
-        // Search field initialization
-        searchField = new JTextField(20);
-
-        // Type enter to search by andrewID
-        searchField.addActionListener(new ActionListener() {
-            @Override
-            public void actionPerformed(ActionEvent e) {
-                byAndrewIDButton.doClick();
-            }
-        });
-
-        // Button initialization
-        byAndrewIDButton = new JButton("By Andrew ID");
-        byFirstNameButton = new JButton("By First Name");
-        byLastNameButton = new JButton("By Last Name");
-
-        // Add the labels and text fields to the search panel
-        searchPanel.add(new JLabel("Search:", SwingConstants.LEFT));
-        searchPanel.add(searchField);
-        searchPanel.add(byAndrewIDButton);
-        searchPanel.add(byFirstNameButton);
-        searchPanel.add(byLastNameButton);
-
-        // Add a titled border to the search panel
-        searchPanel.setBorder(BorderFactory.createTitledBorder("Search Student(s)"));
-
-        // Result area panel
-        resultArea = new JTextArea(50, 10);
-        resultArea.setFont(textFont);
-        resultArea.setEditable(false);
-        JScrollPane scrollPane = new JScrollPane(resultArea);
-
-        // Add a titled border to the result panel
-        scrollPane.setBorder(BorderFactory.createTitledBorder("Result"));
-
-        // Main panel
-        JPanel mainPanel = new JPanel();
-        mainPanel.setLayout(new BoxLayout(mainPanel, BoxLayout.Y_AXIS));
-        mainPanel.add(addStudentPanel);
-        mainPanel.add(deleteStudentPanel);
-        mainPanel.add(searchPanel);
-
-        // Add the main panel and scroll pane to the frame in the correct locations
-        this.add(mainPanel, BorderLayout.NORTH);
-        this.add(scrollPane, BorderLayout.CENTER);
-
-        // Create a new button listener
-        ButtonListener listener = new ButtonListener();
-
-        // Add listeners
-        addButton.addActionListener(listener);
-        deleteButton.addActionListener(listener);
-        byAndrewIDButton.addActionListener(listener);
-        byFirstNameButton.addActionListener(listener);
-        byLastNameButton.addActionListener(listener);
-
-        // Set the properties of the frame
-        setSize(800, 800);
-        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        setResizable(false);
-        setVisible(true);
-    }
-
-    /**
-     * Clear the text fields.
-     * @param source The source of the button
-     */
-    private void clearTextFields(JButton source) {
-        if (source == addButton) {
-            firstNameField.setText("");
-            lastNameField.setText("");
-            andrewIDFieldAdd.setText("");
-            phoneNumberField.setText("");
-            return;
-        }
-
-        if (source == deleteButton) {
-            andrewIDFieldDelete.setText("");
-            return;
-        }
-
-        if (source == byAndrewIDButton || source == byFirstNameButton || source == byLastNameButton) {
-            searchField.setText("");
-            return;
-        }
-    }
-
-    /**
-     * Print out the student's info in the result area.
-     * @param student The student that will be printed
-     * @param students The list of students that will be printed
-     */
-    private void printStudentInfo(Student student, List<Student> students) {
-
-        if (student != null) {
-            resultArea.append(student.toString() + "\n");
-            return;
-        }
-
-        if (students != null) {
-
-            for (Student s : students) {
-                resultArea.append(s.toString() + "\n");
-            }
-        }
-    }
-
-    /**
-     * Handle the add student error message by checking the content of the text fields.
-     * @param s The student that will be added
-     * @return True if the content of the text fields are valid, false otherwise
-     */
-    private boolean checkAddTextFields(Student s) {
-        // Check if the first name is empty
-        if (s.getFirstName().equals("")) {
-            // pops up a error dialog box
-            JOptionPane.showMessageDialog(null, "The first name cannot be empty.",
-            "Error", JOptionPane.ERROR_MESSAGE);
-
-            // clear the result area
-            resultArea.setText("");
-
-            // update the result area with the error message
-            resultArea.append("The user entered an empty value for the first name.\n");
-
-            return false;
-        }
-
-        // Check if the last name is empty
-        if (s.getLastName().equals("")) {
-            JOptionPane.showMessageDialog(null, "The last name cannot be empty.",
-            "Error", JOptionPane.ERROR_MESSAGE);
-
-            // clear the result area
-            resultArea.setText("");
-
-            // update the result area with the error message
-            resultArea.append("The user entered an empty value for the last name.\n");
-
-            return false;
-        }
-
-        // Check if the Andrew ID is empty
-        if (s.getAndrewId().equals("")) {
-            JOptionPane.showMessageDialog(null, "The Andrew ID cannot be empty.",
-            "Error", JOptionPane.ERROR_MESSAGE);
-
-            // clear the result area
-            resultArea.setText("");
-
-            // update the result area with the error message
-            resultArea.append("The user entered an empty value for the Andrew ID.\n");
-
-            return false;
-        }
-
-        // Check if the andrew ID already exists
-        if (directory.searchByAndrewId(s.getAndrewId()) != null) {
-            JOptionPane.showMessageDialog(null, "The Andrew ID: " + s.getAndrewId() + " already exists.",
-            "Error", JOptionPane.ERROR_MESSAGE);
-
-            // clear the result area
-            resultArea.setText("");
-
-            // update the result area with the error message
-            resultArea.append("The Andrew ID: " + s.getAndrewId() + " already exists.\n");
-
-            return false;
-        }
-
-        // Check if the digits of the phone number is 10 or empty
-        if (s.getPhoneNumber() == null) {
-            JOptionPane.showMessageDialog(null, "The phone number must be 10 digits.",
-            "Error", JOptionPane.ERROR_MESSAGE);
-
-            // clear the result area
-            resultArea.setText("");
-
-            // update the result area with the error message
-            resultArea.append("The phone number must be 10 digits.\n");
-
-            return false;
-        }
-
-        return true;
-    }
-
-    /**
-     * Handle the delete student error message by checking the content of the text fields.
-     * @param andrewID The andrew ID of the student that will be deleted
-     * @return True if the content of the text fields are valid, false otherwise
-     */
-    private boolean checkDeleteTextFields(String andrewID) {
-        // Check if the Andrew ID is empty
-        if (andrewID.equals("")) {
-            // pops up a error dialog box
-            JOptionPane.showMessageDialog(null, "The Andrew ID cannot be empty.",
-            "Error", JOptionPane.ERROR_MESSAGE);
-            return false;
-        }
-
-        // Check if the andrew ID already exists
-        if (directory.searchByAndrewId(andrewID) == null) {
-            JOptionPane.showMessageDialog(null, "The Andrew ID: " + andrewID + " does not exist.",
-            "Error", JOptionPane.ERROR_MESSAGE);
-
-            // update the result area with the error message
-            resultArea.append("The student with Andrew ID: " + andrewID + " does not exist.\n");
-
-            return false;
-        }
-
-        return true;
-    }
-
-    /**
-     * Handle the search student error message by checking the content of the text fields.
-     * @param field The search field that will be checked
-     * @param source The source of the button
-     * @return True if the content of the text fields are valid, false otherwise
-     */
-    private boolean checkSearchTextFields(String field, JButton source) {
-        // Check if the search field is empty
-        if (field.equals("")) {
-            // pops up a error dialog box
-            JOptionPane.showMessageDialog(null, "The search field cannot be empty.",
-            "Error", JOptionPane.ERROR_MESSAGE);
-
-            return false;
-        }
-
-        // Check if the andrew ID exists
-        if (source == byAndrewIDButton) {
-            if (directory.searchByAndrewId(field) == null) {
-                JOptionPane.showMessageDialog(null, "The student with Andrew ID: " + field
-                + " does not exist.", "Error", JOptionPane.ERROR_MESSAGE);
-
-                // update the result area with the error message
-                resultArea.append("The student with Andrew ID: " + field + " does not exist.\n");
-
-                return false;
-            }
-        }
-
-        // Check if the first name exists
-        if (source == byFirstNameButton) {
-            if (directory.searchByFirstName(field).isEmpty()) {
-                // pops up a error dialog box
-                JOptionPane.showMessageDialog(null, "The student with first name: " + field
-                + " does not exist.", "Error", JOptionPane.ERROR_MESSAGE);
-
-                // update the result area with the error message
-                resultArea.append("The student with first name: " + field + " does not exist.\n");
-
-                return false;
-            }
-        }
-
-        // Check if the last name exists
-        if (source == byLastNameButton) {
-            if (directory.searchByLastName(field).isEmpty()) {
-                JOptionPane.showMessageDialog(null, "The student with last name: " + field
-                + " does not exist.", "Error", JOptionPane.ERROR_MESSAGE);
-
-                // update the result area with the error message
-                resultArea.append("The student with last name: " + field + " does not exist.\n");
-
-                return false;
-            }
-        }
-
-        return true;
-    }
-
-    /**
-     * Show the success message for adding and deleting students.
-     * @param andrewID The andrew ID of the student that will be added or deleted
-     * @param source The source of the button
-     */
-    private void successMessage(String andrewID, JButton source) {
-        if (source == addButton) {
-            // pops up a success dialog box
-            JOptionPane.showMessageDialog(null, "The student with Andrew ID: " + andrewID
-            + " is added successfully.", "Success", JOptionPane.INFORMATION_MESSAGE);
-
-            // update the result area with the success message
-            resultArea.append("The student with Andrew ID: " + andrewID + " is added successfully.\n");
-            return;
-        }
-
-        if (source == deleteButton) {
-            JOptionPane.showMessageDialog(null, "The student with Andrew ID: " + andrewID
-            + " is deleted successfully.", "Success", JOptionPane.INFORMATION_MESSAGE);
-
-            // update the result area with the success message and the student's info
-            resultArea.append(directory.searchByAndrewId(andrewID).toString() + " is deleted successfully.\n");
-
-            return;
-        }
-    }
-
-    /**
-     * Private nested class that handles button events.
-     * @author: Zijie Huang
-     * @date: 09/29/2023
-     */
-    private class ButtonListener implements ActionListener {
-
-        /**
-         * Override the actionPerformed method.
-         * @param e ActionEvent
-         */
-        @Override
-        public void actionPerformed(ActionEvent e) {
-            // Get the source of the button
-            JButton source = (JButton) e.getSource();
-
-            // If the source is the add button
-            if (source == addButton) {
-                // Get the text from the text fields
-                String firstName = firstNameField.getText();
-                String lastName = lastNameField.getText();
-                String andrewID = andrewIDFieldAdd.getText();
-                String phoneNumber = phoneNumberField.getText();
-
-                // Create a new student
-                Student student = new Student(andrewID);
-
-                // Set the student's info
-                student.setFirstName(firstName);
-                student.setLastName(lastName);
-                student.setPhoneNumber(phoneNumber);
-
-                // Check the content of the text fields
-                if (!checkAddTextFields(student)) {
-                    return;
-                }
-
-                // Clear the text fields
-                clearTextFields(source);
-
-                // pops up a success dialog box
-                successMessage(andrewID, source);
-
-                directory.addStudent(student);
-
-                return;
-            }
-
-            // If the source is the delete button
-            if (source == deleteButton) {
-                // Get the text from the text fields
-                String andrewID = andrewIDFieldDelete.getText();
-
-                // Check the content of the text fields
-                if (!checkDeleteTextFields(andrewID)) {
-                    return;
-                }
-
-                // Clear the text fields
-                clearTextFields(source);
-
-                // pops up a success dialog box
-                successMessage(andrewID, source);
-
-                directory.deleteStudent(andrewID);
-
-                return;
-            }
-
-            // If the source is the byAndrewID button
-            if (source == byAndrewIDButton) {
-                // Get the text from the text fields
-                String andrewID = searchField.getText();
-
-                // Check the content of the text fields
-                if (!checkSearchTextFields(andrewID, source)) {
-                    return;
-                }
-
-                Student student = directory.searchByAndrewId(andrewID);
-
-                // Show the student's info
-                printStudentInfo(student, null);
-
-                // Clear the text fields
-                clearTextFields(source);
-
-                return;
-            }
-
-            // If the source is the byFirstName button
-            if (source == byFirstNameButton) {
-                // Get the text from the text fields
-                String firstName = searchField.getText();
-
-                // Check the content of the text fields
-                if (!checkSearchTextFields(firstName, source)) {
-                    return;
-                }
-
-                List<Student> students = directory.searchByFirstName(firstName);
-
-                // Show the students' info
-                printStudentInfo(null, students);
-
-                // Clear the text fields
-                clearTextFields(source);
-
-                return;
-            }
-
-            // If the source is the byLastName button
-            if (source == byLastNameButton) {
-                // Get the text from the text fields
-                String lastName = searchField.getText();
-
-                // Check the content of the text fields
-                if (!checkSearchTextFields(lastName, source)) {
-                    return;
-                }
-
-                List<Student> students = directory.searchByLastName(lastName);
-
-                // Show the students' info
-                printStudentInfo(null, students);
-
-                // Clear the text fields
-                clearTextFields(source);
-
-                return;
-            }
-
-            // If the source is unknown throw an error
-            throw new AssertionError("Unknown event.");
-        }
-    }
-
-    /**
-     * Main method that will run the program.
-     * It accepts an optional command line parameter with the name of CSV file that will contain initial data must load before
-     * the GUI is displayed. If the command line parameter is not provided, the GUI will be displayed with an empty directory.
-     * @param args Command line arguments
-     */
-    public static void main(String[] args) {
-        // If the command line argument is not provided, display the GUI with an empty directory
-        if (args.length == 0) {
-            new DirectoryDriver();
-            return;
-        }
-
-        // If the command line argument is provided, display the GUI with the directory loaded from the CSV file
-        if (args.length == 1) {
-            new DirectoryDriver(args[0]);
-            return;
-        }
-
-        // If the command line argument is invalid, throw an error
-        throw new AssertionError("Invalid command line argument.");
-    }
-}
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+
+import java.awt.BorderLayout;
+import java.awt.Dimension;
+import java.awt.FlowLayout;
+import java.awt.Font;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+
+import javax.swing.BorderFactory;
+import javax.swing.BoxLayout;
+import javax.swing.JButton;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JMenuItem;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JPopupMenu;
+import javax.swing.JProgressBar;
+import javax.swing.JScrollPane;
+import javax.swing.JSpinner;
+import javax.swing.JTable;
+import javax.swing.JTextField;
+import javax.swing.SwingConstants;
+import javax.swing.SpinnerNumberModel;
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.TableRowSorter;
+
+/**
+ * This is the driver class that displays the GUI of the program.
+ * @author: Zijie Huang
+ * @date: 09/29/2023
+ */
+public class DirectoryDriver extends JFrame {
+    /**
+     * The directory that stores the students' info.
+     */
+    private Directory directory;
+
+    /**
+     * The journal that makes adds and deletes durable, or null if they are only kept in memory.
+     */
+    private DirectoryJournal journal;
+
+    /**
+     * The add button that are used in the GUI.
+     */
+    private JButton addButton;
+
+    /**
+     * The delete button that are used in the GUI.
+     */
+    private JButton deleteButton;
+
+    /**
+     * The search by andrewID button that are used in the GUI.
+     */
+    private JButton byAndrewIDButton;
+
+    /**
+     * The search by first name button that are used in the GUI.
+     */
+    private JButton byFirstNameButton;
+
+    /**
+     * The search by last name button that are used in the GUI.
+     */
+    private JButton byLastNameButton;
+
+    /**
+     * The fuzzy search button that are used in the GUI.
+     */
+    private JButton fuzzyButton;
+
+    /**
+     * The spinner that sets the maximum number of typos a fuzzy search tolerates.
+     */
+    private JSpinner maxEditsSpinner;
+
+    /**
+     * The show all students button that are used in the GUI.
+     */
+    private JButton showAllButton;
+
+    /**
+     * The result table that are used in the GUI.
+     */
+    private JTable resultTable;
+
+    /**
+     * The table model that supplies the rows of the result table.
+     */
+    private StudentTableModel resultModel;
+
+    /**
+     * The message line that shows the outcome of the last action.
+     */
+    private JLabel messageLabel;
+
+    /**
+     * The font that are used in the GUI.
+     */
+    private Font textFont;
+
+    /**
+     * The andrewID add fields that are used in the GUI.
+     */
+    private JTextField andrewIDFieldAdd;
+
+    /**
+     * The andrewID delete fields that are used in the GUI.
+     */
+    private JTextField andrewIDFieldDelete;
+
+    /**
+     * The first name fields that are used in the GUI.
+     */
+    private JTextField firstNameField;
+
+    /**
+     * The last name fields that are used in the GUI.
+     */
+    private JTextField lastNameField;
+
+    /**
+     * The phone number fields that are used in the GUI.
+     */
+    private JTextField phoneNumberField;
+
+    /**
+     * The search fields that are used in the GUI.
+     */
+    private JTextField searchField;
+
+    /**
+     * The popup that shows type-ahead suggestions below the search field.
+     */
+    private JPopupMenu suggestionPopup;
+
+    /**
+     * The maximum number of suggestions taken from each of the Andrew ID, last name and first name indexes.
+     */
+    private static final int SUGGESTION_LIMIT = 5;
+
+    /**
+     * The progress bar that shows how much of the CSV file has been imported.
+     */
+    private JProgressBar importProgressBar;
+
+    /**
+     * The label that shows the number of imported rows.
+     */
+    private JLabel importStatusLabel;
+
+    /**
+     * The number of rows that are handed to the directory at once during an import.
+     */
+    private static final int IMPORT_BATCH_SIZE = 1000;
+
+    /**
+     * The thread that runs every directory operation. Directory is not thread-safe, so the operations run
+     * one at a time in the order they were started, and never on the Event Dispatch Thread.
+     */
+    private final ExecutorService directoryExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "directory");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    /**
+     * The search whose result the GUI is waiting for, or null. Only used on the Event Dispatch Thread.
+     */
+    private DirectoryTask<?> searchTask;
+
+    /**
+     * The lookup of the suggestions the popup is waiting for, or null. Kept apart from searchTask so typing
+     * never cancels a search. Only used on the Event Dispatch Thread.
+     */
+    private DirectoryTask<?> suggestionTask;
+
+    /**
+     * Constructor take a CSV file name as a parameter and load the directory from the CSV file.
+     * The GUI is displayed right away and the rows are imported in the background.
+     * @param fn The CSV file name
+     */
+    public DirectoryDriver(String fn) {
+        directory = new Directory();
+
+        // Initialize the GUI
+        initGUI();
+
+        // Import the CSV file while the GUI is already usable
+        new ImportWorker(fn).execute();
+    }
+
+    /**
+     * Constructor take an already loaded directory, for example one read from a snapshot file.
+     * @param directory The directory to display
+     */
+    public DirectoryDriver(Directory directory) {
+        this.directory = directory;
+
+        // Initialize the GUI
+        initGUI();
+    }
+
+    /**
+     * Constructor take a directory recovered from a journal. Every add and delete is logged to the journal.
+     * @param directory The directory to display
+     * @param journal The journal the directory was recovered from
+     */
+    public DirectoryDriver(Directory directory, DirectoryJournal journal) {
+        this.directory = directory;
+        this.journal = journal;
+
+        // Initialize the GUI
+        initGUI();
+    }
+
+    /**
+     * Constructor take no parameters and create an empty directory.
+     */
+    public DirectoryDriver() {
+        directory = new Directory();
+
+        // Initialize the GUI
+        initGUI();
+    }
+
+    /**
+     * This is the GUI method that displays the GUI of the program.
+     */
+    private void initGUI() {
+
+        // Set the title and size of the frame
+        setTitle("CMU Student Directory");
+
+        // Font setting
+        textFont = new Font("Arial", Font.BOLD, 16);
+
+        // Add function panel
+        JPanel addStudentPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+
+        // Text fields initialization
+        andrewIDFieldAdd = new JTextField(8);
+        firstNameField = new JTextField(8);
+        lastNameField = new JTextField(8);
+        phoneNumberField = new JTextField(10);
+
+        // Button initialization
+        addButton = new JButton("ADD");
+
+        // Add the labels and text fields to the addStudent panel
+        addStudentPanel.add(new JLabel("First Name:", SwingConstants.LEFT));
+        addStudentPanel.add(firstNameField);
+        addStudentPanel.add(new JLabel("Last Name:", SwingConstants.LEFT));
+        addStudentPanel.add(lastNameField);
+        addStudentPanel.add(new JLabel("Andrew ID:", SwingConstants.LEFT));
+        addStudentPanel.add(andrewIDFieldAdd);
+        addStudentPanel.add(new JLabel("Phone Number:", SwingConstants.LEFT));
+        addStudentPanel.add(phoneNumberField);
+        addStudentPanel.add(addButton);
+
+        // Add a titled border to the addStudent panel
+        addStudentPanel.setBorder(BorderFactory.createTitledBorder("Add Student"));
+
+        // Delete function panel
+        JPanel deleteStudentPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+
+        // Text fields initialization
+        andrewIDFieldDelete = new JTextField(8);
+
+        // Button initialization
+        deleteButton = new JButton("DELETE");
+
+        // Add the labels and text fields to the deleteStudent panel
+        deleteStudentPanel.add(new JLabel("Andrew ID:", SwingConstants.LEFT));
+        deleteStudentPanel.add(andrewIDFieldDelete);
+        deleteStudentPanel.add(deleteButton);
+
+        // Add a titled border to the deleteStudent panel
+        deleteStudentPanel.setBorder(BorderFactory.createTitledBorder("Delete Student"));
+
+        // Search function panel
+        JPanel searchPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+
+        // Search field initialization
+        searchField = new JTextField(20);
+
+        // Type enter to search by andrewID
+        searchField.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                byAndrewIDButton.doClick();
+            }
+        });
+
+        // Show type-ahead suggestions while the user types
+        suggestionPopup = new JPopupMenu();
+        suggestionPopup.setFocusable(false);
+
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                updateSuggestions();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                updateSuggestions();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                updateSuggestions();
+            }
+        });
+
+        // Button initialization
+        byAndrewIDButton = new JButton("By Andrew ID");
+        byFirstNameButton = new JButton("By First Name");
+        byLastNameButton = new JButton("By Last Name");
+        fuzzyButton = new JButton("Fuzzy");
+        showAllButton = new JButton("Show All");
+        maxEditsSpinner = new JSpinner(new SpinnerNumberModel(2, 1, 3, 1));
+
+        // Add the labels and text fields to the search panel
+        searchPanel.add(new JLabel("Search:", SwingConstants.LEFT));
+        searchPanel.add(searchField);
+        searchPanel.add(byAndrewIDButton);
+        searchPanel.add(byFirstNameButton);
+        searchPanel.add(byLastNameButton);
+        searchPanel.add(fuzzyButton);
+        searchPanel.add(new JLabel("Max typos:", SwingConstants.LEFT));
+        searchPanel.add(maxEditsSpinner);
+        searchPanel.add(showAllButton);
+
+        // Add a titled border to the search panel
+        searchPanel.setBorder(BorderFactory.createTitledBorder("Search Student(s)"));
+
+        // Result table, only the visible rows are rendered
+        resultModel = new StudentTableModel();
+        resultTable = new JTable(resultModel);
+        resultTable.setFont(textFont);
+        resultTable.setRowHeight(textFont.getSize() + 6);
+        resultTable.setFillsViewportHeight(true);
+
+        // Sortable columns, compared as plain strings instead of with a slower Collator
+        TableRowSorter<StudentTableModel> sorter = new TableRowSorter<>(resultModel);
+        for (int i = 0; i < resultModel.getColumnCount(); i++) {
+            sorter.setComparator(i, Comparator.<String>naturalOrder());
+        }
+        resultTable.setRowSorter(sorter);
+
+        messageLabel = new JLabel(" ", SwingConstants.LEFT);
+        JPanel resultPanel = new JPanel(new BorderLayout());
+        resultPanel.add(messageLabel, BorderLayout.NORTH);
+        resultPanel.add(new JScrollPane(resultTable), BorderLayout.CENTER);
+
+        // Add a titled border to the result panel
+        resultPanel.setBorder(BorderFactory.createTitledBorder("Result"));
+
+        // Import status panel
+        JPanel importPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        importProgressBar = new JProgressBar(0, 100);
+        importProgressBar.setStringPainted(true);
+        importProgressBar.setVisible(false);
+        importStatusLabel = new JLabel("", SwingConstants.LEFT);
+        importPanel.add(importProgressBar);
+        importPanel.add(importStatusLabel);
+
+        // Main panel
+        JPanel mainPanel = new JPanel();
+        mainPanel.setLayout(new BoxLayout(mainPanel, BoxLayout.Y_AXIS));
+        mainPanel.add(addStudentPanel);
+        mainPanel.add(deleteStudentPanel);
+        mainPanel.add(searchPanel);
+
+        // Bottom panel, with the live metrics above the import status if metrics are on
+        JPanel bottomPanel = new JPanel(new BorderLayout());
+        bottomPanel.add(importPanel, BorderLayout.SOUTH);
+        if (DirectoryMetrics.ENABLED) {
+            bottomPanel.add(createStatsPanel(), BorderLayout.CENTER);
+        }
+
+        // Add the main panel and scroll pane to the frame in the correct locations
+        this.add(mainPanel, BorderLayout.NORTH);
+        this.add(resultPanel, BorderLayout.CENTER);
+        this.add(bottomPanel, BorderLayout.SOUTH);
+
+        // Create a new button listener
+        ButtonListener listener = new ButtonListener();
+
+        // Add listeners
+        addButton.addActionListener(listener);
+        deleteButton.addActionListener(listener);
+        byAndrewIDButton.addActionListener(listener);
+        byFirstNameButton.addActionListener(listener);
+        byLastNameButton.addActionListener(listener);
+        fuzzyButton.addActionListener(listener);
+        showAllButton.addActionListener(listener);
+
+        // Set the properties of the frame
+        setSize(800, 800);
+        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        setResizable(false);
+        setVisible(true);
+    }
+
+    /**
+     * Create the panel that shows the metrics of every directory operation, refreshed once a second.
+     * @return The stats panel
+     */
+    private JPanel createStatsPanel() {
+        final StatsTableModel statsModel = new StatsTableModel();
+        JTable statsTable = new JTable(statsModel);
+        statsTable.setFillsViewportHeight(true);
+
+        JScrollPane statsScrollPane = new JScrollPane(statsTable);
+        statsScrollPane.setPreferredSize(new Dimension(780, 150));
+
+        JPanel statsPanel = new JPanel(new BorderLayout());
+        statsPanel.add(statsScrollPane, BorderLayout.CENTER);
+        statsPanel.setBorder(BorderFactory.createTitledBorder("Stats (latencies in microseconds)"));
+
+        // The timer runs on the Event Dispatch Thread, and the snapshots only read atomic counters
+        new Timer(1000, new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                statsModel.refresh();
+            }
+        }).start();
+
+        return statsPanel;
+    }
+
+    /**
+     * Clear the text fields.
+     * @param source The source of the button
+     */
+    private void clearTextFields(JButton source) {
+        if (source == addButton) {
+            firstNameField.setText("");
+            lastNameField.setText("");
+            andrewIDFieldAdd.setText("");
+            phoneNumberField.setText("");
+            return;
+        }
+
+        if (source == deleteButton) {
+            andrewIDFieldDelete.setText("");
+            return;
+        }
+
+        if (source == byAndrewIDButton || source == byFirstNameButton || source == byLastNameButton
+            || source == fuzzyButton) {
+            searchField.setText("");
+            return;
+        }
+    }
+
+    /**
+     * Show the students whose Andrew ID, last name or first name starts with the text of the search field.
+     * Choosing a suggestion searches for that student by Andrew ID.
+     */
+    private void updateSuggestions() {
+        suggestionPopup.setVisible(false);
+        suggestionPopup.removeAll();
+        cancelSuggestions();
+
+        final String prefix = searchField.getText();
+
+        if (prefix.equals("") || !searchField.isShowing()) {
+            return;
+        }
+
+        suggestionTask = new DirectoryTask<List<Student>>() {
+            @Override
+            protected List<Student> doInBackground() {
+                List<Student> suggestions = new ArrayList<>();
+                addSuggestions(suggestions, directory.searchByAndrewIdPrefix(prefix, SUGGESTION_LIMIT));
+                addSuggestions(suggestions, directory.searchByLastNamePrefix(prefix, SUGGESTION_LIMIT));
+                addSuggestions(suggestions, directory.searchByFirstNamePrefix(prefix, SUGGESTION_LIMIT));
+                return suggestions;
+            }
+
+            @Override
+            protected void succeeded(List<Student> suggestions) {
+                showSuggestions(suggestions);
+            }
+        };
+        directoryExecutor.execute(suggestionTask);
+    }
+
+    /**
+     * Cancel the lookup of the suggestions if it has not started yet, and ignore its result if it has.
+     */
+    private void cancelSuggestions() {
+        if (suggestionTask != null) {
+            suggestionTask.superseded = true;
+            suggestionTask.cancel(false);
+            suggestionTask = null;
+        }
+    }
+
+    /**
+     * Show suggestions in the popup below the search field.
+     * @param suggestions The suggested students
+     */
+    private void showSuggestions(List<Student> suggestions) {
+        for (final Student student : suggestions) {
+            JMenuItem item = new JMenuItem(student.toString());
+
+            item.addActionListener(new ActionListener() {
+                @Override
+                public void actionPerformed(ActionEvent e) {
+                    searchField.setText(student.getAndrewId());
+                    byAndrewIDButton.doClick();
+                }
+            });
+
+            suggestionPopup.add(item);
+        }
+
+        if (!suggestions.isEmpty()) {
+            suggestionPopup.show(searchField, 0, searchField.getHeight());
+            searchField.requestFocusInWindow();
+        }
+    }
+
+    /**
+     * Add the students that are not suggested yet to the list of suggestions.
+     * @param suggestions The suggestions so far
+     * @param students The students to add
+     */
+    private void addSuggestions(List<Student> suggestions, List<Student> students) {
+        for (Student student : students) {
+            if (!suggestions.contains(student)) {
+                suggestions.add(student);
+            }
+        }
+    }
+
+    /**
+     * Run an add or delete on the directory thread.
+     * @param task The operation
+     */
+    private void runUpdate(DirectoryTask<?> task) {
+        directoryExecutor.execute(task);
+    }
+
+    /**
+     * Compact the journal once its log has grown large enough. Runs on the directory thread, so the copy of
+     * the students matches the moment the new log starts.
+     */
+    private void compactJournal() {
+        if (!journal.needsCompaction()) {
+            return;
+        }
+
+        try {
+            journal.compact(directory.getAllStudents());
+        } catch (IOException e) {
+            System.out.println("Error compacting journal: " + e);
+        }
+    }
+
+    /**
+     * Run a search on the directory thread. The search replaces the one the GUI is waiting for: the old one
+     * is cancelled if it has not started yet, and its result is ignored if it has.
+     * @param task The search
+     */
+    private void runSearch(DirectoryTask<?> task) {
+        if (searchTask != null) {
+            searchTask.superseded = true;
+            searchTask.cancel(false);
+        }
+
+        searchTask = task;
+        directoryExecutor.execute(task);
+    }
+
+    /**
+     * Show the student's info in the result table.
+     * The table reads the rows straight from the list, so the list is not copied.
+     * @param student The student that will be shown
+     * @param students The list of students that will be shown
+     */
+    private void printStudentInfo(Student student, List<Student> students) {
+
+        if (student != null) {
+            resultModel.setStudents(Collections.singletonList(student));
+            messageLabel.setText("Found 1 student.");
+            return;
+        }
+
+        if (students != null) {
+            resultModel.setStudents(students);
+            messageLabel.setText("Found " + students.size() + " student(s).");
+        }
+    }
+
+    /**
+     * Handle the add student error message by checking the content of the text fields.
+     * @param s The student that will be added
+     * @return True if the content of the text fields are valid, false otherwise
+     */
+    private boolean checkAddTextFields(Student s) {
+        // Check if the first name is empty
+        if (s.getFirstName().equals("")) {
+            // pops up a error dialog box
+            JOptionPane.showMessageDialog(null, "The first name cannot be empty.",
+            "Error", JOptionPane.ERROR_MESSAGE);
+
+            // update the message line with the error message
+            messageLabel.setText("The user entered an empty value for the first name.");
+
+            return false;
+        }
+
+        // Check if the last name is empty
+        if (s.getLastName().equals("")) {
+            JOptionPane.showMessageDialog(null, "The last name cannot be empty.",
+            "Error", JOptionPane.ERROR_MESSAGE);
+
+            // update the message line with the error message
+            messageLabel.setText("The user entered an empty value for the last name.");
+
+            return false;
+        }
+
+        // Check if the Andrew ID is empty
+        if (s.getAndrewId().equals("")) {
+            JOptionPane.showMessageDialog(null, "The Andrew ID cannot be empty.",
+            "Error", JOptionPane.ERROR_MESSAGE);
+
+            // update the message line with the error message
+            messageLabel.setText("The user entered an empty value for the Andrew ID.");
+
+            return false;
+        }
+
+        // Check if the digits of the phone number is 10 or empty
+        if (s.getPhoneNumber() == null) {
+            JOptionPane.showMessageDialog(null, "The phone number must be 10 digits.",
+            "Error", JOptionPane.ERROR_MESSAGE);
+
+            // update the message line with the error message
+            messageLabel.setText("The phone number must be 10 digits.");
+
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Handle the delete student error message by checking the content of the text fields.
+     * @param andrewID The andrew ID of the student that will be deleted
+     * @return True if the content of the text fields are valid, false otherwise
+     */
+    private boolean checkDeleteTextFields(String andrewID) {
+        // Check if the Andrew ID is empty
+        if (andrewID.equals("")) {
+            // pops up a error dialog box
+            JOptionPane.showMessageDialog(null, "The Andrew ID cannot be empty.",
+            "Error", JOptionPane.ERROR_MESSAGE);
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Show the error message for a student that cannot be added because its Andrew ID already exists.
+     * @param andrewID The andrew ID of the student
+     */
+    private void duplicateMessage(String andrewID) {
+        JOptionPane.showMessageDialog(null, "The Andrew ID: " + andrewID + " already exists.",
+        "Error", JOptionPane.ERROR_MESSAGE);
+
+        // update the message line with the error message
+        messageLabel.setText("The Andrew ID: " + andrewID + " already exists.");
+    }
+
+    /**
+     * Show the error message for a student that cannot be deleted because its Andrew ID does not exist.
+     * @param andrewID The andrew ID of the student
+     */
+    private void missingMessage(String andrewID) {
+        JOptionPane.showMessageDialog(null, "The Andrew ID: " + andrewID + " does not exist.",
+        "Error", JOptionPane.ERROR_MESSAGE);
+
+        // update the message line with the error message
+        messageLabel.setText("The student with Andrew ID: " + andrewID + " does not exist.");
+    }
+
+    /**
+     * Handle the search student error message by checking the content of the text fields.
+     * @param field The search field that will be checked
+     * @return True if the content of the text fields are valid, false otherwise
+     */
+    private boolean checkSearchTextFields(String field) {
+        // Check if the search field is empty
+        if (field.equals("")) {
+            // pops up a error dialog box
+            JOptionPane.showMessageDialog(null, "The search field cannot be empty.",
+            "Error", JOptionPane.ERROR_MESSAGE);
+
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Show the error message for a search that found no student.
+     * @param field The search text
+     * @param source The source of the button
+     */
+    private void notFoundMessage(String field, JButton source) {
+        // No student has the andrew ID
+        if (source == byAndrewIDButton) {
+            JOptionPane.showMessageDialog(null, "The student with Andrew ID: " + field
+            + " does not exist.", "Error", JOptionPane.ERROR_MESSAGE);
+
+            // update the message line with the error message
+            messageLabel.setText("The student with Andrew ID: " + field + " does not exist.");
+
+            return;
+        }
+
+        // No student has the first name
+        if (source == byFirstNameButton) {
+            // pops up a error dialog box
+            JOptionPane.showMessageDialog(null, "The student with first name: " + field
+            + " does not exist.", "Error", JOptionPane.ERROR_MESSAGE);
+
+            // update the message line with the error message
+            messageLabel.setText("The student with first name: " + field + " does not exist.");
+
+            return;
+        }
+
+        // No student has the last name
+        if (source == byLastNameButton) {
+            JOptionPane.showMessageDialog(null, "The student with last name: " + field
+            + " does not exist.", "Error", JOptionPane.ERROR_MESSAGE);
+
+            // update the message line with the error message
+            messageLabel.setText("The student with last name: " + field + " does not exist.");
+
+            return;
+        }
+
+        // No student has a name close to the search text
+        if (source == fuzzyButton) {
+            JOptionPane.showMessageDialog(null, "No student has a name close to: " + field + ".",
+            "Error", JOptionPane.ERROR_MESSAGE);
+
+            // update the message line with the error message
+            messageLabel.setText("No student has a name close to: " + field + ".");
+
+            return;
+        }
+    }
+
+    /**
+     * Get the maximum number of typos chosen for fuzzy searches.
+     * @return The maximum edit distance
+     */
+    private int maxEdits() {
+        return (Integer) maxEditsSpinner.getValue();
+    }
+
+    /**
+     * Show the success message for adding and deleting students.
+     * @param student The student that was added or deleted
+     * @param source The source of the button
+     */
+    private void successMessage(Student student, JButton source) {
+        String andrewID = student.getAndrewId();
+
+        if (source == addButton) {
+            // pops up a success dialog box
+            JOptionPane.showMessageDialog(null, "The student with Andrew ID: " + andrewID
+            + " is added successfully.", "Success", JOptionPane.INFORMATION_MESSAGE);
+
+            // update the message line with the success message
+            messageLabel.setText("The student with Andrew ID: " + andrewID + " is added successfully.");
+            return;
+        }
+
+        if (source == deleteButton) {
+            JOptionPane.showMessageDialog(null, "The student with Andrew ID: " + andrewID
+            + " is deleted successfully.", "Success", JOptionPane.INFORMATION_MESSAGE);
+
+            // update the message line with the success message and the student's info
+            messageLabel.setText(student.toString() + " is deleted successfully.");
+
+            return;
+        }
+    }
+
+    /**
+     * Private nested class that handles button events.
+     * @author: Zijie Huang
+     * @date: 09/29/2023
+     */
+    private class ButtonListener implements ActionListener {
+
+        /**
+         * Override the actionPerformed method.
+         * @param e ActionEvent
+         */
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            // Get the source of the button
+            JButton source = (JButton) e.getSource();
+
+            // If the source is the add button
+            if (source == addButton) {
+                // Get the text from the text fields
+                String firstName = firstNameField.getText();
+                String lastName = lastNameField.getText();
+                String andrewID = andrewIDFieldAdd.getText();
+                String phoneNumber = phoneNumberField.getText();
+
+                // Create a new student with the student's info
+                final Student student = new Student(andrewID, firstName, lastName, phoneNumber);
+
+                // Check the content of the text fields
+                if (!checkAddTextFields(student)) {
+                    return;
+                }
+
+                runUpdate(new DirectoryTask<Student>() {
+                    @Override
+                    protected Student doInBackground() throws IOException {
+                        // A duplicate Andrew ID is reported with its own message, like a missing one on delete
+                        try {
+                            directory.addStudent(student);
+                        } catch (DuplicateStudentException e) {
+                            return null;
+                        }
+
+                        if (journal != null) {
+                            try {
+                                journal.logAdd(student);
+                            } catch (IOException | RuntimeException e) {
+                                // Undo the add, so the directory does not show a change that is lost on restart
+                                directory.deleteStudent(student.getAndrewId());
+                                throw e;
+                            }
+                            compactJournal();
+                        }
+                        return student;
+                    }
+
+                    @Override
+                    protected void succeeded(Student added) {
+                        if (added == null) {
+                            duplicateMessage(student.getAndrewId());
+                            return;
+                        }
+
+                        // Clear the text fields
+                        clearTextFields(addButton);
+
+                        // pops up a success dialog box
+                        successMessage(added, addButton);
+                    }
+                });
+
+                return;
+            }
+
+            // If the source is the delete button
+            if (source == deleteButton) {
+                // Get the text from the text fields
+                final String andrewID = andrewIDFieldDelete.getText();
+
+                // Check the content of the text fields
+                if (!checkDeleteTextFields(andrewID)) {
+                    return;
+                }
+
+                runUpdate(new DirectoryTask<Student>() {
+                    @Override
+                    protected Student doInBackground() throws IOException {
+                        Student deleted;
+
+                        try {
+                            deleted = directory.deleteStudent(andrewID);
+                        } catch (MissingStudentException e) {
+                            return null;
+                        }
+
+                        if (journal != null) {
+                            try {
+                                journal.logDelete(andrewID);
+                            } catch (IOException | RuntimeException e) {
+                                directory.addStudent(deleted);
+                                throw e;
+                            }
+                            compactJournal();
+                        }
+                        return deleted;
+                    }
+
+                    @Override
+                    protected void succeeded(Student deleted) {
+                        if (deleted == null) {
+                            missingMessage(andrewID);
+                            return;
+                        }
+
+                        // Clear the text fields
+                        clearTextFields(deleteButton);
+
+                        // pops up a success dialog box
+                        successMessage(deleted, deleteButton);
+
+                        // The result table may show the student
+                        resultModel.removeStudent(deleted);
+                    }
+                });
+
+                return;
+            }
+
+            // If the source is the byAndrewID button
+            if (source == byAndrewIDButton) {
+                // Get the text from the text fields
+                final String andrewID = searchField.getText();
+
+                // Check the content of the text fields
+                if (!checkSearchTextFields(andrewID)) {
+                    return;
+                }
+
+                runSearch(new DirectoryTask<Student>() {
+                    @Override
+                    protected Student doInBackground() {
+                        return directory.searchByAndrewId(andrewID);
+                    }
+
+                    @Override
+                    protected void succeeded(Student student) {
+                        if (student == null) {
+                            notFoundMessage(andrewID, byAndrewIDButton);
+                            return;
+                        }
+
+                        // Show the student's info
+                        printStudentInfo(student, null);
+                    }
+                });
+
+                // Clear the text fields
+                clearTextFields(source);
+
+                return;
+            }
+
+            // If the source is the byFirstName button
+            if (source == byFirstNameButton) {
+                // Get the text from the text fields
+                String firstName = searchField.getText();
+
+                // Check the content of the text fields
+                if (!checkSearchTextFields(firstName)) {
+                    return;
+                }
+
+                runSearch(new SearchTask(firstName, source) {
+                    @Override
+                    protected List<Student> doInBackground() {
+                        return List.copyOf(directory.searchByNormalizedFirstName(field));
+                    }
+                });
+
+                // Clear the text fields
+                clearTextFields(source);
+
+                return;
+            }
+
+            // If the source is the byLastName button
+            if (source == byLastNameButton) {
+                // Get the text from the text fields
+                String lastName = searchField.getText();
+
+                // Check the content of the text fields
+                if (!checkSearchTextFields(lastName)) {
+                    return;
+                }
+
+                runSearch(new SearchTask(lastName, source) {
+                    @Override
+                    protected List<Student> doInBackground() {
+                        return List.copyOf(directory.searchByNormalizedLastName(field));
+                    }
+                });
+
+                // Clear the text fields
+                clearTextFields(source);
+
+                return;
+            }
+
+            // If the source is the fuzzy button
+            if (source == fuzzyButton) {
+                // Get the text from the text fields
+                String name = searchField.getText();
+
+                // Check the content of the text fields
+                if (!checkSearchTextFields(name)) {
+                    return;
+                }
+
+                final int maxEdits = maxEdits();
+
+                // The students are shown closest names first
+                runSearch(new SearchTask(name, source) {
+                    @Override
+                    protected List<Student> doInBackground() {
+                        return directory.fuzzySearchByName(field, maxEdits);
+                    }
+                });
+
+                // Clear the text fields
+                clearTextFields(source);
+
+                return;
+            }
+
+            // If the source is the show all button
+            if (source == showAllButton) {
+                runSearch(new DirectoryTask<List<Student>>() {
+                    @Override
+                    protected List<Student> doInBackground() {
+                        return directory.getAllStudents();
+                    }
+
+                    @Override
+                    protected void succeeded(List<Student> students) {
+                        // Show the students' info
+                        printStudentInfo(null, students);
+                        messageLabel.setText("Showing all " + students.size() + " students.");
+                    }
+                });
+
+                return;
+            }
+
+            // If the source is unknown throw an error
+            throw new AssertionError("Unknown event.");
+        }
+    }
+
+    /**
+     * Private nested class that runs a directory operation on the directory thread and hands its result
+     * to the Event Dispatch Thread. The result must not share any state with the directory.
+     * @author: Zijie Huang
+     * @date: 10/18/2026
+     */
+    private abstract class DirectoryTask<T> extends SwingWorker<T, Void> {
+        /**
+         * True once another search or lookup of suggestions has replaced this one. Only used on the Event
+         * Dispatch Thread.
+         */
+        private boolean superseded;
+
+        /**
+         * Show the result of the operation. Called on the Event Dispatch Thread.
+         * @param result The result
+         */
+        protected abstract void succeeded(T result);
+
+        /**
+         * Show the error that stopped the operation. Called on the Event Dispatch Thread.
+         * @param e The error thrown by the directory or the journal
+         */
+        protected void failed(Throwable e) {
+            String message = e.getMessage() != null ? e.getMessage() : e.toString();
+
+            JOptionPane.showMessageDialog(null, message, "Error", JOptionPane.ERROR_MESSAGE);
+            messageLabel.setText(message);
+        }
+
+        /**
+         * Show the result unless the operation was cancelled or replaced by a newer one.
+         */
+        @Override
+        protected final void done() {
+            if (isCancelled() || superseded) {
+                return;
+            }
+
+            if (searchTask == this) {
+                searchTask = null;
+            }
+            if (suggestionTask == this) {
+                suggestionTask = null;
+            }
+
+            try {
+                succeeded(get());
+            } catch (ExecutionException e) {
+                System.out.println("Error running directory operation: " + e.getCause());
+                failed(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Private nested class for the searches that show a list of students, or an error if the list is empty.
+     * @author: Zijie Huang
+     * @date: 10/18/2026
+     */
+    private abstract class SearchTask extends DirectoryTask<List<Student>> {
+        /**
+         * The search text.
+         */
+        final String field;
+
+        /**
+         * The button that started the search.
+         */
+        private final JButton source;
+
+        /**
+         * Constructor take the search text and the button that started the search.
+         * @param field The search text
+         * @param source The source of the button
+         */
+        SearchTask(String field, JButton source) {
+            this.field = field;
+            this.source = source;
+        }
+
+        @Override
+        protected void succeeded(List<Student> students) {
+            if (students.isEmpty()) {
+                notFoundMessage(field, source);
+                return;
+            }
+
+            // Show the students' info
+            printStudentInfo(null, students);
+        }
+    }
+
+    /**
+     * Private nested class that supplies the rows of the result table.
+     * It reads the cells straight from a list of students, so only the visible rows are ever read. The list
+     * is a snapshot handed over by the directory thread, so the table never reads the directory itself.
+     * @author: Zijie Huang
+     * @date: 10/18/2026
+     */
+    private static class StudentTableModel extends AbstractTableModel {
+        /**
+         * The version of the serialized form that AbstractTableModel requires.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The column names.
+         */
+        private static final String[] COLUMNS = {"First Name", "Last Name", "Andrew ID", "Phone Number"};
+
+        /**
+         * The students shown in the table.
+         */
+        private List<Student> students = Collections.emptyList();
+
+        /**
+         * Show another list of students.
+         * @param pstudents The students
+         */
+        void setStudents(List<Student> pstudents) {
+            this.students = pstudents;
+            fireTableDataChanged();
+        }
+
+        /**
+         * Stop showing a student that was deleted.
+         * @param student The student, compared by identity
+         */
+        void removeStudent(Student student) {
+            for (int row = 0; row < students.size(); row++) {
+                if (students.get(row) == student) {
+                    List<Student> remaining = new ArrayList<>(students);
+                    remaining.remove(row);
+                    students = remaining;
+                    fireTableRowsDeleted(row, row);
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public int getRowCount() {
+            return students.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Class<?> getColumnClass(int column) {
+            return String.class;
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            Student student = students.get(row);
+
+            switch (column) {
+                case 0:
+                    return student.getFirstName();
+                case 1:
+                    return student.getLastName();
+                case 2:
+                    return student.getAndrewId();
+                default:
+                    return student.getPhoneNumber();
+            }
+        }
+    }
+
+    /**
+     * Private nested class that supplies one row of metrics per directory operation to the stats table.
+     * @author: Zijie Huang
+     * @date: 10/18/2026
+     */
+    private static class StatsTableModel extends AbstractTableModel {
+        /**
+         * The version of the serialized form that AbstractTableModel requires.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The column names.
+         */
+        private static final String[] COLUMNS = {"Operation", "Calls", "Mean", "p50", "p99", "p99.9", "Max",
+            "Mean Size", "Max Size"};
+
+        /**
+         * The snapshots shown in the table.
+         */
+        private List<DirectoryMetrics.Snapshot> snapshots = new ArrayList<>();
+
+        /**
+         * Constructor take the first snapshots.
+         */
+        StatsTableModel() {
+            refresh();
+        }
+
+        /**
+         * Take new snapshots of every operation and show them.
+         */
+        void refresh() {
+            List<DirectoryMetrics.Snapshot> fresh = new ArrayList<>();
+
+            for (DirectoryMetrics.Operation operation : DirectoryMetrics.operations()) {
+                fresh.add(operation.getSnapshot());
+            }
+
+            snapshots = fresh;
+            fireTableRowsUpdated(0, snapshots.size() - 1);
+        }
+
+        @Override
+        public int getRowCount() {
+            return snapshots.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Class<?> getColumnClass(int column) {
+            return String.class;
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            DirectoryMetrics.Snapshot snapshot = snapshots.get(row);
+
+            switch (column) {
+                case 0:
+                    return snapshot.getName();
+                case 1:
+                    return String.format("%,d", snapshot.getCount());
+                case 2:
+                    return micros(snapshot.getMeanNanos());
+                case 3:
+                    return micros(snapshot.getP50Nanos());
+                case 4:
+                    return micros(snapshot.getP99Nanos());
+                case 5:
+                    return micros(snapshot.getP999Nanos());
+                case 6:
+                    return micros(snapshot.getMaxNanos());
+                case 7:
+                    return String.format("%,.1f", snapshot.getMeanResultSize());
+                default:
+                    return String.format("%,d", snapshot.getMaxResultSize());
+            }
+        }
+
+        /**
+         * Format a latency in microseconds.
+         * @param nanos The latency in nanoseconds
+         * @return The latency in microseconds with one decimal
+         */
+        private static String micros(double nanos) {
+            return String.format("%,.1f", nanos / 1000);
+        }
+    }
+
+    /**
+     * Private nested class that imports a CSV file in the background.
+     * The rows are read and parsed on the worker thread and handed to the directory in batches on the
+     * Event Dispatch Thread, so searches see the rows loaded so far.
+     * @author: Zijie Huang
+     * @date: 10/18/2026
+     */
+    private class ImportWorker extends SwingWorker<Integer, Integer> {
+        /**
+         * The CSV file name.
+         */
+        private final String fn;
+
+        /**
+         * The number of rows added to the directory so far.
+         */
+        private int loaded;
+
+        /**
+         * The number of rows skipped because they are malformed or their Andrew ID was already in the directory.
+         */
+        private int skipped;
+
+        /**
+         * Constructor take the CSV file name to import.
+         * @param fn The CSV file name
+         */
+        ImportWorker(String fn) {
+            this.fn = fn;
+
+            importProgressBar.setVisible(true);
+            importStatusLabel.setText("Importing " + fn + "...");
+
+            addPropertyChangeListener(new PropertyChangeListener() {
+                @Override
+                public void propertyChange(PropertyChangeEvent e) {
+                    if ("progress".equals(e.getPropertyName())) {
+                        importProgressBar.setValue((Integer) e.getNewValue());
+                    }
+                }
+            });
+        }
+
+        /**
+         * Read the file and hand the students to the directory thread in batches.
+         * @return The number of rows read
+         * @throws IOException if the file cannot be read
+         * @throws InterruptedException if the import is interrupted while waiting for the directory thread
+         * @throws ExecutionException if a batch cannot be added
+         */
+        @Override
+        protected Integer doInBackground() throws IOException, InterruptedException, ExecutionException {
+            File file = new File(fn);
+            long size = Math.max(file.length(), 1);
+            int rows = 0;
+
+            try (FileInputStream in = new FileInputStream(file);
+                Directory.CSVReader reader = new Directory.CSVReader(new InputStreamReader(in))) {
+                List<Student> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+                String[] values = reader.readCSVLine();
+
+                while (values != null && !isCancelled()) {
+                    try {
+                        batch.add(Directory.toStudent(values));
+                    } catch (IllegalArgumentException e) {
+                        skipped++;
+                    }
+                    rows++;
+
+                    if (batch.size() == IMPORT_BATCH_SIZE) {
+                        addBatch(batch);
+                        batch.clear();
+                        setProgress((int) Math.min(100, in.getChannel().position() * 100 / size));
+                    }
+
+                    values = reader.readCSVLine();
+                }
+
+                addBatch(batch);
+            }
+
+            setProgress(100);
+            return rows;
+        }
+
+        /**
+         * Add a batch of students on the directory thread and wait until it is added, then publish the row count.
+         * @param batch The students
+         * @throws InterruptedException if interrupted while waiting
+         * @throws ExecutionException if the batch cannot be added
+         */
+        private void addBatch(final List<Student> batch) throws InterruptedException, ExecutionException {
+            directoryExecutor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    for (Student student : batch) {
+                        try {
+                            directory.addStudent(student);
+                            loaded++;
+                        } catch (IllegalArgumentException e) {
+                            skipped++;
+                        }
+                    }
+                }
+            }).get();
+
+            publish(loaded);
+        }
+
+        /**
+         * Update the live row count.
+         * @param counts The row counts published since the last call
+         */
+        @Override
+        protected void process(List<Integer> counts) {
+            importStatusLabel.setText("Loaded " + counts.get(counts.size() - 1) + " rows...");
+        }
+
+        /**
+         * Show the final row count or the error that stopped the import.
+         */
+        @Override
+        protected void done() {
+            importProgressBar.setVisible(false);
+
+            try {
+                get();
+                importStatusLabel.setText("Loaded " + loaded + " rows from " + fn
+                + (skipped > 0 ? " (" + skipped + " malformed or duplicate rows skipped)." : "."));
+            } catch (ExecutionException e) {
+                System.out.println("Error reading file: " + e.getCause());
+                importStatusLabel.setText("Error reading file: " + e.getCause().getMessage()
+                + " (" + loaded + " rows loaded).");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Load a directory from a snapshot file, falling back to an empty directory if the file cannot be read.
+     * @param fn The snapshot file name
+     * @return The loaded directory
+     */
+    private static Directory loadSnapshot(String fn) {
+        try {
+            return DirectorySnapshot.load(fn);
+        } catch (IOException e) {
+            System.out.println("Error reading snapshot: " + e);
+            return new Directory();
+        }
+    }
+
+    /**
+     * Serve a directory over TCP on the calling thread until the program exits.
+     * @param address The local address to bind to
+     * @param port The port
+     * @param directory The directory
+     */
+    private static void serve(String address, int port, Directory directory) {
+        try {
+            final DirectoryServer server = new DirectoryServer(directory, InetAddress.getByName(address), port);
+            Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    server.close();
+                }
+            }));
+
+            System.out.println("Serving " + directory.size() + " students on " + server.getAddress().getHostAddress()
+            + " port " + server.getPort() + ".");
+            server.run();
+        } catch (IOException e) {
+            System.out.println("Error running server: " + e);
+        }
+    }
+
+    /**
+     * Recover a directory from a journal folder and display it, logging every later add and delete.
+     * The journal is closed when the program exits, so every logged record is written first.
+     * @param folder The journal folder
+     */
+    private static void openDurable(String folder) {
+        try {
+            final DirectoryJournal journal = new DirectoryJournal(folder);
+            Directory directory = journal.recover();
+
+            if (journal.skippedRecords() > 0) {
+                System.out.println("Skipped " + journal.skippedRecords() + " journal records that did not apply.");
+            }
+
+            Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        journal.close();
+                    } catch (IOException e) {
+                        System.out.println("Error writing journal: " + e);
+                    }
+                }
+            }));
+
+            new DirectoryDriver(directory, journal);
+        } catch (IOException e) {
+            System.out.println("Error reading journal: " + e);
+        }
+    }
+
+    /**
+     * Main method that will run the program.
+     * It accepts an optional command line parameter with the name of CSV file that will contain initial data. The GUI is
+     * displayed right away and the data is imported in the background. If the command line parameter is not provided,
+     * the GUI will be displayed with an empty directory.
+     *
+     * The source of the initial data can also be chosen with a flag:
+     * --csv file imports a CSV file, --snapshot file loads a binary snapshot written by DirectorySnapshot, and
+     * --save-snapshot csvFile snapshotFile converts a CSV file into a snapshot without displaying the GUI, and
+     * --durable folder recovers the directory from a journal folder and keeps every add and delete in it, and
+     * --serve port [csvFile] [--bind address] serves the directory over TCP with DirectoryServer without
+     * displaying the GUI. The server only accepts connections from the same machine unless --bind gives another
+     * local address, such as 0.0.0.0 for every network interface.
+     * Starting the JVM with -Ddirectory.metrics=true records metrics of every directory operation, shows them in
+     * a stats panel and exposes them over JMX.
+     * @param args Command line arguments
+     */
+    public static void main(String[] args) {
+        // If the command line argument is not provided, display the GUI with an empty directory
+        if (args.length == 0) {
+            new DirectoryDriver();
+            return;
+        }
+
+        // If the command line argument is provided, display the GUI with the directory loaded from the CSV file
+        if (args.length == 1) {
+            new DirectoryDriver(args[0]);
+            return;
+        }
+
+        if (args.length == 2 && args[0].equals("--csv")) {
+            new DirectoryDriver(args[1]);
+            return;
+        }
+
+        // Display the GUI with the directory loaded from a snapshot file
+        if (args.length == 2 && args[0].equals("--snapshot")) {
+            new DirectoryDriver(loadSnapshot(args[1]));
+            return;
+        }
+
+        // Display the GUI with the directory recovered from a journal folder
+        if (args.length == 2 && args[0].equals("--durable")) {
+            openDurable(args[1]);
+            return;
+        }
+
+        // Serve the directory over TCP without the GUI
+        if (args.length >= 2 && args.length <= 5 && args[0].equals("--serve")) {
+            int end = args.length;
+            String address = InetAddress.getLoopbackAddress().getHostAddress();
+
+            if (end >= 4 && args[end - 2].equals("--bind")) {
+                address = args[end - 1];
+                end -= 2;
+            }
+
+            int port = -1;
+
+            try {
+                port = Integer.parseInt(args[1]);
+            } catch (NumberFormatException e) {
+                // Reported below with the range check
+            }
+
+            // A --bind without an address is not taken for a file name
+            if (end > 3 || end == 3 && args[2].equals("--bind") || port < 0 || port > 0xFFFF) {
+                System.out.println("Usage: java DirectoryDriver --serve <port 0-65535> [csvFile] "
+                + "[--bind <address>]");
+                return;
+            }
+
+            serve(address, port, end == 3 ? new Directory(args[2]) : new Directory());
+            return;
+        }
+
+        // Convert a CSV file into a snapshot file
+        if (args.length == 3 && args[0].equals("--save-snapshot")) {
+            Directory directory = new Directory(args[1]);
+
+            try {
+                DirectorySnapshot.save(directory, args[2]);
+                System.out.println("Saved " + directory.size() + " students to " + args[2] + ".");
+            } catch (IOException e) {
+                System.out.println("Error writing snapshot: " + e);
+            }
+            return;
+        }
+
+        // If the command line argument is invalid, throw an error
+        throw new AssertionError("Invalid command line argument.");
+    }
+}
@@ -0,0 +1,820 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class makes the adds and deletes of a Directory durable with a write-ahead log.
+ *
+ * The journal keeps its files in one folder: snapshot-N.bin is a DirectorySnapshot of the directory and
+ * journal-N.log holds every add and delete made after that snapshot was taken. Recovery loads the snapshot
+ * with the highest N and replays the logs from N on, in order.
+ *
+ * Logging an add or delete only encodes a record into a memory buffer, so it takes microseconds. A
+ * background thread writes the buffer to the log and forces it to disk; the records logged while it waits
+ * for the disk are written and forced together the next time (group commit). A record is on disk a few
+ * milliseconds after it is logged, and sync waits until it is.
+ *
+ * Every record is its length, the CRC32 of its body and the body. Recovery stops at the first record that is
+ * cut short or fails its checksum, which is what a crash in the middle of a write leaves behind, and
+ * truncates the log there.
+ *
+ * Compaction starts a new log and writes a snapshot of the students at that moment on a background thread.
+ * Once the snapshot has been renamed into place, the older snapshots and logs are deleted.
+ * @author: Zijie Huang
+ * @date: 10/18/2026
+ */
+public class DirectoryJournal implements Closeable {
+    /**
+     * The first byte of an add record.
+     */
+    private static final byte ADD = 'A';
+
+    /**
+     * The first byte of a delete record.
+     */
+    private static final byte DELETE = 'D';
+
+    /**
+     * The size of the length and the checksum in front of every record body.
+     */
+    private static final int HEADER_SIZE = 8;
+
+    /**
+     * The largest record body. A longer length can only come from a damaged log.
+     */
+    private static final int MAX_RECORD_SIZE = 1 << 20;
+
+    /**
+     * The log size at which the constructor with only a folder asks for a compaction.
+     */
+    private static final long DEFAULT_COMPACT_BYTES = 16L << 20;
+
+    /**
+     * The folder with the snapshots and logs.
+     */
+    private final Path folder;
+
+    /**
+     * The log size at which needsCompaction returns true.
+     */
+    private final long compactBytes;
+
+    /**
+     * The record being encoded. Guarded by this.
+     */
+    private final RecordBuffer record = new RecordBuffer();
+
+    /**
+     * The checksum of the record being encoded. Guarded by this.
+     */
+    private final CRC32 crc = new CRC32();
+
+    /**
+     * The records logged but not written yet. Guarded by this.
+     */
+    private RecordBuffer pending = new RecordBuffer();
+
+    /**
+     * The buffer that is being written, swapped with pending by every write. Guarded by ioLock.
+     */
+    private RecordBuffer writing = new RecordBuffer();
+
+    /**
+     * The number of records logged. Guarded by this.
+     */
+    private long logged;
+
+    /**
+     * The number of records forced to disk. Guarded by this.
+     */
+    private long durable;
+
+    /**
+     * The error that stopped the background thread, or null. Guarded by this.
+     */
+    private IOException failure;
+
+    /**
+     * True once close was called. Guarded by this.
+     */
+    private boolean closed;
+
+    /**
+     * Held while writing to the log or replacing it, so records reach the logs in the order they were logged.
+     */
+    private final ReentrantLock ioLock = new ReentrantLock();
+
+    /**
+     * The current log, or null before recovery. Guarded by ioLock.
+     */
+    private FileChannel log;
+
+    /**
+     * The number N of the current log file journal-N.log. Guarded by ioLock.
+     */
+    private long sequence;
+
+    /**
+     * The number of bytes written to the current log.
+     */
+    private volatile long logBytes;
+
+    /**
+     * True while a snapshot is being written.
+     */
+    private volatile boolean compacting;
+
+    /**
+     * The number of records applied by recovery.
+     */
+    private int recoveredRecords;
+
+    /**
+     * The number of intact records recovery skipped because they did not apply to the directory.
+     */
+    private int skippedRecords;
+
+    /**
+     * The background thread that writes the logged records and forces them to disk.
+     */
+    private final Thread writer;
+
+    /**
+     * The background thread that writes snapshots.
+     */
+    private final ExecutorService compactor;
+
+    /**
+     * This constructor uses a folder for the journal files and compacts once a log reaches 16 MB.
+     * @param folderName The folder, created if it does not exist
+     * @throws IOException if the folder cannot be created
+     */
+    public DirectoryJournal(String folderName) throws IOException {
+        this(folderName, DEFAULT_COMPACT_BYTES);
+    }
+
+    /**
+     * This constructor uses a folder for the journal files.
+     * @param folderName The folder, created if it does not exist
+     * @param compactBytes The log size at which needsCompaction returns true
+     * @throws IOException if the folder cannot be created
+     */
+    public DirectoryJournal(String folderName, long compactBytes) throws IOException {
+        if (compactBytes <= 0) {
+            throw new IllegalArgumentException("Compaction size must be positive.");
+        }
+
+        this.folder = Paths.get(folderName);
+        this.compactBytes = compactBytes;
+        Files.createDirectories(folder);
+
+        writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                writeLoop();
+            }
+        }, "journal");
+        writer.setDaemon(true);
+
+        compactor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "journal-compaction");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * This method loads the latest snapshot, replays the logs written after it and opens the log for new
+     * records. It must be called once, before anything is logged.
+     * @return The recovered directory, or an empty directory if the folder has no journal files
+     * @throws IOException if a file cannot be read or a log is damaged anywhere but at its end
+     */
+    public Directory recover() throws IOException {
+        ioLock.lock();
+
+        try {
+            if (log != null) {
+                throw new IllegalStateException("Journal is already recovered.");
+            }
+
+            long snapshot = -1;
+            for (long n : sequences("snapshot-", ".bin")) {
+                snapshot = Math.max(snapshot, n);
+            }
+
+            Directory directory = snapshot < 0 ? new Directory() : DirectorySnapshot.load(snapshotFile(snapshot).toString());
+            sequence = Math.max(snapshot, 0);
+
+            List<Long> logs = sequences("journal-", ".log");
+            for (int i = 0; i < logs.size(); i++) {
+                if (logs.get(i) >= snapshot) {
+                    replay(logFile(logs.get(i)), directory, i == logs.size() - 1);
+                    sequence = logs.get(i);
+                }
+            }
+
+            // Remove what an interrupted compaction left behind
+            deleteBefore(snapshot);
+            for (File file : folderFiles()) {
+                if (file.getName().endsWith(".tmp")) {
+                    Files.deleteIfExists(file.toPath());
+                }
+            }
+
+            log = openLog(sequence);
+            logBytes = log.size();
+            writer.start();
+
+            return directory;
+        } finally {
+            ioLock.unlock();
+        }
+    }
+
+    /**
+     * This method logs an add. Call it after the student was added to the directory.
+     * @param student The added student
+     * @throws IOException if the journal is closed or the background thread could not write earlier records, so
+     * nothing more is logged
+     */
+    public synchronized void logAdd(Student student) throws IOException {
+        record.reset();
+        record.write(ADD);
+        record.writeString(student.getAndrewId());
+        record.writeString(student.getFirstName());
+        record.writeString(student.getLastName());
+        record.writeLong(Student.packPhoneNumber(student.getPhoneNumber()));
+        appendRecord();
+    }
+
+    /**
+     * This method logs a delete. Call it after the student was deleted from the directory.
+     * @param andrewID The Andrew ID of the deleted student
+     * @throws IOException if the journal is closed or the background thread could not write earlier records, so
+     * nothing more is logged
+     */
+    public synchronized void logDelete(String andrewID) throws IOException {
+        record.reset();
+        record.write(DELETE);
+        record.writeString(andrewID);
+        appendRecord();
+    }
+
+    /**
+     * This method waits until every record logged so far is on disk.
+     * @throws IOException if the records cannot be written
+     */
+    public synchronized void sync() throws IOException {
+        long target = logged;
+
+        while (durable < target && failure == null) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the journal.");
+            }
+        }
+
+        if (failure != null) {
+            throw new IOException("Journal cannot be written.", failure);
+        }
+    }
+
+    /**
+     * This method tells whether the current log has grown large enough to be compacted.
+     * @return True if compact should be called
+     */
+    public boolean needsCompaction() {
+        return logBytes >= compactBytes && !compacting;
+    }
+
+    /**
+     * This method starts a new log and writes a snapshot of the students on a background thread.
+     * It must be called on the thread that changes the directory, with a copy of all its students taken
+     * right before, so that every later add or delete goes to the new log.
+     * @param students A copy of all students of the directory
+     * @throws IOException if the new log cannot be created
+     */
+    public void compact(final List<Student> students) throws IOException {
+        if (compacting) {
+            return;
+        }
+
+        compacting = true;
+        final long snapshot;
+
+        try {
+            snapshot = startNewLog();
+        } catch (IOException e) {
+            compacting = false;
+            throw e;
+        }
+
+        compactor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    writeSnapshot(students, snapshot);
+                    deleteBefore(snapshot);
+                } catch (IOException e) {
+                    System.out.println("Error compacting journal: " + e);
+                } finally {
+                    compacting = false;
+                }
+            }
+        });
+    }
+
+    /**
+     * This method writes every logged record to disk, waits for a running compaction and closes the log.
+     * @throws IOException if the records cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            notifyAll();
+        }
+
+        try {
+            if (writer.isAlive()) {
+                writer.join();
+            }
+            compactor.shutdown();
+            compactor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while closing the journal.");
+        }
+
+        ioLock.lock();
+        try {
+            if (log != null) {
+                log.close();
+            }
+        } finally {
+            ioLock.unlock();
+        }
+
+        synchronized (this) {
+            if (failure != null) {
+                throw new IOException("Journal cannot be written.", failure);
+            }
+        }
+    }
+
+    /**
+     * Get the number of records applied by recover.
+     * @return The number of applied records
+     */
+    int recoveredRecords() {
+        return recoveredRecords;
+    }
+
+    /**
+     * Get the number of intact records recover skipped because they did not apply, such as a delete of an
+     * Andrew ID that was not there.
+     * @return The number of skipped records
+     */
+    int skippedRecords() {
+        return skippedRecords;
+    }
+
+    /**
+     * Append the encoded record to the pending records and wake up the writer.
+     * The caller holds the lock of this journal.
+     * @throws IOException if the journal is closed or the writer has stopped, since the record would never
+     * reach the disk
+     */
+    private void appendRecord() throws IOException {
+        if (closed) {
+            throw new IOException("Journal is closed.");
+        }
+
+        if (failure != null) {
+            throw new IOException("Journal cannot be written.", failure);
+        }
+
+        crc.reset();
+        crc.update(record.array(), 0, record.size());
+
+        pending.writeInt(record.size());
+        pending.writeInt((int) crc.getValue());
+        pending.write(record.array(), 0, record.size());
+        logged++;
+
+        notifyAll();
+    }
+
+    /**
+     * Write the pending records until the journal is closed and nothing is pending.
+     */
+    private void writeLoop() {
+        while (true) {
+            synchronized (this) {
+                while (pending.size() == 0 && !closed) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+
+                if (pending.size() == 0) {
+                    return;
+                }
+            }
+
+            try {
+                writePending();
+            } catch (IOException e) {
+                System.out.println("Error writing journal: " + e);
+
+                synchronized (this) {
+                    failure = e;
+                    notifyAll();
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Write the pending records to the current log and force them to disk.
+     * @throws IOException if the log cannot be written
+     */
+    private void writePending() throws IOException {
+        ioLock.lock();
+
+        try {
+            long upTo;
+
+            synchronized (this) {
+                RecordBuffer swap = writing;
+                writing = pending;
+                pending = swap;
+                upTo = logged;
+            }
+
+            if (writing.size() > 0) {
+                ByteBuffer buffer = ByteBuffer.wrap(writing.array(), 0, writing.size());
+                while (buffer.hasRemaining()) {
+                    log.write(buffer);
+                }
+                log.force(false);
+                logBytes += writing.size();
+                writing.reset();
+            }
+
+            synchronized (this) {
+                durable = Math.max(durable, upTo);
+                notifyAll();
+            }
+        } finally {
+            ioLock.unlock();
+        }
+    }
+
+    /**
+     * Write the pending records to the current log, close it and open the next one.
+     * @return The number of the new log, which is also the number of the snapshot that goes with it
+     * @throws IOException if a log cannot be written or created
+     */
+    private long startNewLog() throws IOException {
+        ioLock.lock();
+
+        try {
+            writePending();
+            log.close();
+
+            sequence++;
+            log = openLog(sequence);
+            logBytes = 0;
+            return sequence;
+        } finally {
+            ioLock.unlock();
+        }
+    }
+
+    /**
+     * Write a snapshot to a temporary file, force it to disk and rename it into place.
+     * @param students The students
+     * @param snapshot The number of the snapshot
+     * @throws IOException if the snapshot cannot be written
+     */
+    private void writeSnapshot(List<Student> students, long snapshot) throws IOException {
+        Path target = snapshotFile(snapshot);
+        Path temporary = folder.resolve(target.getFileName() + ".tmp");
+
+        DirectorySnapshot.save(students, temporary.toString());
+
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+        syncFolder();
+    }
+
+    /**
+     * Replay the records of a log onto a directory.
+     * A record that does not apply, such as a delete of an Andrew ID that is not there, is skipped. A record
+     * with a good checksum that cannot be decoded is damaged, and replay stops there as for a bad checksum.
+     * @param file The log
+     * @param directory The directory
+     * @param last True for the newest log, the only one a crash can leave with a partial record at its end
+     * @throws IOException if the log cannot be read, or a log other than the newest is damaged
+     */
+    private void replay(Path file, Directory directory, boolean last) throws IOException {
+        byte[] data = Files.readAllBytes(file);
+        ByteBuffer in = ByteBuffer.wrap(data);
+        CRC32 checksum = new CRC32();
+        int valid = 0;
+
+        while (in.remaining() >= HEADER_SIZE) {
+            int length = in.getInt();
+            int expected = in.getInt();
+
+            if (length <= 0 || length > MAX_RECORD_SIZE || length > in.remaining()) {
+                break;
+            }
+
+            checksum.reset();
+            checksum.update(data, in.position(), length);
+
+            if ((int) checksum.getValue() != expected) {
+                break;
+            }
+
+            ByteBuffer body = ByteBuffer.wrap(data, in.position(), length);
+            try {
+                apply(body, directory);
+                recoveredRecords++;
+            } catch (DuplicateStudentException | MissingStudentException e) {
+                // The record does not apply to the directory and is skipped
+                skippedRecords++;
+            } catch (IllegalArgumentException | BufferUnderflowException e) {
+                // The record cannot be decoded
+                break;
+            }
+
+            in.position(in.position() + length);
+            valid = in.position();
+        }
+
+        if (valid < data.length) {
+            if (!last) {
+                throw new IOException("Corrupt journal: " + file + " is damaged at byte " + valid + ".");
+            }
+
+            // Cut off the partial record so new records follow the last complete one
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.truncate(valid);
+                channel.force(false);
+            }
+        }
+    }
+
+    /**
+     * Apply one record to a directory. The whole record is decoded before the directory is changed.
+     * @param body The record body
+     * @param directory The directory
+     * @throws DuplicateStudentException if the record adds an Andrew ID that is already there
+     * @throws MissingStudentException if the record deletes an Andrew ID that is not there
+     * @throws BufferUnderflowException if the record is shorter than its fields
+     * @throws IllegalArgumentException if the record is malformed in any other way
+     */
+    private static void apply(ByteBuffer body, Directory directory) {
+        byte operation = body.get();
+        String andrewID = readString(body);
+
+        if (operation == ADD) {
+            String firstName = readString(body);
+            String lastName = readString(body);
+            long phoneNumber = body.getLong();
+
+            checkEnd(body);
+            directory.addStudent(new Student(andrewID, firstName, lastName, phoneNumber));
+            return;
+        }
+
+        if (operation == DELETE) {
+            checkEnd(body);
+            directory.deleteStudent(andrewID);
+            return;
+        }
+
+        throw new IllegalArgumentException("Unknown journal record: " + operation);
+    }
+
+    /**
+     * Check that a record has no bytes after its last field.
+     * @param body The record body
+     */
+    private static void checkEnd(ByteBuffer body) {
+        if (body.hasRemaining()) {
+            throw new IllegalArgumentException("Journal record is longer than its fields.");
+        }
+    }
+
+    /**
+     * Read a string written by RecordBuffer.writeString.
+     * @param body The record body
+     * @return The string, may be null
+     */
+    private static String readString(ByteBuffer body) {
+        int length = body.getInt();
+
+        if (length < 0) {
+            return null;
+        }
+
+        if (length > body.remaining()) {
+            throw new BufferUnderflowException();
+        }
+
+        byte[] bytes = new byte[length];
+        body.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Open a log for appending, creating it if needed.
+     * @param n The number of the log
+     * @return The log, positioned at its end
+     * @throws IOException if the log cannot be opened
+     */
+    private FileChannel openLog(long n) throws IOException {
+        FileChannel channel = FileChannel.open(logFile(n), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+
+        // Make sure the new file itself survives a crash
+        syncFolder();
+        return channel;
+    }
+
+    /**
+     * Delete the snapshots and logs older than a snapshot.
+     * @param snapshot The number of the snapshot
+     * @throws IOException if a file cannot be deleted
+     */
+    private void deleteBefore(long snapshot) throws IOException {
+        for (long n : sequences("journal-", ".log")) {
+            if (n < snapshot) {
+                Files.deleteIfExists(logFile(n));
+            }
+        }
+
+        for (long n : sequences("snapshot-", ".bin")) {
+            if (n < snapshot) {
+                Files.deleteIfExists(snapshotFile(n));
+            }
+        }
+    }
+
+    /**
+     * Get the numbers of the files named prefix + number + suffix, in ascending order.
+     * @param prefix The start of the file names
+     * @param suffix The end of the file names
+     * @return The numbers
+     */
+    private List<Long> sequences(String prefix, String suffix) {
+        List<Long> result = new ArrayList<>();
+
+        for (File file : folderFiles()) {
+            String name = file.getName();
+
+            if (name.startsWith(prefix) && name.endsWith(suffix)) {
+                try {
+                    result.add(Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length())));
+                } catch (NumberFormatException e) {
+                    // Not a journal file
+                }
+            }
+        }
+
+        Collections.sort(result);
+        return result;
+    }
+
+    /**
+     * Get the files in the folder.
+     * @return The files
+     */
+    private File[] folderFiles() {
+        File[] files = folder.toFile().listFiles();
+        return files == null ? new File[0] : files;
+    }
+
+    /**
+     * Get the path of a snapshot.
+     * @param n The number of the snapshot
+     * @return The path
+     */
+    private Path snapshotFile(long n) {
+        return folder.resolve("snapshot-" + n + ".bin");
+    }
+
+    /**
+     * Get the path of a log.
+     * @param n The number of the log
+     * @return The path
+     */
+    private Path logFile(long n) {
+        return folder.resolve("journal-" + n + ".log");
+    }
+
+    /**
+     * Force the folder itself to disk, so that created and renamed files survive a crash.
+     */
+    private void syncFolder() {
+        try (FileChannel channel = FileChannel.open(folder, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Some platforms cannot open a folder; the files themselves are already on disk
+        }
+    }
+
+    /**
+     * A growable byte buffer that records are encoded into.
+     */
+    private static final class RecordBuffer extends ByteArrayOutputStream {
+        /**
+         * Create an empty buffer.
+         */
+        RecordBuffer() {
+            super(256);
+        }
+
+        /**
+         * Get the backing array. Only the first size bytes are used.
+         * @return The array
+         */
+        byte[] array() {
+            return buf;
+        }
+
+        /**
+         * Append an int, high byte first.
+         * @param value The value
+         */
+        void writeInt(int value) {
+            write(value >>> 24);
+            write(value >>> 16);
+            write(value >>> 8);
+            write(value);
+        }
+
+        /**
+         * Append a long, high byte first.
+         * @param value The value
+         */
+        void writeLong(long value) {
+            writeInt((int) (value >>> 32));
+            writeInt((int) value);
+        }
+
+        /**
+         * Append a string as its length in bytes followed by its UTF-8 bytes, or -1 for null.
+         * @param value The string, may be null
+         */
+        void writeString(String value) {
+            if (value == null) {
+                writeInt(-1);
+                return;
+            }
+
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeInt(bytes.length);
+            write(bytes, 0, bytes.length);
+        }
+    }
+}
@@ -0,0 +1,525 @@
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * This class records how often each Directory operation is called, how long it takes and how many students
+ * it returns, so the behavior of a running directory can be watched without a profiler.
+ *
+ * Metrics are off unless the JVM is started with -Ddirectory.metrics=true. The flag is a static final field,
+ * so when it is off the JIT compiler removes every call site and Directory runs as if it had no metrics.
+ * When it is on, recording a call costs a few array writes and never allocates. Reading the clock is the
+ * expensive part, because it keeps the processor from overlapping the memory accesses of consecutive lookups,
+ * so the cheap operations only time one call in SAMPLE_INTERVAL; every call is still counted. Latencies and
+ * result sizes are kept in log-linear histograms like HdrHistogram: every power of two is split into 32
+ * buckets, so any value is counted within about 3% of its true value.
+ *
+ * Every operation is registered as an MXBean named StudentDirectory:type=Operation,name=..., so JConsole or
+ * any other JMX client can read its snapshot, and DirectoryDriver shows the same snapshots in a stats panel.
+ * @author: Zijie Huang
+ * @date: 10/18/2026
+ */
+public final class DirectoryMetrics {
+    /**
+     * True if metrics are recorded, set by the directory.metrics system property.
+     */
+    public static final boolean ENABLED = Boolean.getBoolean("directory.metrics");
+
+    /**
+     * The cheap operations time one call in this many. It is a power of two.
+     */
+    private static final int SAMPLE_INTERVAL = 16;
+
+    /**
+     * Loading a CSV or snapshot file. The result size is the number of students loaded.
+     */
+    public static final Operation LOAD = new Operation("load", 1);
+
+    /**
+     * Directory.addStudent.
+     */
+    public static final Operation ADD = new Operation("add", SAMPLE_INTERVAL);
+
+    /**
+     * Directory.addAll. The result size is the number of students added.
+     */
+    public static final Operation ADD_ALL = new Operation("addAll", 1);
+
+    /**
+     * Directory.deleteStudent.
+     */
+    public static final Operation DELETE = new Operation("delete", SAMPLE_INTERVAL);
+
+    /**
+     * Directory.deleteAll. The result size is the number of students deleted.
+     */
+    public static final Operation DELETE_ALL = new Operation("deleteAll", 1);
+
+    /**
+     * Directory.searchByAndrewId. The result size is 0 or 1.
+     */
+    public static final Operation SEARCH_BY_ANDREW_ID = new Operation("searchByAndrewId", SAMPLE_INTERVAL);
+
+    /**
+     * Directory.searchByAndrewIds. The result size is the number of Andrew IDs.
+     */
+    public static final Operation SEARCH_BY_ANDREW_IDS = new Operation("searchByAndrewIds", 1);
+
+    /**
+     * Directory.searchByFirstName.
+     */
+    public static final Operation SEARCH_BY_FIRST_NAME = new Operation("searchByFirstName", SAMPLE_INTERVAL);
+
+    /**
+     * Directory.searchByLastName.
+     */
+    public static final Operation SEARCH_BY_LAST_NAME = new Operation("searchByLastName", SAMPLE_INTERVAL);
+
+    /**
+     * Directory.searchByNormalizedFirstName and Directory.searchByNormalizedLastName.
+     */
+    public static final Operation SEARCH_BY_NORMALIZED_NAME = new Operation("searchByNormalizedName",
+    SAMPLE_INTERVAL);
+
+    /**
+     * The prefix searches of Directory by Andrew ID, first name and last name.
+     */
+    public static final Operation SEARCH_BY_PREFIX = new Operation("searchByPrefix", SAMPLE_INTERVAL);
+
+    /**
+     * The fuzzy searches of Directory by first name, last name and either name.
+     */
+    public static final Operation FUZZY_SEARCH = new Operation("fuzzySearch", 1);
+
+    /**
+     * Every operation, in the order they are shown.
+     */
+    private static final List<Operation> OPERATIONS = Collections.unmodifiableList(Arrays.asList(LOAD, ADD, ADD_ALL,
+    DELETE, DELETE_ALL, SEARCH_BY_ANDREW_ID, SEARCH_BY_ANDREW_IDS, SEARCH_BY_FIRST_NAME, SEARCH_BY_LAST_NAME,
+    SEARCH_BY_NORMALIZED_NAME, SEARCH_BY_PREFIX, FUZZY_SEARCH));
+
+    static {
+        if (ENABLED) {
+            registerMBeans();
+        }
+    }
+
+    /**
+     * No instances, the metrics are static like the flag that turns them on.
+     */
+    private DirectoryMetrics() {
+    }
+
+    /**
+     * This method returns every operation.
+     * @return A read-only list of the operations
+     */
+    public static List<Operation> operations() {
+        return OPERATIONS;
+    }
+
+    /**
+     * This method clears the metrics of every operation.
+     */
+    public static void reset() {
+        for (Operation operation : OPERATIONS) {
+            operation.reset();
+        }
+    }
+
+    /**
+     * Register every operation with the platform MBean server. Metrics keep working if JMX fails.
+     */
+    private static void registerMBeans() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+        try {
+            for (Operation operation : OPERATIONS) {
+                server.registerMBean(operation, new ObjectName("StudentDirectory:type=Operation,name="
+                + operation.getName()));
+            }
+        } catch (JMException e) {
+            System.out.println("Error registering metrics: " + e);
+        }
+    }
+
+    /**
+     * This class holds the metrics of one operation.
+     * @author: Zijie Huang
+     * @date: 10/18/2026
+     */
+    public static final class Operation implements OperationMetricsMXBean {
+        /**
+         * The name of the operation.
+         */
+        private final String name;
+
+        /**
+         * The operation times one call in this many. It is a power of two.
+         */
+        private final int sampleInterval;
+
+        /**
+         * The number of calls started, used to pick the calls that are timed. It is not atomic: a lost update
+         * between threads only moves which call is timed.
+         */
+        private int started;
+
+        /**
+         * The latencies in nanoseconds of the timed calls.
+         */
+        private final Histogram latencies = new Histogram();
+
+        /**
+         * The number of students each call returned or changed. It also counts the calls.
+         */
+        private final Histogram resultSizes = new Histogram();
+
+        /**
+         * Constructor take the name of the operation and how often a call is timed.
+         * @param name The name
+         * @param sampleInterval The operation times one call in this many, a power of two
+         */
+        Operation(String name, int sampleInterval) {
+            this.name = name;
+            this.sampleInterval = sampleInterval;
+        }
+
+        /**
+         * This method starts a call, to be passed to record when it finishes.
+         * @return The current System.nanoTime() if the call is timed, or 0 if it is not or metrics are off
+         */
+        public long start() {
+            if (!ENABLED || (++started & (sampleInterval - 1)) != 0) {
+                return 0;
+            }
+            return System.nanoTime();
+        }
+
+        /**
+         * This method records a call that has finished. It does nothing if metrics are off.
+         * @param start The value returned by start()
+         * @param resultSize The number of students the call returned or changed
+         */
+        public void record(long start, long resultSize) {
+            if (!ENABLED) {
+                return;
+            }
+
+            resultSizes.record(resultSize);
+            if (start != 0) {
+                latencies.record(System.nanoTime() - start);
+            }
+        }
+
+        /**
+         * This method returns the name of the operation.
+         * @return The name
+         */
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * This method takes a snapshot of the metrics recorded so far.
+         * @return The snapshot
+         */
+        @Override
+        public Snapshot getSnapshot() {
+            return new Snapshot(name, resultSizes.copy(), latencies.copy());
+        }
+
+        /**
+         * This method clears the metrics of the operation.
+         */
+        @Override
+        public void reset() {
+            latencies.reset();
+            resultSizes.reset();
+        }
+    }
+
+    /**
+     * This class holds the metrics of one operation at one moment. Latencies are in nanoseconds and come from
+     * the timed calls only, and every percentile is the highest value of its histogram bucket.
+     * @author: Zijie Huang
+     * @date: 10/18/2026
+     */
+    public static final class Snapshot {
+        /**
+         * The name of the operation.
+         */
+        private final String name;
+
+        /**
+         * The bucket counts of the latencies.
+         */
+        private final long[] latencies;
+
+        /**
+         * The bucket counts of the result sizes.
+         */
+        private final long[] resultSizes;
+
+        /**
+         * The number of calls.
+         */
+        private final long count;
+
+        /**
+         * The number of timed calls.
+         */
+        private final long timed;
+
+        /**
+         * Constructor take the name of the operation and copies of its histograms.
+         * @param name The name
+         * @param resultSizes The bucket counts of the result sizes
+         * @param latencies The bucket counts of the latencies
+         */
+        Snapshot(String name, long[] resultSizes, long[] latencies) {
+            this.name = name;
+            this.resultSizes = resultSizes;
+            this.latencies = latencies;
+            count = Histogram.total(resultSizes);
+            timed = Histogram.total(latencies);
+        }
+
+        /**
+         * This method returns the name of the operation.
+         * @return The name
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * This method returns the number of calls.
+         * @return The number of calls
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * This method returns the mean latency.
+         * @return The mean latency in nanoseconds, or 0 if there were no calls
+         */
+        public double getMeanNanos() {
+            return Histogram.mean(latencies, timed);
+        }
+
+        /**
+         * This method returns the median latency.
+         * @return The median latency in nanoseconds
+         */
+        public long getP50Nanos() {
+            return Histogram.percentile(latencies, timed, 0.5);
+        }
+
+        /**
+         * This method returns the 99th percentile of the latencies.
+         * @return The 99th percentile in nanoseconds
+         */
+        public long getP99Nanos() {
+            return Histogram.percentile(latencies, timed, 0.99);
+        }
+
+        /**
+         * This method returns the 99.9th percentile of the latencies.
+         * @return The 99.9th percentile in nanoseconds
+         */
+        public long getP999Nanos() {
+            return Histogram.percentile(latencies, timed, 0.999);
+        }
+
+        /**
+         * This method returns the highest latency.
+         * @return The highest latency in nanoseconds
+         */
+        public long getMaxNanos() {
+            return Histogram.percentile(latencies, timed, 1);
+        }
+
+        /**
+         * This method returns the mean result size.
+         * @return The mean number of students per call, or 0 if there were no calls
+         */
+        public double getMeanResultSize() {
+            return Histogram.mean(resultSizes, count);
+        }
+
+        /**
+         * This method returns the 99th percentile of the result sizes.
+         * @return The 99th percentile of the number of students per call
+         */
+        public long getP99ResultSize() {
+            return Histogram.percentile(resultSizes, count, 0.99);
+        }
+
+        /**
+         * This method returns the largest result size.
+         * @return The largest number of students of a call
+         */
+        public long getMaxResultSize() {
+            return Histogram.percentile(resultSizes, count, 1);
+        }
+    }
+
+    /**
+     * This class counts values in log-linear buckets. Values below 2 * SUB_BUCKETS have a bucket each; above
+     * that, every power of two is split into SUB_BUCKETS buckets of equal width.
+     * A Directory is used by one thread at a time, so a count is updated with an ordered write instead of an
+     * atomic increment, which on x86 is a full fence that keeps lookups from overlapping. Other threads still
+     * see the counts; if two threads record into the same bucket at once, one of the two calls may be lost.
+     * @author: Zijie Huang
+     * @date: 10/18/2026
+     */
+    static final class Histogram {
+        /**
+         * The log2 of the number of buckets per power of two.
+         */
+        private static final int SUB_BUCKET_BITS = 5;
+
+        /**
+         * The number of buckets per power of two.
+         */
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+        /**
+         * The number of buckets, enough for every non-negative long.
+         */
+        private static final int BUCKETS = (62 - SUB_BUCKET_BITS) * SUB_BUCKETS + 2 * SUB_BUCKETS;
+
+        /**
+         * The count of each bucket.
+         */
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+        /**
+         * Count a value.
+         * @param value The value, counted as 0 if it is negative
+         */
+        void record(long value) {
+            int bucket = bucketOf(Math.max(value, 0));
+            counts.lazySet(bucket, counts.get(bucket) + 1);
+        }
+
+        /**
+         * Copy the bucket counts.
+         * @return The copy
+         */
+        long[] copy() {
+            long[] copy = new long[BUCKETS];
+
+            for (int i = 0; i < BUCKETS; i++) {
+                copy[i] = counts.get(i);
+            }
+            return copy;
+        }
+
+        /**
+         * Clear the counts.
+         */
+        void reset() {
+            for (int i = 0; i < BUCKETS; i++) {
+                counts.set(i, 0);
+            }
+        }
+
+        /**
+         * Get the bucket of a value.
+         * @param value The value, not negative
+         * @return The bucket
+         */
+        static int bucketOf(long value) {
+            if (value < 2 * SUB_BUCKETS) {
+                return (int) value;
+            }
+
+            int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+            return shift * SUB_BUCKETS + (int) (value >>> shift);
+        }
+
+        /**
+         * Get the highest value that falls into a bucket.
+         * @param bucket The bucket
+         * @return The highest value of the bucket
+         */
+        static long highestValueOf(int bucket) {
+            if (bucket < 2 * SUB_BUCKETS) {
+                return bucket;
+            }
+
+            int shift = bucket / SUB_BUCKETS - 1;
+            long top = bucket - (long) shift * SUB_BUCKETS;
+
+            // The last bucket ends at 2^63 - 1, which the subtraction reaches by wrapping around
+            return ((top + 1) << shift) - 1;
+        }
+
+        /**
+         * Get the number of values of copied bucket counts.
+         * @param copy The bucket counts returned by copy()
+         * @return The number of values
+         */
+        static long total(long[] copy) {
+            long total = 0;
+
+            for (long bucketCount : copy) {
+                total += bucketCount;
+            }
+            return total;
+        }
+
+        /**
+         * Get a percentile of copied bucket counts.
+         * @param copy The bucket counts returned by copy()
+         * @param count The number of values
+         * @param fraction The percentile as a fraction, for example 0.99, or 1 for the highest value
+         * @return The highest value of the bucket the percentile falls into, or 0 if there are no values
+         */
+        static long percentile(long[] copy, long count, double fraction) {
+            long rank = Math.max(1, (long) Math.ceil(fraction * count));
+            long seen = 0;
+
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += copy[i];
+
+                if (seen >= rank) {
+                    return highestValueOf(i);
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * Get the mean of copied bucket counts, taking the middle of each bucket as its value. Keeping an exact
+         * sum would cost another atomic update on every call.
+         * @param copy The bucket counts returned by copy()
+         * @param count The number of values
+         * @return The mean, or 0 if there are no values
+         */
+        static double mean(long[] copy, long count) {
+            if (count == 0) {
+                return 0;
+            }
+
+            double sum = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                if (copy[i] > 0) {
+                    long lowest = i == 0 ? 0 : highestValueOf(i - 1) + 1;
+                    sum += copy[i] * (lowest / 2.0 + highestValueOf(i) / 2.0);
+                }
+            }
+            return sum / count;
+        }
+    }
+}
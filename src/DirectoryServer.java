@@ -0,0 +1,543 @@
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channel;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This class serves a directory over TCP without a GUI, so other programs can search and update it.
+ *
+ * One thread runs a selector loop over all connections, so thousands of mostly idle connections cost no
+ * threads, and it is the only thread that touches the directory, so a plain Directory needs no locks.
+ * The protocol is one UTF-8 line per request and per response header:
+ *
+ *   GET andrewID            OK 0, or OK 1 and the student
+ *   MGET id TAB id ...      OK n and one line per Andrew ID: the student, or an empty line if there is none
+ *   FIRST name              OK n and the n students with that first name
+ *   LAST name               OK n and the n students with that last name
+ *   ADD id TAB first TAB last TAB phone    OK
+ *   DEL andrewID            OK 1 and the deleted student
+ *   SIZE                    OK n
+ *
+ * A student is sent as one line of its Andrew ID, first name, last name and phone number separated by tabs.
+ * A missing (null) value is sent as \N, and a value that starts with a backslash is sent with one more
+ * backslash in front, so null, the empty string and a literal \N all come back as they were. ADD values are
+ * sent the same way. A request that fails is answered with ERR and the message, for example
+ * "ERR Student already exists.". A client may send several requests without waiting; they are answered in
+ * order, so pipelining and MGET both resolve many Andrew IDs without a round trip for each.
+ *
+ * The protocol has no authentication, so anyone who can reach the port can add and delete students. The
+ * server therefore listens on the loopback address unless it is given another address to bind to.
+ * @author: Zijie Huang
+ * @date: 10/18/2026
+ */
+public class DirectoryServer implements Closeable {
+    /**
+     * The longest request line in bytes. A connection that sends a longer one is closed.
+     */
+    private static final int MAX_LINE_BYTES = 1 << 16;
+
+    /**
+     * The number of unsent response bytes at which a connection stops reading requests until they are sent.
+     */
+    private static final int MAX_PENDING_BYTES = 1 << 20;
+
+    /**
+     * How long the server stops accepting connections after accepting one failed, for example because the
+     * process ran out of file descriptors.
+     */
+    private static final long ACCEPT_RETRY_MILLIS = 100;
+
+    /**
+     * The value sent for null.
+     */
+    static final String NULL_VALUE = "\\N";
+
+    /**
+     * The directory to serve.
+     */
+    private final StudentDirectory directory;
+
+    /**
+     * The selector of the listening channel and all connections.
+     */
+    private final Selector selector;
+
+    /**
+     * The listening channel.
+     */
+    private final ServerSocketChannel serverChannel;
+
+    /**
+     * The selection key of the listening channel.
+     */
+    private final SelectionKey acceptKey;
+
+    /**
+     * True while accepting is paused after a failed accept. Only used by the thread that calls run.
+     */
+    private boolean acceptPaused;
+
+    /**
+     * The System.nanoTime at which a paused accept is tried again.
+     */
+    private long acceptRetryNanos;
+
+    /**
+     * False once the server is closed.
+     */
+    private volatile boolean running = true;
+
+    /**
+     * Constructor take the directory to serve and the port to listen on. Only connections from the same
+     * machine are accepted.
+     * @param directory The directory. Only the thread that calls run uses it.
+     * @param port The port, or 0 for any free port
+     * @throws IOException if the port cannot be opened
+     */
+    public DirectoryServer(StudentDirectory directory, int port) throws IOException {
+        this(directory, InetAddress.getLoopbackAddress(), port);
+    }
+
+    /**
+     * Constructor take the directory to serve and the address and port to listen on.
+     * @param directory The directory. Only the thread that calls run uses it.
+     * @param address The local address to bind to, for example 0.0.0.0 for every network interface
+     * @param port The port, or 0 for any free port
+     * @throws IOException if the port cannot be opened
+     */
+    public DirectoryServer(StudentDirectory directory, InetAddress address, int port) throws IOException {
+        if (address == null) {
+            throw new IllegalArgumentException("Address cannot be null.");
+        }
+
+        this.directory = directory;
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(address, port), 1024);
+        serverChannel.configureBlocking(false);
+        acceptKey = serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    /**
+     * This method returns the address the server listens on.
+     * @return The address
+     */
+    public InetAddress getAddress() {
+        return serverChannel.socket().getInetAddress();
+    }
+
+    /**
+     * This method returns the port the server listens on.
+     * @return The port
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * This method runs the selector loop on the calling thread until the server is closed.
+     * A connection that fails, or whose request fails with an unexpected error, is closed without stopping the
+     * others. If accepting a connection fails, the error is printed and the server keeps listening.
+     * @throws IOException if the selector fails
+     */
+    public void run() throws IOException {
+        try {
+            while (running) {
+                if (acceptPaused && System.nanoTime() - acceptRetryNanos >= 0) {
+                    resumeAccepting();
+                }
+
+                selector.select(acceptPaused ? ACCEPT_RETRY_MILLIS : 0);
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+
+                    if (key == acceptKey) {
+                        accept();
+                        continue;
+                    }
+
+                    try {
+                        Connection connection = (Connection) key.attachment();
+
+                        if (key.isReadable()) {
+                            connection.read();
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            connection.write();
+                        }
+                    } catch (IOException e) {
+                        closeConnection(key);
+                    } catch (RuntimeException e) {
+                        System.out.println("Error handling request: " + e);
+                        closeConnection(key);
+                    }
+                }
+            }
+        } catch (ClosedSelectorException e) {
+            // Closed by close()
+        } finally {
+            closeChannels();
+        }
+    }
+
+    /**
+     * This method stops the selector loop and closes all connections.
+     */
+    @Override
+    public void close() {
+        running = false;
+        selector.wakeup();
+    }
+
+    /**
+     * Accept every pending connection. If accepting fails, the listening channel stays open but is not
+     * selected for ACCEPT_RETRY_MILLIS, so a server that is out of file descriptors does not spin on it.
+     */
+    private void accept() {
+        try {
+            SocketChannel channel = serverChannel.accept();
+
+            while (channel != null) {
+                try {
+                    channel.configureBlocking(false);
+                    channel.socket().setTcpNoDelay(true);
+                    SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+                    key.attach(new Connection(channel, key));
+                } catch (IOException e) {
+                    System.out.println("Error setting up connection: " + e);
+                    closeChannel(channel);
+                }
+                channel = serverChannel.accept();
+            }
+        } catch (IOException e) {
+            System.out.println("Error accepting connection: " + e);
+            acceptPaused = true;
+            acceptRetryNanos = System.nanoTime() + ACCEPT_RETRY_MILLIS * 1_000_000L;
+            acceptKey.interestOps(0);
+        }
+    }
+
+    /**
+     * Select the listening channel for new connections again after a failed accept.
+     */
+    private void resumeAccepting() {
+        acceptPaused = false;
+        acceptKey.interestOps(SelectionKey.OP_ACCEPT);
+    }
+
+    /**
+     * Close a connection. Closing one frees a file descriptor, so accepting is resumed if it was paused.
+     * @param key The selection key of the connection
+     */
+    private void closeConnection(SelectionKey key) {
+        key.cancel();
+        closeChannel(key.channel());
+
+        if (acceptPaused) {
+            resumeAccepting();
+        }
+    }
+
+    /**
+     * Close a channel, printing the error if it cannot be closed.
+     * @param channel The channel
+     */
+    private static void closeChannel(Channel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.out.println("Error closing connection: " + e);
+        }
+    }
+
+    /**
+     * Close the listening channel, all connections and the selector.
+     */
+    private void closeChannels() {
+        try {
+            if (selector.isOpen()) {
+                for (SelectionKey key : selector.keys()) {
+                    key.channel().close();
+                }
+                selector.close();
+            }
+            serverChannel.close();
+        } catch (IOException e) {
+            System.out.println("Error closing server: " + e);
+        }
+    }
+
+    /**
+     * Answer one request line.
+     * @param line The request without its line break
+     * @param response The responses to append the answer to
+     */
+    private void handle(String line, StringBuilder response) {
+        int space = line.indexOf(' ');
+        String command = space < 0 ? line : line.substring(0, space);
+        String argument = space < 0 ? "" : line.substring(space + 1);
+
+        try {
+            switch (command) {
+                case "GET":
+                    Student student = directory.searchByAndrewId(argument);
+                    if (student == null) {
+                        response.append("OK 0\n");
+                    } else {
+                        appendStudent(response.append("OK 1\n"), student);
+                    }
+                    break;
+                case "MGET":
+                    List<Student> students = directory.searchByAndrewIds(Arrays.asList(argument.split("\t", -1)));
+                    response.append("OK ").append(students.size()).append('\n');
+
+                    for (Student found : students) {
+                        if (found == null) {
+                            response.append('\n');
+                        } else {
+                            appendStudent(response, found);
+                        }
+                    }
+                    break;
+                case "FIRST":
+                    appendStudents(response, directory.searchByFirstName(argument));
+                    break;
+                case "LAST":
+                    appendStudents(response, directory.searchByLastName(argument));
+                    break;
+                case "ADD":
+                    String[] fields = argument.split("\t", -1);
+                    if (fields.length != 4) {
+                        throw new IllegalArgumentException("ADD needs four values.");
+                    }
+                    directory.addStudent(toStudent(fields));
+                    response.append("OK\n");
+                    break;
+                case "DEL":
+                    Student deleted = directory.deleteStudent(argument);
+                    appendStudent(response.append("OK 1\n"), deleted);
+                    break;
+                case "SIZE":
+                    response.append("OK ").append(directory.size()).append('\n');
+                    break;
+                default:
+                    response.append("ERR Unknown command.\n");
+                    break;
+            }
+        } catch (IllegalArgumentException e) {
+            response.append("ERR ").append(e.getMessage()).append('\n');
+        }
+    }
+
+    /**
+     * Append the header and lines of a list of students.
+     * @param response The responses to append to
+     * @param students The students
+     */
+    private static void appendStudents(StringBuilder response, List<Student> students) {
+        response.append("OK ").append(students.size()).append('\n');
+
+        for (Student student : students) {
+            appendStudent(response, student);
+        }
+    }
+
+    /**
+     * Append the line of a student.
+     * @param response The responses to append to
+     * @param student The student
+     * @return The responses
+     */
+    static StringBuilder appendStudent(StringBuilder response, Student student) {
+        appendValue(response, student.getAndrewId()).append('\t');
+        appendValue(response, student.getFirstName()).append('\t');
+        appendValue(response, student.getLastName()).append('\t');
+        return appendValue(response, student.getPhoneNumber()).append('\n');
+    }
+
+    /**
+     * Append a value as it is sent.
+     * @param response The responses to append to
+     * @param value The value, may be null
+     * @return The responses
+     */
+    private static StringBuilder appendValue(StringBuilder response, String value) {
+        if (value == null) {
+            return response.append(NULL_VALUE);
+        }
+
+        if (value.startsWith("\\")) {
+            response.append('\\');
+        }
+        return response.append(value);
+    }
+
+    /**
+     * Encode a value as it is sent: NULL_VALUE for null, and one more backslash in front of a value that starts
+     * with a backslash.
+     * @param value The value, may be null
+     * @return The encoded value
+     */
+    static String encodeValue(String value) {
+        if (value == null) {
+            return NULL_VALUE;
+        }
+        return value.startsWith("\\") ? "\\" + value : value;
+    }
+
+    /**
+     * Decode a value that was encoded by encodeValue.
+     * @param value The encoded value
+     * @return The value, or null for NULL_VALUE
+     */
+    static String decodeValue(String value) {
+        if (value.equals(NULL_VALUE)) {
+            return null;
+        }
+        return value.startsWith("\\") ? value.substring(1) : value;
+    }
+
+    /**
+     * Create a student from the four encoded values of a student line or an ADD request.
+     * @param values The Andrew ID, first name, last name and phone number
+     * @return The student
+     */
+    static Student toStudent(String[] values) {
+        String phoneNumber = decodeValue(values[3]);
+
+        // A missing phone number cannot go through the formatting constructor
+        if (phoneNumber == null) {
+            return new Student(decodeValue(values[0]), decodeValue(values[1]), decodeValue(values[2]),
+            Student.packPhoneNumber(null));
+        }
+
+        return new Student(decodeValue(values[0]), decodeValue(values[1]), decodeValue(values[2]), phoneNumber);
+    }
+
+    /**
+     * This class holds the buffers of one connection.
+     * @author: Zijie Huang
+     * @date: 10/18/2026
+     */
+    private final class Connection {
+        /**
+         * The channel of the connection.
+         */
+        private final SocketChannel channel;
+
+        /**
+         * The selection key of the channel.
+         */
+        private final SelectionKey key;
+
+        /**
+         * The bytes received but not yet handled, from 0 to the position.
+         */
+        private ByteBuffer in = ByteBuffer.allocate(4096);
+
+        /**
+         * The response bytes not yet sent, from 0 to the position.
+         */
+        private ByteBuffer out = ByteBuffer.allocate(4096);
+
+        /**
+         * The responses to the requests of one read, reused between reads.
+         */
+        private final StringBuilder response = new StringBuilder();
+
+        /**
+         * Constructor take the channel and its selection key.
+         * @param channel The channel
+         * @param key The selection key
+         */
+        Connection(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+        }
+
+        /**
+         * Read the available bytes, answer every complete request line in them, and send the answers.
+         * @throws IOException if the connection fails, is closed by the client or sends a line that is too long
+         */
+        void read() throws IOException {
+            if (channel.read(in) < 0) {
+                throw new IOException("Connection closed.");
+            }
+
+            byte[] bytes = in.array();
+            int end = in.position();
+            int lineStart = 0;
+
+            for (int i = 0; i < end; i++) {
+                if (bytes[i] == '\n') {
+                    int lineEnd = i > lineStart && bytes[i - 1] == '\r' ? i - 1 : i;
+                    handle(new String(bytes, lineStart, lineEnd - lineStart, StandardCharsets.UTF_8), response);
+                    lineStart = i + 1;
+                }
+            }
+
+            // Keep the start of an incomplete line for the next read
+            System.arraycopy(bytes, lineStart, bytes, 0, end - lineStart);
+            in.position(end - lineStart);
+
+            if (!in.hasRemaining()) {
+                if (in.capacity() >= MAX_LINE_BYTES) {
+                    throw new IOException("Request line too long.");
+                }
+                in = grow(in, in.capacity() * 2);
+            }
+
+            if (response.length() > 0) {
+                byte[] encoded = response.toString().getBytes(StandardCharsets.UTF_8);
+                response.setLength(0);
+
+                if (out.remaining() < encoded.length) {
+                    out = grow(out, Math.max(out.capacity() * 2, out.position() + encoded.length));
+                }
+                out.put(encoded);
+                write();
+            }
+        }
+
+        /**
+         * Send as many pending response bytes as the channel takes, and wait for the channel to be writable
+         * again if some are left. Reading stops while too many bytes are pending.
+         * @throws IOException if the connection fails
+         */
+        void write() throws IOException {
+            out.flip();
+            channel.write(out);
+            out.compact();
+
+            int ops = out.position() < MAX_PENDING_BYTES ? SelectionKey.OP_READ : 0;
+            key.interestOps(out.position() > 0 ? ops | SelectionKey.OP_WRITE : ops);
+        }
+
+        /**
+         * Copy a buffer into a larger one.
+         * @param buffer The buffer, with its data from 0 to the position
+         * @param capacity The new capacity
+         * @return The new buffer, with the same data and position
+         */
+        private ByteBuffer grow(ByteBuffer buffer, int capacity) {
+            ByteBuffer larger = ByteBuffer.allocate(capacity);
+            buffer.flip();
+            return larger.put(buffer);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This class saves a Directory to a compact binary snapshot file and loads it back without any text parsing.
+ *
+ * The file starts with a magic number and a version, followed by a string table and the student records:
+ * the string table is a count and then every string as its length in bytes followed by its UTF-8 bytes.
+ * Andrew IDs, first names and last names are stored once each, so a name shared by many students takes
+ * space only once. Each record is fixed-width: the string table indexes of the Andrew ID, the first name
+ * and the last name (-1 for a missing name) followed by the phone number packed into a long.
+ * @author: Zijie Huang
+ * @date: 10/18/2026
+ */
+public class DirectorySnapshot {
+    /**
+     * The magic number at the start of every snapshot file ("SDIR").
+     */
+    private static final int MAGIC = 0x53444952;
+
+    /**
+     * The version of the file format.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * The size of the buffers used to read and write snapshot files.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * This class only has static methods.
+     */
+    private DirectorySnapshot() {
+    }
+
+    /**
+     * This method saves all students of a directory to a snapshot file.
+     * @param directory The directory to save
+     * @param fn The snapshot file name
+     * @throws IOException if the file cannot be written
+     */
+    public static void save(Directory directory, String fn) throws IOException {
+        save(directory.students(), fn);
+    }
+
+    /**
+     * This method saves students to a snapshot file. It does not need the directory they came from, so a
+     * copy of the students can be saved on another thread while the directory keeps changing.
+     * @param students The students to save
+     * @param fn The snapshot file name
+     * @throws IOException if the file cannot be written
+     */
+    public static void save(Collection<Student> students, String fn) throws IOException {
+        // Build the string table, giving every distinct string an index
+        Map<String, Integer> indexes = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+
+        for (Student student : students) {
+            addString(student.getAndrewId(), indexes, strings);
+            addString(student.getFirstName(), indexes, strings);
+            addString(student.getLastName(), indexes, strings);
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fn), BUFFER_SIZE))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+
+            // String table
+            out.writeInt(strings.size());
+            for (String string : strings) {
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+
+            // Fixed-width records
+            out.writeInt(students.size());
+            for (Student student : students) {
+                out.writeInt(indexOf(student.getAndrewId(), indexes));
+                out.writeInt(indexOf(student.getFirstName(), indexes));
+                out.writeInt(indexOf(student.getLastName(), indexes));
+                out.writeLong(Student.packPhoneNumber(student.getPhoneNumber()));
+            }
+        }
+    }
+
+    /**
+     * This method loads a directory from a snapshot file. Its names are normalized with NameNormalizer.DEFAULT.
+     * @param fn The snapshot file name
+     * @return The directory with all students of the snapshot
+     * @throws IOException if the file cannot be read or is not a snapshot file
+     */
+    public static Directory load(String fn) throws IOException {
+        return load(fn, NameNormalizer.DEFAULT);
+    }
+
+    /**
+     * This method loads a directory from a snapshot file.
+     * @param fn The snapshot file name
+     * @param normalizer The normalizer of the directory's normalized name maps
+     * @return The directory with all students of the snapshot
+     * @throws IOException if the file cannot be read or is not a snapshot file
+     */
+    public static Directory load(String fn, NameNormalizer normalizer) throws IOException {
+        long start = DirectoryMetrics.LOAD.start();
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(fn), BUFFER_SIZE))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(fn + " is not a directory snapshot.");
+            }
+
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version: " + version);
+            }
+
+            // String table
+            String[] strings = new String[in.readInt()];
+            byte[] bytes = new byte[64];
+
+            for (int i = 0; i < strings.length; i++) {
+                int length = in.readInt();
+                if (length > bytes.length) {
+                    bytes = new byte[Math.max(length, bytes.length * 2)];
+                }
+                in.readFully(bytes, 0, length);
+                strings[i] = new String(bytes, 0, length, StandardCharsets.UTF_8);
+            }
+
+            // Fixed-width records
+            int count = in.readInt();
+            Directory directory = new Directory(count, normalizer);
+
+            for (int i = 0; i < count; i++) {
+                String andrewID = stringAt(strings, in.readInt());
+                String firstName = stringAt(strings, in.readInt());
+                String lastName = stringAt(strings, in.readInt());
+                long phoneNumber = in.readLong();
+
+                directory.addLoadedStudent(new Student(andrewID, firstName, lastName, phoneNumber));
+            }
+
+            DirectoryMetrics.LOAD.record(start, count);
+            return directory;
+        }
+    }
+
+    /**
+     * Add a string to the string table if it is not there yet.
+     * @param string The string, may be null
+     * @param indexes The index of every string in the table
+     * @param strings The string table
+     */
+    private static void addString(String string, Map<String, Integer> indexes, List<String> strings) {
+        if (string != null && !indexes.containsKey(string)) {
+            indexes.put(string, strings.size());
+            strings.add(string);
+        }
+    }
+
+    /**
+     * Get the string table index of a string.
+     * @param string The string, may be null
+     * @param indexes The index of every string in the table
+     * @return The index, or -1 for null
+     */
+    private static int indexOf(String string, Map<String, Integer> indexes) {
+        return string == null ? -1 : indexes.get(string);
+    }
+
+    /**
+     * Get a string from the string table.
+     * @param strings The string table
+     * @param index The index, or -1 for null
+     * @return The string
+     * @throws IOException if the index is outside the table
+     */
+    private static String stringAt(String[] strings, int index) throws IOException {
+        if (index == -1) {
+            return null;
+        }
+
+        if (index < 0 || index >= strings.length) {
+            throw new IOException("Corrupt snapshot: string index " + index + " out of range.");
+        }
+
+        return strings[index];
+    }
+}
@@ -0,0 +1,20 @@
+/**
+ * This exception is thrown when a student is added with an Andrew ID that is already in the directory.
+ * It is an IllegalArgumentException like every other rejected argument, so callers that do not care about
+ * the reason keep working, while callers that do can tell a duplicate from a null or malformed argument.
+ * @author: Zijie Huang
+ * @date: 10/18/2026
+ */
+public class DuplicateStudentException extends IllegalArgumentException {
+    /**
+     * The version of the serialized form that IllegalArgumentException requires.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * This constructor creates the exception with the message "Student already exists.".
+     */
+    public DuplicateStudentException() {
+        super("Student already exists.");
+    }
+}
@@ -0,0 +1,20 @@
+/**
+ * This exception is thrown when a student is deleted by an Andrew ID that is not in the directory.
+ * It is an IllegalArgumentException like every other rejected argument, so callers that do not care about
+ * the reason keep working, while callers that do can tell a missing student from a null argument.
+ * @author: Zijie Huang
+ * @date: 10/18/2026
+ */
+public class MissingStudentException extends IllegalArgumentException {
+    /**
+     * The version of the serialized form that IllegalArgumentException requires.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * This constructor creates the exception with the message "Student does not exist.".
+     */
+    public MissingStudentException() {
+        super("Student does not exist.");
+    }
+}
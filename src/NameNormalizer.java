@@ -0,0 +1,144 @@
+import java.util.Locale;
+
+import java.text.Normalizer;
+
+/**
+ * This class turns a name into the key of the normalized name indexes of Directory, so "Smith", "smith" and
+ * "SMITH " find the same students, and so do "Zo&euml;" and "Zoe".
+ *
+ * Every name is put in Unicode NFC form, so a letter typed as one character or as a letter and a combining
+ * accent is the same key. On top of that, leading and trailing white space can be trimmed, accents and other
+ * diacritics can be removed, and the case can be folded; each of the three can be turned off.
+ * A name that is already normalized is returned as it is, and a plain ASCII name is checked without
+ * allocating, so looking up a normalized key costs no more than looking up the name itself.
+ * @author: Zijie Huang
+ * @date: 10/18/2026
+ */
+public final class NameNormalizer {
+    /**
+     * The normalizer that trims, removes diacritics and folds case, used by Directory unless another is given.
+     */
+    public static final NameNormalizer DEFAULT = new NameNormalizer(true, true, true);
+
+    /**
+     * A name that is plain ASCII and already normalized.
+     */
+    private static final int NORMALIZED_ASCII = 0;
+
+    /**
+     * A name that is plain ASCII but has white space at the ends or upper case letters.
+     */
+    private static final int ASCII = 1;
+
+    /**
+     * A name with characters outside ASCII.
+     */
+    private static final int NOT_ASCII = 2;
+
+    /**
+     * True to remove leading and trailing white space.
+     */
+    private final boolean trim;
+
+    /**
+     * True to remove accents and other diacritics.
+     */
+    private final boolean stripDiacritics;
+
+    /**
+     * True to fold upper and lower case together.
+     */
+    private final boolean foldCase;
+
+    /**
+     * Constructor take the steps to apply on top of the NFC form.
+     * @param trim True to remove leading and trailing white space
+     * @param stripDiacritics True to remove accents and other diacritics
+     * @param foldCase True to fold upper and lower case together
+     */
+    public NameNormalizer(boolean trim, boolean stripDiacritics, boolean foldCase) {
+        this.trim = trim;
+        this.stripDiacritics = stripDiacritics;
+        this.foldCase = foldCase;
+    }
+
+    /**
+     * This method returns the normalized key of a name.
+     * @param name The name, may be null
+     * @return The key, which is the name itself if it is already normalized, or null if the name is null
+     */
+    public String normalize(String name) {
+        if (name == null) {
+            return null;
+        }
+
+        int kind = kindOf(name);
+
+        if (kind == NORMALIZED_ASCII) {
+            return name;
+        }
+
+        String key = trim ? name.strip() : name;
+
+        // ASCII has no diacritics and is always in NFC form
+        if (kind == ASCII) {
+            return foldCase ? key.toLowerCase(Locale.ROOT) : key;
+        }
+
+        if (stripDiacritics) {
+            // Split every accented letter into the letter and its combining marks, then drop the marks
+            String decomposed = Normalizer.normalize(key, Normalizer.Form.NFD);
+            StringBuilder stripped = new StringBuilder(decomposed.length());
+
+            for (int i = 0; i < decomposed.length(); i++) {
+                char c = decomposed.charAt(i);
+
+                if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                    stripped.append(c);
+                }
+            }
+            key = stripped.toString();
+        }
+
+        key = Normalizer.normalize(key, Normalizer.Form.NFC);
+
+        if (foldCase) {
+            // Going through upper case folds letters like the German sharp s and the final sigma as well
+            key = key.toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
+        }
+
+        return key.equals(name) ? name : key;
+    }
+
+    /**
+     * Check whether a name is plain ASCII, and if so, whether this normalizer would change it. ASCII is always
+     * in NFC form and has no diacritics, so only the white space at the ends and the upper case letters matter.
+     * @param name The name
+     * @return NORMALIZED_ASCII, ASCII or NOT_ASCII
+     */
+    private int kindOf(String name) {
+        int length = name.length();
+        int kind = NORMALIZED_ASCII;
+
+        // ASCII white space and control characters all sort before the space
+        if (trim && length > 0 && (name.charAt(0) <= ' ' || name.charAt(length - 1) <= ' ')) {
+            kind = ASCII;
+        }
+
+        // Subtracting wraps every character below the range around, so one comparison tests the whole range
+        char upperCase = foldCase ? 'A' : 0x80;
+
+        for (int i = 0; i < length; i++) {
+            char c = name.charAt(i);
+
+            if (c >= 0x80) {
+                return NOT_ASCII;
+            }
+
+            if ((char) (c - upperCase) < 26) {
+                kind = ASCII;
+            }
+        }
+        return kind;
+    }
+}
@@ -0,0 +1,121 @@
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class is the list of students whose names have the same normalized key in a Directory, for example
+ * everyone named "Smith", "smith" or "SMITH". It does not copy the students: it holds the StudentBucket of
+ * every spelling of the name and reads through them, so it always reflects the directory. Most keys have a
+ * single spelling, and the directory then returns the read-only view of that bucket instead.
+ * @author: Zijie Huang
+ * @date: 10/18/2026
+ */
+class NameVariants extends AbstractList<Student> {
+    /**
+     * The bucket of the first spelling of the name. It is kept apart so the common case of a single spelling
+     * is answered without going through a list.
+     */
+    private StudentBucket first;
+
+    /**
+     * The buckets of the other spellings of the name, in the order they were added, or null if there are none.
+     */
+    private List<StudentBucket> others;
+
+    /**
+     * The read-only view returned by the directory's searches: the view of the first bucket while it is the
+     * only one, or a view of this list.
+     */
+    private List<Student> readOnlyView;
+
+    /**
+     * Create the list of a normalized name with its first spelling.
+     * @param pfirst The bucket of the first spelling
+     */
+    NameVariants(StudentBucket pfirst) {
+        first = pfirst;
+        readOnlyView = pfirst.readOnlyView();
+    }
+
+    @Override
+    public Student get(int index) {
+        if (index >= 0 && index < first.size()) {
+            return first.get(index);
+        }
+
+        int remaining = index - first.size();
+
+        if (index >= 0 && others != null) {
+            for (StudentBucket bucket : others) {
+                if (remaining < bucket.size()) {
+                    return bucket.get(remaining);
+                }
+                remaining -= bucket.size();
+            }
+        }
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+    }
+
+    @Override
+    public int size() {
+        int size = first.size();
+
+        if (others != null) {
+            for (StudentBucket bucket : others) {
+                size += bucket.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Add the bucket of another spelling of the name.
+     * @param bucket The bucket
+     */
+    void addBucket(StudentBucket bucket) {
+        if (others == null) {
+            others = new ArrayList<>(1);
+        }
+
+        others.add(bucket);
+        readOnlyView = Collections.unmodifiableList(this);
+        modCount++;
+    }
+
+    /**
+     * Remove the bucket of a spelling that no student has any more.
+     * @param bucket The bucket, compared by identity
+     * @return True if no spelling is left
+     */
+    boolean removeBucket(StudentBucket bucket) {
+        if (bucket == first) {
+            if (others == null) {
+                return true;
+            }
+            first = others.remove(0);
+        } else {
+            for (int i = 0; i < others.size(); i++) {
+                if (others.get(i) == bucket) {
+                    others.remove(i);
+                    break;
+                }
+            }
+        }
+
+        if (others.isEmpty()) {
+            others = null;
+            readOnlyView = first.readOnlyView();
+        }
+        modCount++;
+        return false;
+    }
+
+    /**
+     * Get a read-only view of the students, without creating a list when there is only one spelling.
+     * @return The read-only view of the only bucket, or of all buckets together
+     */
+    List<Student> readOnlyView() {
+        return readOnlyView;
+    }
+}
@@ -0,0 +1,635 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This class is a directory that keeps its students and its indexes outside the Java heap, in direct
+ * ByteBuffers, so the garbage collector never has to trace them and its pauses do not grow with the
+ * directory.
+ *
+ * Every student is a record in a segment of off-heap memory, addressed by a long holding the segment number
+ * in the high half and the offset in the low half. A record holds the packed phone number, the UTF-8 bytes
+ * of the Andrew ID and names, and the links of three chained hash tables whose buckets are off-heap too: one
+ * for Andrew IDs and one each for first and last names. The name chains are doubly linked so a student can
+ * be unlinked without walking the chain. Deleted records go on a free list for their size, and later
+ * records of the same size reuse them. Free records of other sizes cannot be reused, so once the free records
+ * take more bytes than the live ones, the live records are copied into new segments and the old segments are
+ * released. Student objects are only created for search results.
+ *
+ * Unlike Directory, the Andrew ID, first name and last name of a student must not be null, and each must be
+ * shorter than 65,536 bytes in UTF-8. The direct memory used is limited by -XX:MaxDirectMemorySize.
+ * @author: Zijie Huang
+ * @date: 10/18/2026
+ */
+public class OffHeapDirectory implements StudentDirectory {
+    /**
+     * The size of the first segment in bytes. Every later segment is twice as big, up to MAX_SEGMENT_BYTES.
+     */
+    private static final int FIRST_SEGMENT_BYTES = 1 << 16;
+
+    /**
+     * The largest size of a segment in bytes.
+     */
+    private static final int MAX_SEGMENT_BYTES = 1 << 30;
+
+    /**
+     * The number of buckets the hash tables start with.
+     */
+    private static final int INITIAL_BUCKETS = 1 << 10;
+
+    /**
+     * The largest number of buckets, so a table stays within one direct buffer. Chains get longer past it.
+     */
+    private static final int MAX_BUCKETS = 1 << 27;
+
+    /**
+     * The offsets of the record fields. Records are 8-byte aligned, so are the long fields.
+     */
+    private static final int SIZE = 0;
+    private static final int ID_HASH = 4;
+    private static final int NEXT_ID = 8;
+    private static final int NEXT_FIRST = 16;
+    private static final int PREV_FIRST = 24;
+    private static final int NEXT_LAST = 32;
+    private static final int PREV_LAST = 40;
+    private static final int PHONE = 48;
+    private static final int FIRST_HASH = 56;
+    private static final int LAST_HASH = 60;
+    private static final int ID_LENGTH = 64;
+    private static final int FIRST_LENGTH = 66;
+    private static final int LAST_LENGTH = 68;
+    private static final int DATA = 70;
+
+    /**
+     * The segments records are allocated from.
+     */
+    private ByteBuffer[] segments = new ByteBuffer[8];
+
+    /**
+     * The number of segments.
+     */
+    private int segmentCount;
+
+    /**
+     * The offset of the first unused byte in the last segment.
+     */
+    private int top;
+
+    /**
+     * The first free record of every size, indexed by size / 8, or 0 if there is none.
+     * A free record links to the next one through its NEXT_ID field.
+     */
+    private long[] freeRecords = new long[64];
+
+    /**
+     * The number of bytes in live records and in free records.
+     */
+    private long liveBytes;
+    private long freeBytes;
+
+    /**
+     * The bucket heads of the Andrew ID, first name and last name tables, one long per bucket.
+     */
+    private ByteBuffer idBuckets;
+    private ByteBuffer firstBuckets;
+    private ByteBuffer lastBuckets;
+
+    /**
+     * The number of buckets in each table. Always a power of two.
+     */
+    private int bucketCount;
+
+    /**
+     * The number of students in the directory.
+     */
+    private int count;
+
+    /**
+     * This constructor creates an empty directory.
+     */
+    public OffHeapDirectory() {
+        bucketCount = INITIAL_BUCKETS;
+        idBuckets = ByteBuffer.allocateDirect(bucketCount * 8).order(ByteOrder.nativeOrder());
+        firstBuckets = ByteBuffer.allocateDirect(bucketCount * 8).order(ByteOrder.nativeOrder());
+        lastBuckets = ByteBuffer.allocateDirect(bucketCount * 8).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * This constructor reads a CSV file in the same format as Directory(String fn).
+     * Rows with a duplicate Andrew ID or a missing Andrew ID or name are skipped.
+     * @param fn The CSV file name
+     */
+    public OffHeapDirectory(String fn) {
+        this();
+
+        try (Directory.CSVReader reader = new Directory.CSVReader(new FileReader(fn))) {
+            String[] values = reader.readCSVLine();
+
+            while (values != null) {
+                try {
+                    addStudent(Directory.toStudent(values));
+                } catch (IllegalArgumentException e) {
+                    // Skip the row
+                }
+                values = reader.readCSVLine();
+            }
+        } catch (IOException e) {
+            System.out.println("Error reading file: " + e);
+        }
+    }
+
+    /**
+     * This method adds a student to the off-heap records and indexes.
+     * @param student
+     */
+    @Override
+    public void addStudent(Student student) {
+        if (student == null) {
+            throw new IllegalArgumentException("Student cannot be null.");
+        }
+
+        if (student.getAndrewId() == null || student.getFirstName() == null || student.getLastName() == null) {
+            throw new IllegalArgumentException("Andrew ID and names cannot be null.");
+        }
+
+        byte[] andrewID = student.getAndrewId().getBytes(StandardCharsets.UTF_8);
+        int idHash = hash(student.getAndrewId());
+
+        if (findByAndrewId(andrewID, idHash) != 0) {
+            throw new DuplicateStudentException();
+        }
+
+        byte[] firstName = student.getFirstName().getBytes(StandardCharsets.UTF_8);
+        byte[] lastName = student.getLastName().getBytes(StandardCharsets.UTF_8);
+
+        if (andrewID.length > 0xFFFF || firstName.length > 0xFFFF || lastName.length > 0xFFFF) {
+            throw new IllegalArgumentException("Andrew ID and names must be shorter than 65,536 bytes.");
+        }
+
+        if (count == bucketCount && bucketCount < MAX_BUCKETS) {
+            resize();
+        }
+
+        int size = (DATA + andrewID.length + firstName.length + lastName.length + 7) & ~7;
+        long record = allocate(size);
+        ByteBuffer segment = segment(record);
+        int at = offset(record);
+
+        segment.putInt(at + SIZE, size);
+        segment.putInt(at + ID_HASH, idHash);
+        segment.putInt(at + FIRST_HASH, hash(student.getFirstName()));
+        segment.putInt(at + LAST_HASH, hash(student.getLastName()));
+        segment.putLong(at + PHONE, Student.packPhoneNumber(student.getPhoneNumber()));
+        segment.putChar(at + ID_LENGTH, (char) andrewID.length);
+        segment.putChar(at + FIRST_LENGTH, (char) firstName.length);
+        segment.putChar(at + LAST_LENGTH, (char) lastName.length);
+        segment.put(at + DATA, andrewID);
+        segment.put(at + DATA + andrewID.length, firstName);
+        segment.put(at + DATA + andrewID.length + firstName.length, lastName);
+
+        link(record);
+        count++;
+    }
+
+    /**
+     * This method deletes a student by andrewID and frees its record.
+     * @param andrewID
+     * @return The deleted student
+     */
+    @Override
+    public Student deleteStudent(String andrewID) {
+        if (andrewID == null) {
+            throw new IllegalArgumentException("Andrew ID cannot be null.");
+        }
+
+        long record = findByAndrewId(andrewID.getBytes(StandardCharsets.UTF_8), hash(andrewID));
+
+        if (record == 0) {
+            throw new MissingStudentException();
+        }
+
+        Student student = toStudent(record);
+        unlink(record);
+        free(record);
+        count--;
+
+        if (freeBytes > liveBytes && freeBytes > FIRST_SEGMENT_BYTES) {
+            compact();
+        }
+        return student;
+    }
+
+    /**
+     * This method searches a student by andrewID.
+     * @param andrewID
+     * @return A new Student object with the student's info and null if the student does not exist
+     */
+    @Override
+    public Student searchByAndrewId(String andrewID) {
+        if (andrewID == null) {
+            throw new IllegalArgumentException("Andrew ID cannot be null.");
+        }
+
+        long record = findByAndrewId(andrewID.getBytes(StandardCharsets.UTF_8), hash(andrewID));
+        return record == 0 ? null : toStudent(record);
+    }
+
+    /**
+     * This method searches students by first name.
+     * @param firstName
+     * @return A read-only list of new Student objects for the students with the same first name
+     */
+    @Override
+    public List<Student> searchByFirstName(String firstName) {
+        if (firstName == null) {
+            throw new IllegalArgumentException("First name cannot be null.");
+        }
+
+        return searchByName(firstName, firstBuckets, FIRST_HASH, NEXT_FIRST, true);
+    }
+
+    /**
+     * This method searches students by last name.
+     * @param lastName
+     * @return A read-only list of new Student objects for the students with the same last name
+     */
+    @Override
+    public List<Student> searchByLastName(String lastName) {
+        if (lastName == null) {
+            throw new IllegalArgumentException("Last name cannot be null.");
+        }
+
+        return searchByName(lastName, lastBuckets, LAST_HASH, NEXT_LAST, false);
+    }
+
+    /**
+     * This method returns the number of students in the directory.
+     * @return The number of students in the directory
+     */
+    @Override
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Get the off-heap memory reserved by the directory, including free space in segments and free records.
+     * @return The number of bytes
+     */
+    long offHeapBytes() {
+        long total = 3L * bucketCount * 8;
+
+        for (int i = 0; i < segmentCount; i++) {
+            total += segments[i].capacity();
+        }
+        return total;
+    }
+
+    /**
+     * Find the record of an Andrew ID.
+     * @param andrewID The UTF-8 bytes of the Andrew ID
+     * @param idHash The hash of the Andrew ID
+     * @return The record, or 0 if there is none
+     */
+    private long findByAndrewId(byte[] andrewID, int idHash) {
+        long record = idBuckets.getLong((idHash & (bucketCount - 1)) * 8);
+
+        while (record != 0) {
+            ByteBuffer segment = segment(record);
+            int at = offset(record);
+
+            if (segment.getInt(at + ID_HASH) == idHash && segment.getChar(at + ID_LENGTH) == andrewID.length
+                && bytesEqual(segment, at + DATA, andrewID)) {
+                return record;
+            }
+            record = segment.getLong(at + NEXT_ID);
+        }
+        return 0;
+    }
+
+    /**
+     * Find the students with a first or last name.
+     * @param name The name
+     * @param buckets The buckets of the name table
+     * @param hashField The offset of the name hash in a record
+     * @param nextField The offset of the next link of the name table in a record
+     * @param first True for first names, false for last names
+     * @return A read-only list of new Student objects for the students with the name
+     */
+    private List<Student> searchByName(String name, ByteBuffer buckets, int hashField, int nextField, boolean first) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        int nameHash = hash(name);
+        long record = buckets.getLong((nameHash & (bucketCount - 1)) * 8);
+        List<Student> result = null;
+
+        while (record != 0) {
+            ByteBuffer segment = segment(record);
+            int at = offset(record);
+            int idLength = segment.getChar(at + ID_LENGTH);
+            int firstLength = segment.getChar(at + FIRST_LENGTH);
+            int nameAt = first ? at + DATA + idLength : at + DATA + idLength + firstLength;
+            int nameLength = first ? firstLength : segment.getChar(at + LAST_LENGTH);
+
+            if (segment.getInt(at + hashField) == nameHash && nameLength == bytes.length
+                && bytesEqual(segment, nameAt, bytes)) {
+                if (result == null) {
+                    result = new ArrayList<>();
+                }
+                result.add(toStudent(record));
+            }
+            record = segment.getLong(at + nextField);
+        }
+
+        return result == null ? Collections.emptyList() : Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Check whether the bytes at a position of a segment are the same as an array.
+     * @param segment The segment
+     * @param at The position
+     * @param bytes The array
+     * @return True if they are the same
+     */
+    private static boolean bytesEqual(ByteBuffer segment, int at, byte[] bytes) {
+        for (int i = 0; i < bytes.length; i++) {
+            if (segment.get(at + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Create the Student object of a record.
+     * @param record The record
+     * @return The student
+     */
+    private Student toStudent(long record) {
+        ByteBuffer segment = segment(record);
+        int at = offset(record);
+        int idLength = segment.getChar(at + ID_LENGTH);
+        int firstLength = segment.getChar(at + FIRST_LENGTH);
+
+        String andrewID = readString(segment, at + DATA, idLength);
+        String firstName = readString(segment, at + DATA + idLength, firstLength);
+        String lastName = readString(segment, at + DATA + idLength + firstLength, segment.getChar(at + LAST_LENGTH));
+        return new Student(andrewID, firstName, lastName, segment.getLong(at + PHONE));
+    }
+
+    /**
+     * Decode a UTF-8 string from a segment.
+     * @param segment The segment
+     * @param at The position of the string
+     * @param length The length of the string in bytes
+     * @return The string
+     */
+    private static String readString(ByteBuffer segment, int at, int length) {
+        byte[] bytes = new byte[length];
+        segment.get(at, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Add a record to the heads of its chains in the three tables.
+     * @param record The record
+     */
+    private void link(long record) {
+        ByteBuffer segment = segment(record);
+        int at = offset(record);
+        int mask = bucketCount - 1;
+
+        int bucket = (segment.getInt(at + ID_HASH) & mask) * 8;
+        segment.putLong(at + NEXT_ID, idBuckets.getLong(bucket));
+        idBuckets.putLong(bucket, record);
+
+        linkName(record, firstBuckets, (segment.getInt(at + FIRST_HASH) & mask) * 8, NEXT_FIRST, PREV_FIRST);
+        linkName(record, lastBuckets, (segment.getInt(at + LAST_HASH) & mask) * 8, NEXT_LAST, PREV_LAST);
+    }
+
+    /**
+     * Add a record to the head of a doubly linked name chain.
+     * @param record The record
+     * @param buckets The buckets of the name table
+     * @param bucket The byte offset of the bucket
+     * @param nextField The offset of the next link in a record
+     * @param prevField The offset of the previous link in a record
+     */
+    private void linkName(long record, ByteBuffer buckets, int bucket, int nextField, int prevField) {
+        long head = buckets.getLong(bucket);
+
+        segment(record).putLong(offset(record) + nextField, head);
+        segment(record).putLong(offset(record) + prevField, 0);
+        if (head != 0) {
+            segment(head).putLong(offset(head) + prevField, record);
+        }
+        buckets.putLong(bucket, record);
+    }
+
+    /**
+     * Remove a record from its chains in the three tables.
+     * @param record The record
+     */
+    private void unlink(long record) {
+        ByteBuffer segment = segment(record);
+        int at = offset(record);
+        int mask = bucketCount - 1;
+
+        // The Andrew ID chain is singly linked, but short
+        int bucket = (segment.getInt(at + ID_HASH) & mask) * 8;
+        long next = segment.getLong(at + NEXT_ID);
+        long current = idBuckets.getLong(bucket);
+
+        if (current == record) {
+            idBuckets.putLong(bucket, next);
+        } else {
+            while (segment(current).getLong(offset(current) + NEXT_ID) != record) {
+                current = segment(current).getLong(offset(current) + NEXT_ID);
+            }
+            segment(current).putLong(offset(current) + NEXT_ID, next);
+        }
+
+        unlinkName(record, firstBuckets, (segment.getInt(at + FIRST_HASH) & mask) * 8, NEXT_FIRST, PREV_FIRST);
+        unlinkName(record, lastBuckets, (segment.getInt(at + LAST_HASH) & mask) * 8, NEXT_LAST, PREV_LAST);
+    }
+
+    /**
+     * Remove a record from a doubly linked name chain.
+     * @param record The record
+     * @param buckets The buckets of the name table
+     * @param bucket The byte offset of the bucket
+     * @param nextField The offset of the next link in a record
+     * @param prevField The offset of the previous link in a record
+     */
+    private void unlinkName(long record, ByteBuffer buckets, int bucket, int nextField, int prevField) {
+        long next = segment(record).getLong(offset(record) + nextField);
+        long prev = segment(record).getLong(offset(record) + prevField);
+
+        if (prev == 0) {
+            buckets.putLong(bucket, next);
+        } else {
+            segment(prev).putLong(offset(prev) + nextField, next);
+        }
+
+        if (next != 0) {
+            segment(next).putLong(offset(next) + prevField, prev);
+        }
+    }
+
+    /**
+     * Double the number of buckets of the three tables and move every record to its new chains.
+     */
+    private void resize() {
+        ByteBuffer oldIdBuckets = idBuckets;
+        int oldBucketCount = bucketCount;
+
+        bucketCount *= 2;
+        idBuckets = ByteBuffer.allocateDirect(bucketCount * 8).order(ByteOrder.nativeOrder());
+        firstBuckets = ByteBuffer.allocateDirect(bucketCount * 8).order(ByteOrder.nativeOrder());
+        lastBuckets = ByteBuffer.allocateDirect(bucketCount * 8).order(ByteOrder.nativeOrder());
+
+        // Every record is in exactly one Andrew ID chain, so walking those finds every record once
+        for (int bucket = 0; bucket < oldBucketCount; bucket++) {
+            long record = oldIdBuckets.getLong(bucket * 8);
+
+            while (record != 0) {
+                long next = segment(record).getLong(offset(record) + NEXT_ID);
+                link(record);
+                record = next;
+            }
+        }
+    }
+
+    /**
+     * Copy every live record into new segments and release the old ones and every free record. The tables keep
+     * their number of buckets, but the chains are built again because every record gets a new address.
+     */
+    private void compact() {
+        ByteBuffer[] oldSegments = segments;
+        ByteBuffer oldIdBuckets = idBuckets;
+
+        segments = new ByteBuffer[8];
+        segmentCount = 0;
+        freeRecords = new long[64];
+        freeBytes = 0;
+        idBuckets = ByteBuffer.allocateDirect(bucketCount * 8).order(ByteOrder.nativeOrder());
+        firstBuckets = ByteBuffer.allocateDirect(bucketCount * 8).order(ByteOrder.nativeOrder());
+        lastBuckets = ByteBuffer.allocateDirect(bucketCount * 8).order(ByteOrder.nativeOrder());
+
+        // One segment holds every live record unless they take more than the largest segment
+        addSegment((int) Math.min(liveBytes, MAX_SEGMENT_BYTES - 8));
+        liveBytes = 0;
+
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            long record = oldIdBuckets.getLong(bucket * 8);
+
+            while (record != 0) {
+                ByteBuffer oldSegment = oldSegments[(int) (record >>> 32)];
+                int oldAt = offset(record);
+                int size = oldSegment.getInt(oldAt + SIZE);
+
+                long copy = allocate(size);
+                segment(copy).put(offset(copy), oldSegment, oldAt, size);
+                link(copy);
+                record = oldSegment.getLong(oldAt + NEXT_ID);
+            }
+        }
+    }
+
+    /**
+     * Get space for a record, reusing a free record of the same size if there is one.
+     * @param size The size of the record in bytes, a multiple of 8
+     * @return The record
+     */
+    private long allocate(int size) {
+        int sizeClass = size / 8;
+        liveBytes += size;
+
+        if (sizeClass < freeRecords.length && freeRecords[sizeClass] != 0) {
+            long record = freeRecords[sizeClass];
+            freeRecords[sizeClass] = segment(record).getLong(offset(record) + NEXT_ID);
+            freeBytes -= size;
+            return record;
+        }
+
+        if (segmentCount == 0 || top + size > segments[segmentCount - 1].capacity()) {
+            addSegment(size);
+        }
+
+        long record = ((long) (segmentCount - 1) << 32) | top;
+        top += size;
+        return record;
+    }
+
+    /**
+     * Put a deleted record on the free list of its size.
+     * @param record The record
+     */
+    private void free(long record) {
+        int size = segment(record).getInt(offset(record) + SIZE);
+        int sizeClass = size / 8;
+        liveBytes -= size;
+        freeBytes += size;
+
+        if (sizeClass >= freeRecords.length) {
+            freeRecords = Arrays.copyOf(freeRecords, Math.max(sizeClass + 1, freeRecords.length * 2));
+        }
+
+        segment(record).putLong(offset(record) + NEXT_ID, freeRecords[sizeClass]);
+        freeRecords[sizeClass] = record;
+    }
+
+    /**
+     * Start a new segment that is big enough for a record, or for every record copied by compact(). The rest
+     * of the last segment is left unused.
+     * @param size The number of bytes the segment must hold
+     */
+    private void addSegment(int size) {
+        int capacity = segmentCount == 0 ? FIRST_SEGMENT_BYTES
+            : (int) Math.min(MAX_SEGMENT_BYTES, segments[segmentCount - 1].capacity() * 2L);
+
+        if (segmentCount == segments.length) {
+            segments = Arrays.copyOf(segments, segmentCount * 2);
+        }
+
+        segments[segmentCount] = ByteBuffer.allocateDirect(Math.max(capacity, size + 8))
+            .order(ByteOrder.nativeOrder());
+
+        // Offset 0 of the first segment is never used, so address 0 can mean no record
+        top = segmentCount == 0 ? 8 : 0;
+        segmentCount++;
+    }
+
+    /**
+     * Get the segment of a record.
+     * @param record The record
+     * @return The segment
+     */
+    private ByteBuffer segment(long record) {
+        return segments[(int) (record >>> 32)];
+    }
+
+    /**
+     * Get the offset of a record in its segment.
+     * @param record The record
+     * @return The offset
+     */
+    private static int offset(long record) {
+        return (int) record;
+    }
+
+    /**
+     * Spread the hash code of a key over the low bits used to pick a bucket.
+     * @param key The key
+     * @return The hash
+     */
+    private static int hash(String key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
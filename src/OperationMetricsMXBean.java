@@ -0,0 +1,24 @@
+/**
+ * This interface is the JMX view of the metrics of one Directory operation. JMX clients see the snapshot as a
+ * composite value with the call count, latency percentiles and result sizes.
+ * @author: Zijie Huang
+ * @date: 10/18/2026
+ */
+public interface OperationMetricsMXBean {
+    /**
+     * This method returns the name of the operation.
+     * @return The name
+     */
+    String getName();
+
+    /**
+     * This method takes a snapshot of the metrics recorded so far.
+     * @return The snapshot
+     */
+    DirectoryMetrics.Snapshot getSnapshot();
+
+    /**
+     * This method clears the metrics of the operation.
+     */
+    void reset();
+}
@@ -0,0 +1,349 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class is a thread-safe directory for workloads that are almost all searches.
+ *
+ * The three maps are kept in an immutable Index that is published through a single volatile reference.
+ * Searches read the current Index without taking any lock, so they never wait for an update and never see
+ * a half-applied add or delete. Updates are serialized and copy on write: each map is split into shards
+ * that are held in groups, and an update copies only the shards, groups and name lists it touches, then
+ * publishes a new Index that shares every other shard and group with the old one.
+ * @author: Zijie Huang
+ * @date: 10/18/2026
+ */
+public class ReadOptimizedDirectory implements StudentDirectory {
+    /**
+     * The number of shards each map is split into. It is a power of two.
+     */
+    private static final int SHARDS = 4096;
+
+    /**
+     * The number of shards in a group. An update copies the array of groups and one group per map, instead
+     * of an array of every shard.
+     */
+    private static final int GROUP_SIZE = 64;
+
+    /**
+     * The current index. It is replaced, never modified, by updates.
+     */
+    private volatile Index index;
+
+    /**
+     * This constructor creates an empty directory.
+     */
+    public ReadOptimizedDirectory() {
+        index = new Index();
+    }
+
+    /**
+     * This constructor creates a directory with the students of another directory.
+     * The shards are filled in one pass instead of being copied once per student.
+     * @param directory The directory to copy the students from
+     */
+    public ReadOptimizedDirectory(Directory directory) {
+        Index initial = new Index();
+
+        for (Student student : directory.students()) {
+            shardFor(initial.andrewIDShards, student.getAndrewId()).put(student.getAndrewId(), student);
+            addToShard(shardFor(initial.firstNameShards, student.getFirstName()), student.getFirstName(), student);
+            addToShard(shardFor(initial.lastNameShards, student.getLastName()), student.getLastName(), student);
+        }
+
+        // Make every name list read-only before the index is published
+        freezeLists(initial.firstNameShards);
+        freezeLists(initial.lastNameShards);
+        initial.size = directory.size();
+
+        index = initial;
+    }
+
+    /**
+     * This method adds a student to the three maps.
+     * @param student
+     */
+    @Override
+    public synchronized void addStudent(Student student) {
+        if (student == null) {
+            throw new IllegalArgumentException("Student cannot be null.");
+        }
+
+        Index current = index;
+
+        if (shardFor(current.andrewIDShards, student.getAndrewId()).containsKey(student.getAndrewId())) {
+            throw new DuplicateStudentException();
+        }
+
+        Index next = new Index(current);
+
+        copyShard(next.andrewIDShards, student.getAndrewId()).put(student.getAndrewId(), student);
+
+        Map<String, List<Student>> firstShard = copyShard(next.firstNameShards, student.getFirstName());
+        firstShard.put(student.getFirstName(), appended(firstShard.get(student.getFirstName()), student));
+
+        Map<String, List<Student>> lastShard = copyShard(next.lastNameShards, student.getLastName());
+        lastShard.put(student.getLastName(), appended(lastShard.get(student.getLastName()), student));
+
+        next.size = current.size + 1;
+        index = next;
+    }
+
+    /**
+     * This method deletes a student by andrewID in the three maps.
+     * @param andrewID
+     * @return The deleted student
+     */
+    @Override
+    public synchronized Student deleteStudent(String andrewID) {
+        if (andrewID == null) {
+            throw new IllegalArgumentException("Andrew ID cannot be null.");
+        }
+
+        Index current = index;
+        Student student = shardFor(current.andrewIDShards, andrewID).get(andrewID);
+
+        if (student == null) {
+            throw new MissingStudentException();
+        }
+
+        Index next = new Index(current);
+
+        copyShard(next.andrewIDShards, andrewID).remove(andrewID);
+        removeFromShard(copyShard(next.firstNameShards, student.getFirstName()), student.getFirstName(), student);
+        removeFromShard(copyShard(next.lastNameShards, student.getLastName()), student.getLastName(), student);
+
+        next.size = current.size - 1;
+        index = next;
+        return student;
+    }
+
+    /**
+     * This method searches a student by andrewID without taking a lock.
+     * @param andrewID
+     * @return The object of the student and null if the student does not exist
+     */
+    @Override
+    public Student searchByAndrewId(String andrewID) {
+        if (andrewID == null) {
+            throw new IllegalArgumentException("Andrew ID cannot be null.");
+        }
+
+        return shardFor(index.andrewIDShards, andrewID).get(andrewID);
+    }
+
+    /**
+     * This method searches a student by first name without taking a lock.
+     * @param firstName
+     * @return A read-only snapshot of the students with the same first name
+     */
+    @Override
+    public List<Student> searchByFirstName(String firstName) {
+        if (firstName == null) {
+            throw new IllegalArgumentException("First name cannot be null.");
+        }
+
+        return readOnly(shardFor(index.firstNameShards, firstName).get(firstName));
+    }
+
+    /**
+     * This method searches a student by last name without taking a lock.
+     * @param lastName
+     * @return A read-only snapshot of the students with the same last name
+     */
+    @Override
+    public List<Student> searchByLastName(String lastName) {
+        if (lastName == null) {
+            throw new IllegalArgumentException("Last name cannot be null.");
+        }
+
+        return readOnly(shardFor(index.lastNameShards, lastName).get(lastName));
+    }
+
+    /**
+     * This method returns the number of students in the directory.
+     * @return The number of students in the directory
+     */
+    @Override
+    public int size() {
+        return index.size;
+    }
+
+    /**
+     * Return a name list of a published index. The lists are already read-only and never change, so they
+     * are returned without copying.
+     * @param sameName The name list, may be null
+     * @return The name list, or an empty list if there is none
+     */
+    private static List<Student> readOnly(List<Student> sameName) {
+        return sameName == null ? Collections.<Student>emptyList() : sameName;
+    }
+
+    /**
+     * Get the shard of a key.
+     * @param shards The groups of shards of a map
+     * @param key The key, may be null
+     * @return The shard the key belongs to
+     */
+    private static <V> Map<String, V> shardFor(Map<String, V>[][] shards, String key) {
+        int shard = shardOf(key);
+        return shards[shard / GROUP_SIZE][shard % GROUP_SIZE];
+    }
+
+    /**
+     * Replace the shard of a key in a new index with a private copy that can be modified before the index is published.
+     * The group of the shard is copied too, because the old index still shares it.
+     * @param shards The groups of shards of a map in the new index
+     * @param key The key, may be null
+     * @return The copied shard
+     */
+    private static <V> Map<String, V> copyShard(Map<String, V>[][] shards, String key) {
+        int shard = shardOf(key);
+        Map<String, V>[] group = shards[shard / GROUP_SIZE].clone();
+        Map<String, V> copy = new HashMap<>(group[shard % GROUP_SIZE]);
+
+        group[shard % GROUP_SIZE] = copy;
+        shards[shard / GROUP_SIZE] = group;
+        return copy;
+    }
+
+    /**
+     * Create the groups of empty shards of a map.
+     * @return The groups
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <V> Map<String, V>[][] newShards() {
+        Map<String, V>[][] shards = new Map[SHARDS / GROUP_SIZE][GROUP_SIZE];
+
+        for (Map<String, V>[] group : shards) {
+            for (int i = 0; i < GROUP_SIZE; i++) {
+                group[i] = new HashMap<>();
+            }
+        }
+        return shards;
+    }
+
+    /**
+     * Get the shard index of a key.
+     * @param key The key, may be null
+     * @return The shard index
+     */
+    private static int shardOf(String key) {
+        int h = key == null ? 0 : key.hashCode();
+        h ^= h >>> 16;
+        return h & (SHARDS - 1);
+    }
+
+    /**
+     * Create a read-only list with one more student.
+     * @param sameName The current list, may be null
+     * @param student The student to append
+     * @return The new list
+     */
+    private static List<Student> appended(List<Student> sameName, Student student) {
+        List<Student> result = sameName == null ? new ArrayList<>(1) : new ArrayList<>(sameName.size() + 1);
+
+        if (sameName != null) {
+            result.addAll(sameName);
+        }
+
+        result.add(student);
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Replace the list of a name in a copied shard with a read-only list without the student.
+     * The name is dropped from the shard once no student has it.
+     * @param shard The copied shard
+     * @param name The name
+     * @param student The student to remove
+     */
+    private static void removeFromShard(Map<String, List<Student>> shard, String name, Student student) {
+        List<Student> remaining = new ArrayList<>(shard.get(name));
+        remaining.remove(student);
+
+        if (remaining.isEmpty()) {
+            shard.remove(name);
+        } else {
+            shard.put(name, Collections.unmodifiableList(remaining));
+        }
+    }
+
+    /**
+     * Add a student to a name list of a shard that is still being built.
+     * @param shard The shard
+     * @param name The name
+     * @param student The student
+     */
+    private static void addToShard(Map<String, List<Student>> shard, String name, Student student) {
+        List<Student> sameName = shard.get(name);
+
+        if (sameName == null) {
+            sameName = new ArrayList<>();
+            shard.put(name, sameName);
+        }
+
+        sameName.add(student);
+    }
+
+    /**
+     * Wrap every name list of a map that is still being built in a read-only view.
+     * @param shards The groups of shards of the map
+     */
+    private static void freezeLists(Map<String, List<Student>>[][] shards) {
+        for (Map<String, List<Student>>[] group : shards) {
+            for (Map<String, List<Student>> shard : group) {
+                for (Map.Entry<String, List<Student>> entry : shard.entrySet()) {
+                    entry.setValue(Collections.unmodifiableList(entry.getValue()));
+                }
+            }
+        }
+    }
+
+    /**
+     * An immutable version of the three maps. Only the updating thread modifies an Index, and only before it is published.
+     */
+    private static final class Index {
+        /**
+         * The groups of shards of the map from Andrew ID to Student object.
+         */
+        final Map<String, Student>[][] andrewIDShards;
+
+        /**
+         * The groups of shards of the map from first name to a List of Student objects.
+         */
+        final Map<String, List<Student>>[][] firstNameShards;
+
+        /**
+         * The groups of shards of the map from last name to a List of Student objects.
+         */
+        final Map<String, List<Student>>[][] lastNameShards;
+
+        /**
+         * The number of students.
+         */
+        int size;
+
+        /**
+         * Create an empty index.
+         */
+        Index() {
+            andrewIDShards = newShards();
+            firstNameShards = newShards();
+            lastNameShards = newShards();
+        }
+
+        /**
+         * Create an index that shares all groups of shards with another one.
+         * @param other The index to share the shards with
+         */
+        Index(Index other) {
+            andrewIDShards = other.andrewIDShards.clone();
+            firstNameShards = other.firstNameShards.clone();
+            lastNameShards = other.lastNameShards.clone();
+            size = other.size;
+        }
+    }
+}
@@ -0,0 +1,463 @@
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.SplittableRandom;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * This class writes generated rosters in the CSV format Directory(String fn) reads, for benchmarks and load
+ * tests that need more than the few rows of students.csv.
+ *
+ * First and last names are drawn from fixed vocabularies with a Zipf distribution, so a few names are very
+ * common and most are rare, like in a real roster. Every row is generated from the seed and its row number
+ * alone, so the same arguments always write the same file, and a duplicate row can repeat an earlier row
+ * without remembering it. Rows are written as they are generated, so any number of rows needs the same
+ * memory.
+ *
+ * Optionally, some rows are malformed (blank, too few values, an unterminated quote or a phone number without
+ * ten digits) and some repeat the Andrew ID of an earlier row.
+ * Run it with: java RosterGenerator <file> <rows> [--seed n] [--malformed rate] [--duplicates rate]
+ * @author: Zijie Huang
+ * @date: 10/18/2026
+ */
+public class RosterGenerator {
+    /**
+     * The syllables names are made of.
+     */
+    private static final String[] SYLLABLES = {"an", "ber", "car", "da", "el", "fin", "gar", "han", "is", "jo", "ka",
+        "lee", "mar", "nor", "ol", "per", "qui", "ros", "sam", "tan", "ul", "van", "wil", "xa", "yor", "zel", "son",
+        "ton", "ley", "man"};
+
+    /**
+     * Names that need their quotes or are not plain letters, mixed into the vocabularies.
+     */
+    private static final String[] SPECIAL_NAMES = {"O'Neil", "Mary-Jane", "Van Der Berg", "D'Angelo", "St. John",
+        "Jos\u00e9", "Zo\u00eb", "Nguy\u1ec5n"};
+
+    /**
+     * The number of distinct first names.
+     */
+    private static final int FIRST_NAMES = 5000;
+
+    /**
+     * The number of distinct last names.
+     */
+    private static final int LAST_NAMES = 20000;
+
+    /**
+     * The Zipf exponent of the name distributions.
+     */
+    private static final double NAME_SKEW = 0.9;
+
+    /**
+     * The seed of the roster.
+     */
+    private final long seed;
+
+    /**
+     * The fraction of rows that are malformed.
+     */
+    private final double malformedRate;
+
+    /**
+     * The fraction of rows that repeat the Andrew ID of an earlier row.
+     */
+    private final double duplicateRate;
+
+    /**
+     * The first name vocabulary, most common first.
+     */
+    private final String[] firstNames;
+
+    /**
+     * The last name vocabulary, most common first.
+     */
+    private final String[] lastNames;
+
+    /**
+     * The cumulative Zipf weights of the first names.
+     */
+    private final double[] firstWeights;
+
+    /**
+     * The cumulative Zipf weights of the last names.
+     */
+    private final double[] lastWeights;
+
+    /**
+     * The number of malformed rows written.
+     */
+    private long malformedRows;
+
+    /**
+     * The number of duplicate rows written.
+     */
+    private long duplicateRows;
+
+    /**
+     * Constructor take the seed and the fractions of malformed and duplicate rows.
+     * @param seed The seed
+     * @param malformedRate The fraction of rows that are malformed, from 0 to 1
+     * @param duplicateRate The fraction of rows that repeat the Andrew ID of an earlier row, from 0 to 1
+     */
+    public RosterGenerator(long seed, double malformedRate, double duplicateRate) {
+        if (malformedRate < 0 || duplicateRate < 0 || malformedRate + duplicateRate > 1) {
+            throw new IllegalArgumentException("Rates must be between 0 and 1.");
+        }
+
+        this.seed = seed;
+        this.malformedRate = malformedRate;
+        this.duplicateRate = duplicateRate;
+
+        SplittableRandom random = new SplittableRandom(seed);
+        firstNames = vocabulary(FIRST_NAMES, random);
+        lastNames = vocabulary(LAST_NAMES, random);
+        firstWeights = zipfCumulative(FIRST_NAMES, NAME_SKEW);
+        lastWeights = zipfCumulative(LAST_NAMES, NAME_SKEW);
+    }
+
+    /**
+     * Constructor take the seed of a roster with only well-formed, distinct rows.
+     * @param seed The seed
+     */
+    public RosterGenerator(long seed) {
+        this(seed, 0, 0);
+    }
+
+    /**
+     * This method writes a roster with a header line to a file.
+     * @param fn The file name
+     * @param rows The number of rows after the header
+     * @throws IOException if the file cannot be written
+     */
+    public void write(String fn, long rows) throws IOException {
+        try (Writer out = new BufferedWriter(new FileWriter(fn), 1 << 16)) {
+            write(out, rows);
+        }
+    }
+
+    /**
+     * This method writes a roster with a header line.
+     * @param out The writer
+     * @param rows The number of rows after the header
+     * @throws IOException if the roster cannot be written
+     */
+    public void write(Writer out, long rows) throws IOException {
+        StringBuilder line = new StringBuilder(96);
+        out.write("\"First Name\",\"Last Name\",\"Andrew ID\",\"Phone Number\"\n");
+
+        for (long row = 0; row < rows; row++) {
+            line.setLength(0);
+            appendRow(line, row);
+            out.append(line);
+        }
+    }
+
+    /**
+     * This method returns the number of malformed rows written so far.
+     * @return The number of malformed rows
+     */
+    public long getMalformedRows() {
+        return malformedRows;
+    }
+
+    /**
+     * This method returns the number of duplicate rows written so far.
+     * @return The number of duplicate rows
+     */
+    public long getDuplicateRows() {
+        return duplicateRows;
+    }
+
+    /**
+     * Append one row and its line break.
+     * @param line The line to append to
+     * @param row The row number
+     */
+    private void appendRow(StringBuilder line, long row) {
+        SplittableRandom random = rowRandom(row);
+        double kind = random.nextDouble();
+        String firstName = firstName(random);
+        String lastName = lastName(random);
+        String andrewID = andrewID(firstName, lastName, row);
+
+        if (kind < malformedRate) {
+            malformedRows++;
+            appendMalformedRow(line, random, firstName, lastName, andrewID);
+        } else {
+            if (kind < malformedRate + duplicateRate) {
+                String earlier = earlierAndrewID(random, row);
+
+                if (earlier != null) {
+                    duplicateRows++;
+                    andrewID = earlier;
+                }
+            }
+
+            appendValue(line, random, firstName).append(',');
+            appendValue(line, random, lastName).append(',');
+            appendValue(line, random, andrewID).append(',');
+            appendValue(line, random, phoneNumber(random));
+        }
+        line.append('\n');
+    }
+
+    /**
+     * Find the Andrew ID of a random earlier row that was written with its own Andrew ID.
+     * The earlier row is generated again from its row number, so no Andrew ID has to be kept.
+     * @param random The random source of this row
+     * @param row The row number of this row
+     * @return The Andrew ID, or null if no such row was found in a few tries
+     */
+    private String earlierAndrewID(SplittableRandom random, long row) {
+        for (int i = 0; i < 8 && row > 0; i++) {
+            long earlier = random.nextLong(row);
+            SplittableRandom earlierRandom = rowRandom(earlier);
+
+            if (earlierRandom.nextDouble() >= malformedRate + duplicateRate) {
+                return andrewID(firstName(earlierRandom), lastName(earlierRandom), earlier);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Append a value, quoted most of the time like in students.csv.
+     * @param line The line to append to
+     * @param random The random source of the row
+     * @param value The value
+     * @return The line
+     */
+    private static StringBuilder appendValue(StringBuilder line, SplittableRandom random, String value) {
+        if (random.nextInt(4) == 0) {
+            return line.append(value);
+        }
+        return line.append('"').append(value).append('"');
+    }
+
+    /**
+     * Append a malformed row: a blank line, too few values, an unterminated quote, or a phone number without
+     * ten digits.
+     * @param line The line to append to
+     * @param random The random source of the row
+     * @param firstName The first name of the row
+     * @param lastName The last name of the row
+     * @param andrewID The Andrew ID of the row
+     */
+    private static void appendMalformedRow(StringBuilder line, SplittableRandom random, String firstName,
+        String lastName, String andrewID) {
+        switch (random.nextInt(4)) {
+            case 0:
+                break;
+            case 1:
+                line.append('"').append(firstName).append("\",\"").append(lastName).append('"');
+                break;
+            case 2:
+                line.append('"').append(firstName).append(",\"").append(lastName).append("\",\"").append(andrewID)
+                .append("\",\"").append(phoneNumber(random)).append('"');
+                break;
+            default:
+                line.append('"').append(firstName).append("\",\"").append(lastName).append("\",\"").append(andrewID)
+                .append("\",\"").append(random.nextInt(1_000_000)).append('"');
+                break;
+        }
+    }
+
+    /**
+     * Get the random source of a row, which depends only on the seed and the row number.
+     * @param row The row number
+     * @return The random source
+     */
+    private SplittableRandom rowRandom(long row) {
+        return new SplittableRandom(seed * 0x9E3779B97F4A7C15L + row);
+    }
+
+    /**
+     * Draw a first name.
+     * @param random The random source
+     * @return The first name
+     */
+    private String firstName(SplittableRandom random) {
+        return firstNames[zipfIndex(firstWeights, random)];
+    }
+
+    /**
+     * Draw a last name.
+     * @param random The random source
+     * @return The last name
+     */
+    private String lastName(SplittableRandom random) {
+        return lastNames[zipfIndex(lastWeights, random)];
+    }
+
+    /**
+     * Make the Andrew ID of a row from the first letter of its first name, up to five letters of its last name
+     * and the row number, which makes it unique.
+     * @param firstName The first name
+     * @param lastName The last name
+     * @param row The row number
+     * @return The Andrew ID
+     */
+    private static String andrewID(String firstName, String lastName, long row) {
+        StringBuilder andrewID = new StringBuilder(16);
+
+        andrewID.append(Character.toLowerCase(firstName.charAt(0)));
+        for (int i = 0; i < lastName.length() && andrewID.length() < 6; i++) {
+            char c = lastName.charAt(i);
+            if (c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z') {
+                andrewID.append(Character.toLowerCase(c));
+            }
+        }
+        return andrewID.append(row).toString();
+    }
+
+    /**
+     * Draw a Pittsburgh phone number in one of the formats people type.
+     * @param random The random source
+     * @return The phone number
+     */
+    private static String phoneNumber(SplittableRandom random) {
+        int exchange = random.nextInt(1000);
+        int line = random.nextInt(10000);
+        StringBuilder phoneNumber = new StringBuilder(16);
+
+        switch (random.nextInt(4)) {
+            case 0:
+                phoneNumber.append("412-");
+                appendDigits(phoneNumber, exchange, 3).append('-');
+                break;
+            case 1:
+                phoneNumber.append("(412) ");
+                appendDigits(phoneNumber, exchange, 3).append('-');
+                break;
+            case 2:
+                phoneNumber.append("412");
+                appendDigits(phoneNumber, exchange, 3);
+                break;
+            default:
+                phoneNumber.append("412.");
+                appendDigits(phoneNumber, exchange, 3).append('.');
+                break;
+        }
+        return appendDigits(phoneNumber, line, 4).toString();
+    }
+
+    /**
+     * Append a number with leading zeros.
+     * @param builder The builder to append to
+     * @param value The number
+     * @param digits The number of digits
+     * @return The builder
+     */
+    private static StringBuilder appendDigits(StringBuilder builder, int value, int digits) {
+        for (int divisor = (int) Math.pow(10, digits - 1); divisor > 0; divisor /= 10) {
+            builder.append((char) ('0' + value / divisor % 10));
+        }
+        return builder;
+    }
+
+    /**
+     * Make a vocabulary of distinct names from syllables, with the special names at random ranks.
+     * @param count The number of names
+     * @param random The random source
+     * @return The names
+     */
+    private static String[] vocabulary(int count, SplittableRandom random) {
+        HashSet<String> seen = new HashSet<>(Arrays.asList(SPECIAL_NAMES));
+        String[] names = new String[count];
+        int found = 0;
+
+        while (found < count - SPECIAL_NAMES.length) {
+            StringBuilder name = new StringBuilder();
+            int length = 2 + random.nextInt(2);
+
+            for (int i = 0; i < length; i++) {
+                name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+
+            if (seen.add(name.toString())) {
+                names[found++] = name.toString();
+            }
+        }
+
+        for (String special : SPECIAL_NAMES) {
+            int rank = random.nextInt(found + 1);
+            names[found++] = names[rank];
+            names[rank] = special;
+        }
+        return names;
+    }
+
+    /**
+     * Get the cumulative weights of a Zipf distribution, where rank r has weight 1 / r^exponent.
+     * @param count The number of ranks
+     * @param exponent The exponent
+     * @return The cumulative weights, ending with 1
+     */
+    private static double[] zipfCumulative(int count, double exponent) {
+        double[] cumulative = new double[count];
+        double total = 0;
+
+        for (int rank = 0; rank < count; rank++) {
+            total += 1 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = total;
+        }
+        for (int rank = 0; rank < count; rank++) {
+            cumulative[rank] /= total;
+        }
+        return cumulative;
+    }
+
+    /**
+     * Draw a rank from a Zipf distribution.
+     * @param cumulative The cumulative weights from zipfCumulative
+     * @param random The random source
+     * @return The rank, starting at 0
+     */
+    private static int zipfIndex(double[] cumulative, SplittableRandom random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(index < 0 ? -index - 1 : index, cumulative.length - 1);
+    }
+
+    /**
+     * Main method that writes a roster.
+     * @param args The file name and the number of rows, followed by the options
+     * @throws IOException if the file cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || args.length % 2 != 0) {
+            System.out.println("Usage: java RosterGenerator <file> <rows> [--seed n] [--malformed rate] "
+            + "[--duplicates rate]");
+            return;
+        }
+
+        long rows = Long.parseLong(args[1]);
+        long seed = 42;
+        double malformedRate = 0;
+        double duplicateRate = 0;
+
+        for (int i = 2; i < args.length; i += 2) {
+            if (args[i].equals("--seed")) {
+                seed = Long.parseLong(args[i + 1]);
+            } else if (args[i].equals("--malformed")) {
+                malformedRate = Double.parseDouble(args[i + 1]);
+            } else if (args[i].equals("--duplicates")) {
+                duplicateRate = Double.parseDouble(args[i + 1]);
+            } else {
+                System.out.println("Unknown option: " + args[i]);
+                return;
+            }
+        }
+
+        RosterGenerator generator = new RosterGenerator(seed, malformedRate, duplicateRate);
+        long start = System.nanoTime();
+        generator.write(args[0], rows);
+
+        System.out.printf("Wrote %,d rows (%,d malformed, %,d duplicate Andrew IDs) to %s in %.1f s%n", rows,
+        generator.getMalformedRows(), generator.getDuplicateRows(), args[0], (System.nanoTime() - start) / 1e9);
+    }
+}
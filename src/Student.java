@@ -1,102 +1,225 @@
-/**
- * This is the Student class that stores the information of a student.
- * @author: Zijie Huang
- * @date: 09/25/2023
- */
-public class Student {
-
-    /**
-     * The student's Andrew ID.
-     */
-    private String andrewID;
-
-    /**
-     * The student's first name.
-     */
-    private String firstName;
-
-    /**
-     * The student's last name.
-     */
-    private String lastName;
-
-    /**
-     * The student's phone number.
-     */
-    private String phoneNumber;
-
-    public Student(Student other) {
-        this.andrewID = other.andrewID;
-        this.firstName = other.firstName;
-        this.lastName = other.lastName;
-        this.phoneNumber = other.phoneNumber;
-    }
-
-    public Student(String pandrewID) {
-        this.andrewID = pandrewID;
-        this.firstName = null;
-        this.lastName = null;
-        this.phoneNumber = null;
-    }
-
-    public String getAndrewId() {
-        return andrewID;
-    }
-
-    public String getFirstName() {
-        return firstName;
-    }
-
-    public String getLastName() {
-        return lastName;
-    }
-
-    public String getPhoneNumber() {
-        return phoneNumber;
-    }
-
-    public void setFirstName(String pfirstName) {
-        this.firstName = pfirstName;
-    }
-
-    public void setLastName(String plastName) {
-        this.lastName = plastName;
-    }
-
-    public void setPhoneNumber(String pphoneNumber) {
-        this.phoneNumber = formatPhoneNumber(pphoneNumber);
-    }
-
-    /**
-     * This method formats the phone number to the format xxx-xxx-xxxx.
-     * @param input
-     * @return The formatted phone number
-     */
-    private String formatPhoneNumber(String input) {
-        if (input == null) {
-            throw new IllegalArgumentException("Phone number cannot be null.");
-        }
-
-        String cleaned = input.replaceAll("[^0-9]", "");
-
-        if (cleaned.length() == 0) {
-            return "";
-        }
-
-        if (cleaned.length() == 10) {
-            return String.format("%s-%s-%s", cleaned.substring(0, 3), cleaned.substring(3, 6), cleaned.substring(6, 10));
-        }
-
-        return null;
-    }
-
-    @Override
-    public String toString() {
-        StringBuilder result = new StringBuilder();
-        result.append(firstName).append(" ").append(lastName).append(" ");
-        result.append("(Andrew ID: ").append(andrewID).append(", ");
-        result.append("Phone Number: ").append(phoneNumber);
-        result.append(")");
-        return result.toString();
-    }
-}
+/**
+ * This is the Student class that stores the information of a student.
+ * Students are immutable, so a Student can be shared between the directory and its callers without copying.
+ * @author: Zijie Huang
+ * @date: 09/25/2023
+ */
+public final class Student {
+
+    /**
+     * The student's Andrew ID.
+     */
+    private final String andrewID;
+
+    /**
+     * The student's first name.
+     */
+    private final String firstName;
+
+    /**
+     * The student's last name.
+     */
+    private final String lastName;
+
+    /**
+     * The student's phone number.
+     */
+    private final String phoneNumber;
+
+    public Student(Student other) {
+        this.andrewID = other.andrewID;
+        this.firstName = other.firstName;
+        this.lastName = other.lastName;
+        this.phoneNumber = other.phoneNumber;
+    }
+
+    /**
+     * This constructor creates a student. The phone number is formatted to xxx-xxx-xxxx, to an empty string
+     * if it has no digits, or to null if it does not have exactly 10 digits.
+     * @param pandrewID
+     * @param pfirstName
+     * @param plastName
+     * @param pphoneNumber
+     */
+    public Student(String pandrewID, String pfirstName, String plastName, String pphoneNumber) {
+        this.andrewID = pandrewID;
+        this.firstName = pfirstName;
+        this.lastName = plastName;
+        this.phoneNumber = formatPhoneNumber(pphoneNumber);
+    }
+
+    /**
+     * This constructor creates a student whose phone number is packed into a long, for example when it is
+     * read back from a snapshot file.
+     * @param pandrewID
+     * @param pfirstName
+     * @param plastName
+     * @param packedPhoneNumber The phone number as returned by packPhoneNumber
+     */
+    Student(String pandrewID, String pfirstName, String plastName, long packedPhoneNumber) {
+        this.andrewID = pandrewID;
+        this.firstName = pfirstName;
+        this.lastName = plastName;
+        this.phoneNumber = unpackPhoneNumber(packedPhoneNumber);
+    }
+
+    /**
+     * This constructor copies a student with other Strings for the same names.
+     * @param other The student to copy
+     * @param pfirstName A String equal to the first name of the student
+     * @param plastName A String equal to the last name of the student
+     */
+    private Student(Student other, String pfirstName, String plastName) {
+        this.andrewID = other.andrewID;
+        this.firstName = pfirstName;
+        this.lastName = plastName;
+        this.phoneNumber = other.phoneNumber;
+    }
+
+    /**
+     * This method returns this student with its names replaced by equal Strings, so that students with the
+     * same name can share one String. The phone number is kept as it is instead of being formatted again.
+     * @param pfirstName A String equal to the first name of the student
+     * @param plastName A String equal to the last name of the student
+     * @return This student if it already uses the given Strings, otherwise a copy that does
+     */
+    Student withNames(String pfirstName, String plastName) {
+        if (pfirstName == firstName && plastName == lastName) {
+            return this;
+        }
+        return new Student(this, pfirstName, plastName);
+    }
+
+    public String getAndrewId() {
+        return andrewID;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public String getPhoneNumber() {
+        return phoneNumber;
+    }
+
+    /**
+     * This method formats the phone number to the format xxx-xxx-xxxx.
+     * It keeps the digits of the input in a single pass, and returns the input itself if it is formatted already.
+     * @param input
+     * @return The formatted phone number, "" if the input has no digits and null if it does not have ten
+     */
+    static String formatPhoneNumber(String input) {
+        if (input == null) {
+            throw new IllegalArgumentException("Phone number cannot be null.");
+        }
+
+        if (isFormatted(input)) {
+            return input;
+        }
+
+        char[] formatted = {'0', '0', '0', '-', '0', '0', '0', '-', '0', '0', '0', '0'};
+        int digits = 0;
+
+        for (int i = 0; i < input.length(); i++) {
+            char c = input.charAt(i);
+
+            if (c >= '0' && c <= '9') {
+                // Skip the dashes at positions 3 and 7
+                if (digits < 10) {
+                    formatted[digits < 3 ? digits : digits < 6 ? digits + 1 : digits + 2] = c;
+                }
+                digits++;
+            }
+        }
+
+        if (digits == 0) {
+            return "";
+        }
+
+        return digits == 10 ? new String(formatted) : null;
+    }
+
+    /**
+     * This method checks whether a phone number is in the format xxx-xxx-xxxx already.
+     * @param input
+     * @return True if it is
+     */
+    private static boolean isFormatted(String input) {
+        if (input.length() != 12) {
+            return false;
+        }
+
+        for (int i = 0; i < 12; i++) {
+            char c = input.charAt(i);
+
+            if (i == 3 || i == 7 ? c != '-' : c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * This method packs a formatted phone number into a long.
+     * The ten digits are stored as a number, an empty phone number as -1 and a missing one as -2.
+     * @param formatted The phone number as returned by getPhoneNumber
+     * @return The packed phone number
+     */
+    static long packPhoneNumber(String formatted) {
+        if (formatted == null) {
+            return -2;
+        }
+
+        if (formatted.length() == 0) {
+            return -1;
+        }
+
+        long packed = 0;
+        for (int i = 0; i < formatted.length(); i++) {
+            char c = formatted.charAt(i);
+            if (c >= '0' && c <= '9') {
+                packed = packed * 10 + (c - '0');
+            }
+        }
+        return packed;
+    }
+
+    /**
+     * This method turns a packed phone number back into the format xxx-xxx-xxxx.
+     * @param packed The phone number as returned by packPhoneNumber
+     * @return The formatted phone number
+     */
+    static String unpackPhoneNumber(long packed) {
+        if (packed == -2) {
+            return null;
+        }
+
+        if (packed == -1) {
+            return "";
+        }
+
+        char[] digits = {'0', '0', '0', '-', '0', '0', '0', '-', '0', '0', '0', '0'};
+        for (int i = digits.length - 1; i >= 0; i--) {
+            if (digits[i] == '-') {
+                continue;
+            }
+            digits[i] = (char) ('0' + packed % 10);
+            packed /= 10;
+        }
+        return new String(digits);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        result.append(firstName).append(" ").append(lastName).append(" ");
+        result.append("(Andrew ID: ").append(andrewID).append(", ");
+        result.append("Phone Number: ").append(phoneNumber);
+        result.append(")");
+        return result.toString();
+    }
+}
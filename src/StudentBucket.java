@@ -0,0 +1,172 @@
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * This class is the list of students that share a first name or a last name in a Directory.
+ *
+ * Students are kept in an array in no particular order. Removing a student moves the last student into
+ * its place, so a removal never shifts the array. Small buckets find the student to remove by scanning;
+ * once a bucket grows past LINEAR_SCAN_LIMIT students it also keeps the position of every student, so
+ * removing from a popular name takes constant time.
+ * @author: Zijie Huang
+ * @date: 10/18/2026
+ */
+class StudentBucket extends AbstractList<Student> implements RandomAccess {
+    /**
+     * The largest bucket that is searched by scanning instead of by the position map.
+     */
+    private static final int LINEAR_SCAN_LIMIT = 16;
+
+    /**
+     * The students in the bucket. Only the first size entries are used.
+     */
+    private Student[] students;
+
+    /**
+     * The number of students in the bucket.
+     */
+    private int size;
+
+    /**
+     * The position of every student in the array, or null while the bucket is small.
+     */
+    private Map<Student, Integer> positions;
+
+    /**
+     * The read-only view returned by the directory's searches, created the first time it is needed.
+     */
+    private List<Student> readOnlyView;
+
+    /**
+     * The name shared by the students of the bucket. Students added later with an equal name are given this
+     * String, so the directory keeps each distinct name only once.
+     */
+    private final String name;
+
+    /**
+     * Create an empty bucket.
+     * @param pname The name shared by the students of the bucket
+     */
+    StudentBucket(String pname) {
+        students = new Student[2];
+        name = pname;
+    }
+
+    /**
+     * Get the name shared by the students of the bucket.
+     * @return The name
+     */
+    String name() {
+        return name;
+    }
+
+    @Override
+    public Student get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return students[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Add a student to the end of the bucket.
+     * @param student The student
+     * @return Always true
+     */
+    @Override
+    public boolean add(Student student) {
+        if (size == students.length) {
+            students = Arrays.copyOf(students, size * 2);
+        }
+
+        students[size] = student;
+
+        if (positions != null) {
+            positions.put(student, size);
+        } else if (size + 1 > LINEAR_SCAN_LIMIT) {
+            positions = new IdentityHashMap<>(size * 2);
+            for (int i = 0; i <= size; i++) {
+                positions.put(students[i], i);
+            }
+        }
+
+        size++;
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Remove a student from the bucket by moving the last student into its place.
+     * @param student The student, compared by identity
+     * @return True if the student was in the bucket
+     */
+    boolean removeStudent(Student student) {
+        int index = indexOfStudent(student);
+
+        if (index < 0) {
+            return false;
+        }
+
+        int last = size - 1;
+        Student moved = students[last];
+        students[index] = moved;
+        students[last] = null;
+        size = last;
+
+        if (positions != null) {
+            positions.remove(student);
+
+            if (moved != student) {
+                positions.put(moved, index);
+            }
+
+            // Go back to scanning once the bucket is small again
+            if (size <= LINEAR_SCAN_LIMIT / 2) {
+                positions = null;
+            }
+        }
+
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Get a read-only view of the bucket. The same view is returned every time.
+     * @return The read-only view
+     */
+    List<Student> readOnlyView() {
+        if (readOnlyView == null) {
+            readOnlyView = Collections.unmodifiableList(this);
+        }
+        return readOnlyView;
+    }
+
+    /**
+     * Find the position of a student.
+     * @param student The student, compared by identity
+     * @return The position, or -1 if the student is not in the bucket
+     */
+    private int indexOfStudent(Student student) {
+        if (positions != null) {
+            Integer index = positions.get(student);
+            return index == null ? -1 : index;
+        }
+
+        for (int i = 0; i < size; i++) {
+            if (students[i] == student) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
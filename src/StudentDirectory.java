@@ -0,0 +1,73 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * This interface lists the operations every student directory supports, so the same code can run against
+ * the plain Directory and the alternative implementations.
+ * @author: Zijie Huang
+ * @date: 10/18/2026
+ */
+public interface StudentDirectory {
+    /**
+     * This method adds a student to the directory.
+     * @param student
+     * @throws IllegalArgumentException if the student is null
+     * @throws DuplicateStudentException if the Andrew ID already exists
+     */
+    void addStudent(Student student);
+
+    /**
+     * This method deletes a student by andrewID.
+     * @param andrewID
+     * @return The deleted student
+     * @throws IllegalArgumentException if the Andrew ID is null
+     * @throws MissingStudentException if the Andrew ID does not exist
+     */
+    Student deleteStudent(String andrewID);
+
+    /**
+     * This method searches a student by andrewID.
+     * @param andrewID
+     * @return The object of the student and null if the student does not exist
+     */
+    Student searchByAndrewId(String andrewID);
+
+    /**
+     * This method searches students by a collection of andrewIDs.
+     * @param andrewIDs
+     * @return The students in the order of the Andrew IDs, with null for an Andrew ID that does not exist
+     * @throws IllegalArgumentException if the collection or one of the Andrew IDs is null
+     */
+    default List<Student> searchByAndrewIds(Collection<String> andrewIDs) {
+        if (andrewIDs == null) {
+            throw new IllegalArgumentException("Andrew IDs cannot be null.");
+        }
+
+        List<Student> result = new ArrayList<>(andrewIDs.size());
+        for (String andrewID : andrewIDs) {
+            result.add(searchByAndrewId(andrewID));
+        }
+        return result;
+    }
+
+    /**
+     * This method searches students by first name.
+     * @param firstName
+     * @return The list of students with the same first name
+     */
+    List<Student> searchByFirstName(String firstName);
+
+    /**
+     * This method searches students by last name.
+     * @param lastName
+     * @return The list of students with the same last name
+     */
+    List<Student> searchByLastName(String lastName);
+
+    /**
+     * This method returns the number of students in the directory.
+     * @return The number of students in the directory
+     */
+    int size();
+}